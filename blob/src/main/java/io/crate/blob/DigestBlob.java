@@ -94,7 +94,7 @@ public class DigestBlob implements Closeable {
         return tmpFile;
     }
 
-    private void updateDigest(ByteBuffer bbf) throws IOException {
+    private void updateDigest(ByteBuffer[] byteBuffers) throws IOException {
         if (md == null) {
             try {
                 md = MessageDigest.getInstance("SHA-1");
@@ -102,13 +102,23 @@ public class DigestBlob implements Closeable {
                 throw new IOException(e);
             }
         }
-        md.update(bbf.slice());
+        for (ByteBuffer byteBuffer : byteBuffers) {
+            md.update(byteBuffer.slice());
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer[] byteBuffers, int length) throws IOException {
+        long written = 0;
+        while (written < length) {
+            written += channel.write(byteBuffers);
+        }
     }
 
     private void addContent(ByteBuf buffer, boolean last) throws IOException {
         if (buffer != null) {
             int readableBytes = buffer.readableBytes();
-            ByteBuffer byteBuffer = buffer.nioBuffer();
+            // nioBuffers() doesn't copy the components of composite buffers, unlike nioBuffer()
+            ByteBuffer[] byteBuffers = buffer.nioBuffers();
             if (file == null) {
                 file = createTmpFile();
             }
@@ -117,15 +127,12 @@ public class DigestBlob implements Closeable {
                 fileChannel = outputStream.getChannel();
             }
 
-            int written = 0;
-            do {
-                if (headLength == 0) {
-                    updateDigest(byteBuffer);
-                }
-                written += fileChannel.write(byteBuffer);
-            } while (written < readableBytes);
+            if (headLength == 0) {
+                updateDigest(byteBuffers);
+            }
+            write(fileChannel, byteBuffers, readableBytes);
             size += readableBytes;
-            buffer.readerIndex(buffer.readerIndex() + written);
+            buffer.readerIndex(buffer.readerIndex() + readableBytes);
             chunks++;
         }
         if (last) {
@@ -216,17 +223,14 @@ public class DigestBlob implements Closeable {
             return;
         }
 
-        int written = 0;
         ByteBuf byteBuf = Netty4Utils.toByteBuf(content);
         int readableBytes = byteBuf.readableBytes();
         assert readableBytes + headSize.get() <= headLength : "Got too many bytes in addToHead()";
 
-        ByteBuffer byteBuffer = byteBuf.nioBuffer();
-        while (written < readableBytes) {
-            updateDigest(byteBuffer);
-            written += headFileChannel.write(byteBuffer);
-        }
-        headSize.addAndGet(written);
+        ByteBuffer[] byteBuffers = byteBuf.nioBuffers();
+        updateDigest(byteBuffers);
+        write(headFileChannel, byteBuffers, readableBytes);
+        headSize.addAndGet(readableBytes);
         if (headSize.get() == headLength) {
             headCatchedUpLatch.countDown();
         }
@@ -25,6 +25,7 @@ import io.crate.blob.BlobContainer;
 import io.crate.blob.DigestBlob;
 import io.crate.test.integration.CrateUnitTest;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -33,6 +34,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Locale;
 import java.util.UUID;
 
@@ -130,4 +132,22 @@ public class DigestBlobTests extends CrateUnitTest {
         // just in case any references to file left
         assertThat(file.delete(), is(true));
     }
+
+    @Test
+    public void testAddContentConsistingOfMultipleBuffers() throws IOException {
+        BlobContainer container = new BlobContainer(tmpFolder.newFolder().toPath());
+        DigestBlob digestBlob = new DigestBlob(container, "417de3231e23dcd6d224ff60918024bc6c59aa58", UUID.randomUUID());
+
+        digestBlob.addContent(new CompositeBytesReference(
+            new BytesArray("ABCDE".getBytes(StandardCharsets.UTF_8)),
+            new BytesArray("FGHIJ".getBytes(StandardCharsets.UTF_8)),
+            new BytesArray("KLM".getBytes(StandardCharsets.UTF_8))), false);
+        digestBlob.addContent(new BytesArray("NO".getBytes(StandardCharsets.UTF_8)), true);
+
+        // commit fails with a DigestMismatchException if the content wasn't digested exactly once
+        File file = digestBlob.commit();
+        assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), is("ABCDEFGHIJKLMNO"));
+        assertThat(digestBlob.size(), is(15));
+        assertThat(digestBlob.chunks(), is(2L));
+    }
 }
@@ -25,10 +25,14 @@ package io.crate.data;
 import io.crate.concurrent.CompletableFutures;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
@@ -95,6 +99,60 @@ public class CollectingBatchIterator<A> implements BatchIterator {
         return new CloseAssertingBatchIterator(new CollectingBatchIterator<>(source, consumer, numCols));
     }
 
+    /**
+     * Create a BatchIterator which consumes the sources concurrently using {@code executor}.
+     * Each source is consumed into its own state by the collector at the same position, so the collectors don't have
+     * to be thread-safe. Once all sources are consumed, the states are merged using the combiner and the result is
+     * created using the finisher of the first collector.
+     *
+     * <pre>
+     *     sources:
+     *     [ 1, 2 ]  [ 2, 1 ]
+     *
+     *     output (summing collectors):
+     *     [ 6 ]
+     * </pre>
+     */
+    public static <A> BatchIterator newInstance(Executor executor,
+                                                BatchIterator[] sources,
+                                                List<? extends Collector<Row, A, ? extends Iterable<Row>>> collectors,
+                                                int numCols) {
+        assert sources.length > 0 : "Must have at least 1 source";
+        assert sources.length == collectors.size() : "Must have a collector per source";
+
+        return newInstance(
+            new CompositeBatchIterator(sources.clone()),
+            bi -> collectConcurrently(executor, sources, collectors),
+            numCols
+        );
+    }
+
+    private static <A> CompletableFuture<? extends Iterable<Row>> collectConcurrently(
+            Executor executor,
+            BatchIterator[] sources,
+            List<? extends Collector<Row, A, ? extends Iterable<Row>>> collectors) {
+
+        List<CompletableFuture<A>> stateFutures = new ArrayList<>(sources.length);
+        for (int i = 0; i < sources.length; i++) {
+            BatchIterator source = sources[i];
+            Collector<Row, A, ?> collector = collectors.get(i);
+            Collector<Row, A, A> stateCollector = Collector.of(
+                collector.supplier(), collector.accumulator(), collector.combiner());
+            stateFutures.add(CompletableFuture
+                .supplyAsync(() -> BatchRowVisitor.visitRows(source, stateCollector), executor)
+                .thenCompose(stateFuture -> stateFuture));
+        }
+        Collector<Row, A, ? extends Iterable<Row>> collector = collectors.get(0);
+        BinaryOperator<A> combiner = collector.combiner();
+        return CompletableFutures.allAsList(stateFutures).thenApply(states -> {
+            A state = states.get(0);
+            for (int i = 1; i < states.size(); i++) {
+                state = combiner.apply(state, states.get(i));
+            }
+            return collector.finisher().apply(state);
+        });
+    }
+
     @Override
     public Columns rowData() {
         return rowData;
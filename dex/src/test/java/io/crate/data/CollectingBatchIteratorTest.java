@@ -23,11 +23,17 @@
 package io.crate.data;
 
 import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
 import io.crate.testing.TestingBatchIterators;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collector;
 
 public class CollectingBatchIteratorTest {
 
@@ -40,4 +46,39 @@ public class CollectingBatchIteratorTest {
         );
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
+
+    @Test
+    public void testCollectingBatchIteratorWithConcurrentlyConsumedSources() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            BatchIteratorTester tester = new BatchIteratorTester(
+                () -> CollectingBatchIterator.newInstance(
+                    executorService,
+                    new BatchIterator[] {
+                        TestingBatchIterators.range(0L, 5L),
+                        new CloseAssertingBatchIterator(
+                            new BatchSimulatingIterator(TestingBatchIterators.range(5L, 10L), 2, 2, null))
+                    },
+                    Arrays.asList(summingLong(), summingLong()),
+                    1
+                )
+            );
+            tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+        } finally {
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Collector<Row, long[], List<Row>> summingLong() {
+        return Collector.of(
+            () -> new long[1],
+            (sum, row) -> sum[0] += (long) row.get(0),
+            (sum1, sum2) -> {
+                sum1[0] += sum2[0];
+                return sum1;
+            },
+            sum -> Collections.singletonList(new Row1(sum[0]))
+        );
+    }
 }
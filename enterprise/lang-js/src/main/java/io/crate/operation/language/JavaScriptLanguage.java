@@ -53,13 +53,13 @@ public class JavaScriptLanguage implements UDFLanguage {
             new FunctionIdent(meta.schema(), meta.name(), meta.argumentTypes()),
             meta.returnType()
         );
-        return new JavaScriptUserDefinedFunction(info, meta.definition());
+        return new JavaScriptUserDefinedFunction(info, ENGINE.compile(meta.definition()));
     }
 
     @Nullable
     public String validate(UserDefinedFunctionMetaData meta) {
         try {
-            bindScript(meta.definition());
+            bindScript(ENGINE.compile(meta.definition()));
         } catch (ScriptException e) {
             return String.format(Locale.ENGLISH, "Invalid JavaScript in function '%s.%s(%s)': %s",
                 meta.schema(),
@@ -71,9 +71,8 @@ public class JavaScriptLanguage implements UDFLanguage {
         return null;
     }
 
-    static Bindings bindScript(String source) throws ScriptException {
+    static Bindings bindScript(CompiledScript compiledScript) throws ScriptException {
         Bindings bindings = ENGINE.createBindings();
-        CompiledScript compiledScript = ENGINE.compile(source);
         compiledScript.eval(bindings);
         return bindings;
     }
@@ -23,6 +23,8 @@ import io.crate.data.Input;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Scalar;
 import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import io.crate.types.GeoPointType;
 import io.crate.types.ObjectType;
 import io.crate.types.SetType;
@@ -32,22 +34,47 @@ import jdk.nashorn.internal.runtime.Undefined;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.lucene.BytesRefs;
 
+import javax.annotation.Nullable;
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 public class JavaScriptUserDefinedFunction extends Scalar<Object, Object> {
 
     private final FunctionInfo info;
-    private final String script;
+    private final CompiledScript script;
+    private final UnaryOperator<Object>[] argumentConverters;
 
-    JavaScriptUserDefinedFunction(FunctionInfo info, String script) {
+    JavaScriptUserDefinedFunction(FunctionInfo info, CompiledScript script) {
         this.info = info;
         this.script = script;
+        this.argumentConverters = argumentConverters(info.ident().argumentTypes());
+    }
+
+    /**
+     * Strings are passed to the script as {@link String} instead of {@link BytesRef}, also if they are contained
+     * in objects or arrays. Values of other primitive types can't contain strings and are passed as they are.
+     */
+    @SuppressWarnings("unchecked")
+    private static UnaryOperator<Object>[] argumentConverters(List<DataType> argumentTypes) {
+        UnaryOperator<Object>[] converters = new UnaryOperator[argumentTypes.size()];
+        for (int i = 0; i < converters.length; i++) {
+            DataType type = argumentTypes.get(i);
+            if (type.equals(DataTypes.STRING) || type.equals(DataTypes.IP)) {
+                converters[i] = BytesRefs::toString;
+            } else if (DataTypes.isPrimitive(type)) {
+                converters[i] = UnaryOperator.identity();
+            } else {
+                converters[i] = JavaScriptUserDefinedFunction::processBytesRefInputIfNeeded;
+            }
+        }
+        return converters;
     }
 
     @Override
@@ -58,7 +85,7 @@ public class JavaScriptUserDefinedFunction extends Scalar<Object, Object> {
     @Override
     public Scalar<Object, Object> compile(List<Symbol> arguments) {
         try {
-            return new CompiledFunction(JavaScriptLanguage.bindScript(script));
+            return new CompiledFunction(resolveFunction(JavaScriptLanguage.bindScript(script)));
         } catch (ScriptException e) {
             // this should not happen if the script was evaluated upfront
             throw new io.crate.exceptions.ScriptException(
@@ -72,7 +99,7 @@ public class JavaScriptUserDefinedFunction extends Scalar<Object, Object> {
     @Override
     public Object evaluate(Input<Object>[] values) {
         try {
-            return evaluateScriptWithBindings(JavaScriptLanguage.bindScript(script), values);
+            return evaluateFunction(resolveFunction(JavaScriptLanguage.bindScript(script)), values);
         } catch (ScriptException e) {
             // this should not happen if the script was evaluated upfront
             throw new io.crate.exceptions.ScriptException(
@@ -85,10 +112,11 @@ public class JavaScriptUserDefinedFunction extends Scalar<Object, Object> {
 
     private class CompiledFunction extends Scalar<Object, Object> {
 
-        private final Bindings bindings;
+        @Nullable
+        private final ScriptObjectMirror function;
 
-        private CompiledFunction(Bindings bindings) {
-            this.bindings = bindings;
+        private CompiledFunction(@Nullable ScriptObjectMirror function) {
+            this.function = function;
         }
 
         @Override
@@ -100,25 +128,35 @@ public class JavaScriptUserDefinedFunction extends Scalar<Object, Object> {
 
         @Override
         public final Object evaluate(Input<Object>[] values) {
-            return evaluateScriptWithBindings(bindings, values);
+            return evaluateFunction(function, values);
         }
 
     }
 
-    private Object evaluateScriptWithBindings(Bindings bindings, Input<Object>[] values) {
-        Object[] args = new Object[values.length];
-        for (int i = 0; i < values.length; i++) {
-            args[i] = processBytesRefInputIfNeeded(values[i].value());
+    @Nullable
+    private ScriptObjectMirror resolveFunction(Bindings bindings) {
+        Object function = bindings.get(info.ident().name());
+        if (function instanceof ScriptObjectMirror) {
+            return (ScriptObjectMirror) function;
         }
+        return null;
+    }
 
-        Object result;
-        try {
-            result = ((ScriptObjectMirror) bindings.get(info.ident().name())).call(this, args);
-        } catch (NullPointerException e) {
+    private Object evaluateFunction(@Nullable ScriptObjectMirror function, Input<Object>[] values) {
+        if (function == null) {
             throw new io.crate.exceptions.ScriptException(
                 "The name of the function signature doesn't match the function name in the function definition.",
                 JavaScriptLanguage.NAME
             );
+        }
+        Object[] args = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            args[i] = argumentConverters[i].apply(values[i].value());
+        }
+
+        Object result;
+        try {
+            result = function.call(this, args);
         } catch (ECMAException e) {
             throw new io.crate.exceptions.ScriptException(
                 e.getMessage(),
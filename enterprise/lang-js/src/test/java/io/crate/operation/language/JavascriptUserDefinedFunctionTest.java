@@ -241,6 +241,13 @@ public class JavascriptUserDefinedFunctionTest extends AbstractScalarFunctionsTe
         assertEvaluate("f(name)", "foobar", Literal.of("bar"));
     }
 
+    @Test
+    public void testEvaluateStringAndPrimitiveArguments() throws Exception {
+        registerUserDefinedFunction("f", DataTypes.STRING, ImmutableList.of(DataTypes.STRING, DataTypes.LONG),
+            "function f(name, x) { return name + x; }");
+        assertEvaluate("f(name, x)", "bar2", Literal.of("bar"), Literal.of(2));
+    }
+
     @Test
     public void testJavaScriptFunctionReturnsUndefined() throws Exception {
         registerUserDefinedFunction("f", DataTypes.STRING, ImmutableList.of(DataTypes.STRING),
@@ -0,0 +1,179 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+package io.crate.mqtt.operations;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLOperations;
+import io.crate.data.Row;
+import io.crate.executor.Executor;
+import io.crate.types.DataType;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Inserts rows using bulk operations.
+ * <p>
+ * A row is inserted right away if there is no bulk operation running for its statement. Otherwise it is queued and
+ * all queued rows of the statement are inserted with a single bulk operation once the running operation completes.
+ * The size of the bulk operations therefore grows with the rate at which rows arrive, without delaying rows if the
+ * rate is low. At most {@link #MAX_BATCH_SIZE} rows are inserted with one bulk operation.
+ * <p>
+ * A bulk operation only reports that a row failed, but not why. Such rows are inserted again one by one, so that the
+ * futures returned by {@link #insert(String, List)} are completed with the actual failure.
+ */
+final class BulkInserter {
+
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final Supplier<SQLOperations.Session> sessionFactory;
+    private final List<DataType> paramTypes;
+    private final Map<String, PendingRows> pendingRowsByStatement = new HashMap<>();
+
+    BulkInserter(Supplier<SQLOperations.Session> sessionFactory, List<DataType> paramTypes) {
+        this.sessionFactory = sessionFactory;
+        this.paramTypes = paramTypes;
+    }
+
+    /**
+     * Inserts a row by executing {@code statement} with {@code args} as parameters.
+     *
+     * @return a future which is completed with the row count once the row is written.
+     */
+    CompletableFuture<Long> insert(String statement, List<Object> args) {
+        PendingRow row = new PendingRow(args);
+        List<PendingRow> batch;
+        synchronized (pendingRowsByStatement) {
+            PendingRows pendingRows = pendingRowsByStatement.computeIfAbsent(statement, k -> new PendingRows());
+            pendingRows.rows.add(row);
+            if (pendingRows.inFlight > 0 && pendingRows.rows.size() < MAX_BATCH_SIZE) {
+                return row.result;
+            }
+            batch = pendingRows.take();
+        }
+        executeBatch(statement, batch);
+        return row.result;
+    }
+
+    private void executeBatch(String statement, List<PendingRow> batch) {
+        execute(statement, batch).whenComplete((r, t) -> {
+            List<PendingRow> nextBatch = null;
+            synchronized (pendingRowsByStatement) {
+                PendingRows pendingRows = pendingRowsByStatement.get(statement);
+                pendingRows.inFlight--;
+                if (pendingRows.rows.isEmpty() == false) {
+                    nextBatch = pendingRows.take();
+                } else if (pendingRows.inFlight == 0) {
+                    pendingRowsByStatement.remove(statement);
+                }
+            }
+            if (nextBatch != null) {
+                executeBatch(statement, nextBatch);
+            }
+        });
+    }
+
+    private CompletableFuture<?> execute(String statement, List<PendingRow> rows) {
+        boolean retryFailedRows = rows.size() > 1;
+        List<CompletableFuture<?>> completionFutures = new ArrayList<>(rows.size());
+        SQLOperations.Session session = sessionFactory.get();
+        try {
+            session.parse(SQLOperations.Session.UNNAMED, statement, paramTypes);
+            for (PendingRow row : rows) {
+                session.bind(SQLOperations.Session.UNNAMED, SQLOperations.Session.UNNAMED, row.args, null);
+                RowCountReceiver resultReceiver = new RowCountReceiver(statement, row, retryFailedRows);
+                completionFutures.add(resultReceiver.completionFuture());
+                session.execute(SQLOperations.Session.UNNAMED, 0, resultReceiver);
+            }
+            session.sync();
+        } catch (Throwable t) {
+            for (PendingRow row : rows) {
+                row.result.completeExceptionally(t);
+            }
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            session.close();
+        }
+        return CompletableFuture.allOf(completionFutures.toArray(new CompletableFuture[0]));
+    }
+
+    private class RowCountReceiver extends BaseResultReceiver {
+
+        private final String statement;
+        private final PendingRow row;
+        private final boolean retryOnError;
+        private long rowCount;
+
+        RowCountReceiver(String statement, PendingRow row, boolean retryOnError) {
+            this.statement = statement;
+            this.row = row;
+            this.retryOnError = retryOnError;
+        }
+
+        @Override
+        public void setNextRow(Row row) {
+            rowCount = ((Number) row.get(0)).longValue();
+        }
+
+        @Override
+        public void allFinished(boolean interrupted) {
+            super.allFinished(interrupted);
+            if (rowCount == Executor.ROWCOUNT_ERROR && retryOnError) {
+                execute(statement, Collections.singletonList(row));
+            } else {
+                row.result.complete(rowCount);
+            }
+        }
+
+        @Override
+        public void fail(@Nonnull Throwable t) {
+            super.fail(t);
+            row.result.completeExceptionally(t);
+        }
+    }
+
+    private static class PendingRows {
+
+        private List<PendingRow> rows = new ArrayList<>();
+        private int inFlight = 0;
+
+        private List<PendingRow> take() {
+            List<PendingRow> batch = rows;
+            rows = new ArrayList<>();
+            inFlight++;
+            return batch;
+        }
+    }
+
+    private static class PendingRow {
+
+        private final List<Object> args;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private PendingRow(List<Object> args) {
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+package io.crate.mqtt.operations;
+
+import com.google.common.collect.Iterables;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.Row;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.operation.scalar.cast.CastFunctionResolver;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.lucene.BytesRefs;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The ingest rules of the MQTT source, indexed by topic.
+ * <p>
+ * Rules with a condition which requires the topic to be equal to a literal (e.g. {@code topic = 't1'} or
+ * {@code topic = 't1' and payload['x'] > 10}) are only considered for messages with that topic. All other rules
+ * are considered for every message. The conditions of the considered rules still have to be tested.
+ */
+final class IngestRuleIndex {
+
+    static final IngestRuleIndex EMPTY = new IngestRuleIndex(Collections.emptyMap(), Collections.emptyList());
+
+    private final Map<String, List<Entry>> entriesByTopic;
+    private final List<Entry> entriesForAllTopics;
+
+    private IngestRuleIndex(Map<String, List<Entry>> entriesByTopic, List<Entry> entriesForAllTopics) {
+        this.entriesByTopic = entriesByTopic;
+        this.entriesForAllTopics = entriesForAllTopics;
+    }
+
+    /**
+     * Returns the rules which may match a message with the given topic.
+     */
+    Iterable<Entry> candidates(String topic) {
+        List<Entry> entries = entriesByTopic.get(topic);
+        if (entries == null) {
+            return entriesForAllTopics;
+        }
+        return Iterables.concat(entries, entriesForAllTopics);
+    }
+
+    static final class Entry {
+
+        private final Predicate<Row> condition;
+        private final String insertStatement;
+
+        Entry(Predicate<Row> condition, String insertStatement) {
+            this.condition = condition;
+            this.insertStatement = insertStatement;
+        }
+
+        Predicate<Row> condition() {
+            return condition;
+        }
+
+        String insertStatement() {
+            return insertStatement;
+        }
+    }
+
+    static final class Builder {
+
+        private final int topicIndex;
+        private final Map<String, List<Entry>> entriesByTopic = new HashMap<>();
+        private final List<Entry> entriesForAllTopics = new ArrayList<>();
+
+        /**
+         * @param topicIndex the index of the topic in the rows the conditions are tested against
+         */
+        Builder(int topicIndex) {
+            this.topicIndex = topicIndex;
+        }
+
+        /**
+         * @param conditionSymbol the analyzed condition of the rule or null if the rule has no condition
+         */
+        Builder add(Entry entry, @Nullable Symbol conditionSymbol) {
+            String topic = conditionSymbol == null ? null : requiredTopic(conditionSymbol);
+            if (topic == null) {
+                entriesForAllTopics.add(entry);
+            } else {
+                entriesByTopic.computeIfAbsent(topic, k -> new ArrayList<>()).add(entry);
+            }
+            return this;
+        }
+
+        IngestRuleIndex build() {
+            return new IngestRuleIndex(entriesByTopic, entriesForAllTopics);
+        }
+
+        @Nullable
+        private String requiredTopic(Symbol condition) {
+            if (!(condition instanceof Function)) {
+                return null;
+            }
+            Function function = (Function) condition;
+            List<Symbol> arguments = function.arguments();
+            switch (function.info().ident().name()) {
+                case AndOperator.NAME:
+                    for (Symbol argument : arguments) {
+                        String topic = requiredTopic(argument);
+                        if (topic != null) {
+                            return topic;
+                        }
+                    }
+                    return null;
+
+                case EqOperator.NAME:
+                    if (isTopic(arguments.get(0))) {
+                        return stringLiteral(arguments.get(1));
+                    }
+                    if (isTopic(arguments.get(1))) {
+                        return stringLiteral(arguments.get(0));
+                    }
+                    return null;
+
+                default:
+                    return null;
+            }
+        }
+
+        private boolean isTopic(Symbol symbol) {
+            if (symbol instanceof Function) {
+                Function function = (Function) symbol;
+                if (function.info().ident().name().equals(CastFunctionResolver.FunctionNames.TO_STRING)
+                    && function.arguments().size() == 1) {
+                    symbol = function.arguments().get(0);
+                }
+            }
+            return symbol instanceof InputColumn && ((InputColumn) symbol).index() == topicIndex;
+        }
+
+        @Nullable
+        private static String stringLiteral(Symbol symbol) {
+            if (symbol instanceof Literal && symbol.valueType().equals(DataTypes.STRING)) {
+                Object value = ((Literal) symbol).value();
+                return value == null ? null : BytesRefs.toString(value);
+            }
+            return null;
+        }
+    }
+}
@@ -19,9 +19,7 @@
 package io.crate.mqtt.operations;
 
 import com.google.common.collect.ImmutableMap;
-import io.crate.action.sql.BaseResultReceiver;
 import io.crate.action.sql.Option;
-import io.crate.action.sql.SQLActionException;
 import io.crate.action.sql.SQLOperations;
 import io.crate.analyze.expressions.ExpressionAnalysisContext;
 import io.crate.analyze.expressions.ExpressionAnalyzer;
@@ -51,7 +49,6 @@ import io.crate.types.DataTypes;
 import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.mqtt.MqttPublishMessage;
 import org.apache.logging.log4j.Logger;
-import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
@@ -62,7 +59,6 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -94,9 +90,10 @@ public class MqttIngestService implements IngestRuleListener {
     private final SQLOperations sqlOperations;
     private final IngestionService ingestionService;
     private final User crateUser;
-    private final AtomicReference<Set<Tuple<Predicate<Row>, IngestRule>>> predicateAndIngestRulesReference =
-        new AtomicReference<>(new HashSet<>());
+    private final AtomicReference<IngestRuleIndex> ingestRuleIndexReference =
+        new AtomicReference<>(IngestRuleIndex.EMPTY);
     private final ExpressionAnalysisContext expressionAnalysisContext;
+    private final BulkInserter bulkInserter;
     private boolean isInitialized;
 
     public MqttIngestService(Functions functions,
@@ -126,6 +123,8 @@ public class MqttIngestService implements IngestRuleListener {
             null);
         this.ingestionService = ingestionService;
         this.crateUser = userLookup.findUser("crate");
+        this.bulkInserter = new BulkInserter(
+            () -> sqlOperations.createSession(Schemas.DOC_SCHEMA_NAME, crateUser, Option.NONE, 1), FIELD_TYPES);
     }
 
     /**
@@ -154,7 +153,8 @@ public class MqttIngestService implements IngestRuleListener {
 
     /**
      * Parse the payload of the provided mqtt message and find which {@link IngestRule}s match the message properties.
-     * For every matched rule, execute the insert into the rule's target table.
+     * For every matched rule, insert the message into the rule's target table. The inserts of concurrent messages
+     * into the same table are combined into bulk operations (see {@link BulkInserter}).
      * If we encounter exceptions whilst executing the rules we try to send the ackCallback that failure that's not a
      * "row already exists" (because, in case of messages with the isDup flag set to true, we will send the PUBACK reply
      * to the message).
@@ -172,65 +172,47 @@ public class MqttIngestService implements IngestRuleListener {
             return;
         }
 
-        Set<Tuple<Predicate<Row>, IngestRule>> predicateAndIngestRules = predicateAndIngestRulesReference.get();
+        IngestRuleIndex ingestRuleIndex = ingestRuleIndexReference.get();
         int packetId = msg.variableHeader().packetId();
+        String topic = msg.variableHeader().topicName();
         Object[] args = new Object[]{clientId,
             packetId,
-            msg.variableHeader().topicName(),
+            topic,
             payload};
         List<Object> argsAsList = Arrays.asList(args);
+        Row row = new RowN(args);
 
         boolean messageMatchedRule = false;
-        boolean callbackNotified = false;
-        SQLOperations.Session session = sqlOperations.createSession(Schemas.DOC_SCHEMA_NAME, crateUser, Option.NONE, 1);
-        List<CompletableFuture<?>> insertOperationsFuture = new ArrayList<>(predicateAndIngestRules.size());
-        for (Tuple<Predicate<Row>, IngestRule> entry : predicateAndIngestRules) {
-            if (entry.v1().test(new RowN(args))) {
+        List<CompletableFuture<?>> insertOperationsFuture = new ArrayList<>();
+        for (IngestRuleIndex.Entry entry : ingestRuleIndex.candidates(topic)) {
+            if (entry.condition().test(row)) {
                 messageMatchedRule = true;
-                IngestRule ingestRule = entry.v2();
-
-                try {
-                    session.parse(ingestRule.getName(), "insert into " + TableIdent.fromIndexName(ingestRule.getTargetTable()).fqn() +
-                                                  " (\"client_id\", \"packet_id\", \"topic\", \"ts\", \"payload\") " +
-                                                  "values (?, ?, ?, CURRENT_TIMESTAMP, ?)", FIELD_TYPES);
-                    session.bind(SQLOperations.Session.UNNAMED, ingestRule.getName(), argsAsList, null);
-                    BaseResultReceiver resultReceiver = new BaseResultReceiver();
-                    insertOperationsFuture.add(resultReceiver.completionFuture().exceptionally(t -> {
-                        if (SQLExceptions.isDocumentAlreadyExistsException(t)) {
-                            if (msg.fixedHeader().isDup()) {
-                                // we are dealing with QoS1, so redeliveries and duplicate insert exceptions are
-                                // normal in case of a duplicate message - indicated by the isDup flag
-                                return null;
-                            }
+                insertOperationsFuture.add(bulkInserter.insert(entry.insertStatement(), argsAsList).exceptionally(t -> {
+                    if (SQLExceptions.isDocumentAlreadyExistsException(t)) {
+                        if (msg.fixedHeader().isDup()) {
+                            // we are dealing with QoS1, so redeliveries and duplicate insert exceptions are
+                            // normal in case of a duplicate message - indicated by the isDup flag
+                            return null;
                         }
+                    }
 
-                        Exceptions.rethrowUnchecked(t);
-                        return null;
-                    }));
-                    session.execute(SQLOperations.Session.UNNAMED, 0, resultReceiver);
-                    session.sync();
-                } catch (SQLActionException e) {
-                    ackCallback.accept(null, e);
-                    callbackNotified = true;
-                    break;
-                }
+                    Exceptions.rethrowUnchecked(t);
+                    return null;
+                }));
             }
         }
-        session.close();
 
-        if (callbackNotified == false) {
-            CompletableFuture<Void> allResultsComplete =
-                CompletableFuture.allOf(insertOperationsFuture.toArray(new CompletableFuture[0]));
+        CompletableFuture<Void> allResultsComplete =
+            CompletableFuture.allOf(insertOperationsFuture.toArray(new CompletableFuture[0]));
 
-            allResultsComplete.whenComplete((r, t) -> {
-                if (t != null) {
-                    // the actual cause is wrapped in a CompletionException by CompletableFuture#allOf
-                    ackCallback.accept(null, t.getCause());
-                } else {
-                    ackCallback.accept(r, null);
-                }
-            });
-        }
+        allResultsComplete.whenComplete((r, t) -> {
+            if (t != null) {
+                // the actual cause is wrapped in a CompletionException by CompletableFuture#allOf
+                ackCallback.accept(null, t.getCause());
+            } else {
+                ackCallback.accept(r, null);
+            }
+        });
 
         if (messageMatchedRule == false) {
             LOGGER.warn("Message with client_id {} and packet_id {} did not match any rule. The message will not be " +
@@ -243,17 +225,21 @@ public class MqttIngestService implements IngestRuleListener {
 
     @Override
     public void applyRules(Set<IngestRule> rules) {
-        Set<Tuple<Predicate<Row>, IngestRule>> newRules = new HashSet<>(rules.size());
+        IngestRuleIndex.Builder builder =
+            new IngestRuleIndex.Builder(MQTT_FIELDS_ORDER.get(new QualifiedName("topic")));
         for (IngestRule rule : rules) {
+            String insertStatement = "insert into " + TableIdent.fromIndexName(rule.getTargetTable()).fqn() +
+                                     " (\"client_id\", \"packet_id\", \"topic\", \"ts\", \"payload\") " +
+                                     "values (?, ?, ?, CURRENT_TIMESTAMP, ?)";
             if (rule.getCondition().trim().isEmpty() == false) {
                 Symbol conditionSymbol = expressionAnalyzer.convert(SqlParser.createExpression(rule.getCondition()),
                     expressionAnalysisContext);
                 Predicate<Row> conditionPredicate = RowFilter.create(inputFactory, conditionSymbol);
-                newRules.add(new Tuple<>(conditionPredicate, rule));
+                builder.add(new IngestRuleIndex.Entry(conditionPredicate, insertStatement), conditionSymbol);
             } else {
-                newRules.add(new Tuple<>(ALWAYS_TRUE, rule));
+                builder.add(new IngestRuleIndex.Entry(ALWAYS_TRUE, insertStatement), null);
             }
         }
-        predicateAndIngestRulesReference.set(newRules);
+        ingestRuleIndexReference.set(builder.build());
     }
 }
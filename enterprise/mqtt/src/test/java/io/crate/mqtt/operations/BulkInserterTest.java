@@ -0,0 +1,128 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.mqtt.operations;
+
+import io.crate.action.sql.ResultReceiver;
+import io.crate.action.sql.SQLOperations;
+import io.crate.data.Row1;
+import io.crate.executor.Executor;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.crate.action.sql.SQLOperations.Session.UNNAMED;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BulkInserterTest extends CrateUnitTest {
+
+    private static final String STATEMENT = "insert into t (x) values (?)";
+
+    private SQLOperations.Session session;
+    private BulkInserter bulkInserter;
+
+    @Before
+    public void setUpBulkInserter() throws Exception {
+        session = mock(SQLOperations.Session.class);
+        bulkInserter = new BulkInserter(() -> session, Collections.singletonList(DataTypes.INTEGER));
+    }
+
+    private List<ResultReceiver> verifyExecuted(int times) {
+        ArgumentCaptor<ResultReceiver> resultReceivers = ArgumentCaptor.forClass(ResultReceiver.class);
+        verify(session, times(times)).execute(eq(UNNAMED), eq(0), resultReceivers.capture());
+        return resultReceivers.getAllValues();
+    }
+
+    private static void finish(ResultReceiver resultReceiver, long rowCount) {
+        resultReceiver.setNextRow(new Row1(rowCount));
+        resultReceiver.allFinished(false);
+    }
+
+    @Test
+    public void testRowsAreInsertedInOneBulkOperationWhileAnotherIsRunning() throws Exception {
+        CompletableFuture<Long> first = bulkInserter.insert(STATEMENT, Collections.singletonList(1));
+        CompletableFuture<Long> second = bulkInserter.insert(STATEMENT, Collections.singletonList(2));
+        CompletableFuture<Long> third = bulkInserter.insert(STATEMENT, Collections.singletonList(3));
+
+        finish(verifyExecuted(1).get(0), 1L);
+        assertThat(first.get(), is(1L));
+        assertThat(second.isDone(), is(false));
+
+        List<ResultReceiver> resultReceivers = verifyExecuted(3);
+        verify(session, times(2)).sync();
+        finish(resultReceivers.get(1), 1L);
+        finish(resultReceivers.get(2), 1L);
+        assertThat(second.get(), is(1L));
+        assertThat(third.get(), is(1L));
+    }
+
+    @Test
+    public void testRowFailedInBulkOperationIsInsertedAgain() throws Exception {
+        bulkInserter.insert(STATEMENT, Collections.singletonList(1));
+        CompletableFuture<Long> second = bulkInserter.insert(STATEMENT, Collections.singletonList(2));
+        CompletableFuture<Long> third = bulkInserter.insert(STATEMENT, Collections.singletonList(3));
+        finish(verifyExecuted(1).get(0), 1L);
+
+        List<ResultReceiver> resultReceivers = verifyExecuted(3);
+        finish(resultReceivers.get(1), Executor.ROWCOUNT_ERROR);
+        finish(resultReceivers.get(2), 1L);
+        assertThat(second.isDone(), is(false));
+        assertThat(third.get(), is(1L));
+
+        verify(session, times(2)).bind(UNNAMED, UNNAMED, Collections.singletonList(2), null);
+        verifyExecuted(4).get(3).fail(new IllegalStateException("dummy"));
+
+        expectedException.expectCause(instanceOf(IllegalStateException.class));
+        second.get();
+    }
+
+    @Test
+    public void testFailureBeforeExecutionIsPassedToAllRows() throws Exception {
+        doThrow(new IllegalArgumentException("dummy"))
+            .when(session).parse(anyString(), anyString(), anyListOf(DataType.class));
+
+        CompletableFuture<Long> first = bulkInserter.insert(STATEMENT, Collections.singletonList(1));
+
+        verify(session, never()).execute(anyString(), anyInt(), any(ResultReceiver.class));
+        verify(session, times(1)).close();
+        expectedException.expectCause(instanceOf(IllegalArgumentException.class));
+        first.get();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.mqtt.operations;
+
+import com.google.common.collect.Lists;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class IngestRuleIndexTest extends CrateUnitTest {
+
+    private static final int TOPIC_INDEX = 2;
+
+    private static Function function(String name, DataType argumentType, Symbol left, Symbol right) {
+        return new Function(
+            new FunctionInfo(new FunctionIdent(name, Arrays.asList(argumentType, argumentType)), DataTypes.BOOLEAN),
+            Arrays.asList(left, right));
+    }
+
+    private static Function topicEq(String topic) {
+        return function(
+            EqOperator.NAME, DataTypes.STRING, new InputColumn(TOPIC_INDEX, DataTypes.STRING), Literal.of(topic));
+    }
+
+    private static IngestRuleIndex.Entry entry(String insertStatement) {
+        return new IngestRuleIndex.Entry(row -> true, insertStatement);
+    }
+
+    @Test
+    public void testRulesRequiringTopicAreOnlyCandidatesForThatTopic() throws Exception {
+        IngestRuleIndex.Entry t1 = entry("t1");
+        IngestRuleIndex.Entry t2 = entry("t2");
+        IngestRuleIndex.Entry all = entry("all");
+        IngestRuleIndex index = new IngestRuleIndex.Builder(TOPIC_INDEX)
+            .add(t1, topicEq("t1"))
+            .add(t2, topicEq("t2"))
+            .add(all, null)
+            .build();
+
+        assertThat(Lists.newArrayList(index.candidates("t1")), containsInAnyOrder(t1, all));
+        assertThat(Lists.newArrayList(index.candidates("t2")), containsInAnyOrder(t2, all));
+        assertThat(Lists.newArrayList(index.candidates("t3")), contains(all));
+    }
+
+    @Test
+    public void testTopicIsExtractedFromConjunction() throws Exception {
+        Function clientIdEq = function(
+            EqOperator.NAME, DataTypes.STRING, new InputColumn(0, DataTypes.STRING), Literal.of("c1"));
+        IngestRuleIndex.Entry conjunction = entry("conjunction");
+        IngestRuleIndex index = new IngestRuleIndex.Builder(TOPIC_INDEX)
+            .add(conjunction, function(AndOperator.NAME, DataTypes.BOOLEAN, clientIdEq, topicEq("t1")))
+            .build();
+
+        assertThat(Lists.newArrayList(index.candidates("t1")), contains(conjunction));
+        assertThat(index.candidates("t2").iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testRulesNotRequiringTopicAreCandidatesForAllTopics() throws Exception {
+        Function clientIdEq = function(
+            EqOperator.NAME, DataTypes.STRING, new InputColumn(0, DataTypes.STRING), Literal.of("t1"));
+        IngestRuleIndex.Entry clientId = entry("client_id");
+        IngestRuleIndex index = new IngestRuleIndex.Builder(TOPIC_INDEX)
+            .add(clientId, clientIdEq)
+            .build();
+
+        assertThat(Lists.newArrayList(index.candidates("t1")), contains(clientId));
+        assertThat(Lists.newArrayList(index.candidates("t2")), contains(clientId));
+    }
+}
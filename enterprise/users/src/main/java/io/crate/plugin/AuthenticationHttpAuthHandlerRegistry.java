@@ -30,6 +30,9 @@ import org.elasticsearch.common.settings.Settings;
 
 /**
  * Class that if instantiated causes the {@link HttpAuthUpstreamHandler} to be registered in the {@link PipelineRegistry}
+ * <p>
+ * It's added in front of the {@code sql_stream_handler}, which sits in front of the {@code blob_handler},
+ * so that streamed SQL requests are authenticated as well.
  */
 @Singleton
 public class AuthenticationHttpAuthHandlerRegistry {
@@ -39,7 +42,7 @@ public class AuthenticationHttpAuthHandlerRegistry {
                                                  PipelineRegistry pipelineRegistry,
                                                  Authentication authentication) {
         PipelineRegistry.ChannelPipelineItem pipelineItem = new PipelineRegistry.ChannelPipelineItem(
-            "blob_handler",
+            "sql_stream_handler",
             "auth_handler",
             () -> new HttpAuthUpstreamHandler(settings, authentication)
         );
@@ -0,0 +1,88 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+package io.crate.plugin;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.action.sql.SQLOperations;
+import io.crate.operation.auth.Authentication;
+import io.crate.operation.user.UserManager;
+import io.crate.rest.action.SqlHttpStreamHandlerRegistry;
+import io.crate.test.integration.CrateUnitTest;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.mock;
+
+public class AuthenticationHttpAuthHandlerRegistryTest extends CrateUnitTest {
+
+    private static void registerBlobHandler(PipelineRegistry registry) {
+        // placeholder for the handler registered by the BlobService
+        registry.addBefore(new PipelineRegistry.ChannelPipelineItem(
+            "aggregator", "blob_handler", ChannelInboundHandlerAdapter::new));
+    }
+
+    private static void registerSqlStreamHandler(PipelineRegistry registry) {
+        UserManager userManager = mock(UserManager.class);
+        new SqlHttpStreamHandlerRegistry(Settings.EMPTY, registry, mock(SQLOperations.class), () -> userManager);
+    }
+
+    private static void registerAuthHandler(PipelineRegistry registry) {
+        new AuthenticationHttpAuthHandlerRegistry(Settings.EMPTY, registry, mock(Authentication.class));
+    }
+
+    private static List<String> pipelineNames(List<Consumer<PipelineRegistry>> registrations) {
+        PipelineRegistry registry = new PipelineRegistry();
+        for (Consumer<PipelineRegistry> registration : registrations) {
+            registration.accept(registry);
+        }
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast("aggregator", new ChannelInboundHandlerAdapter());
+        registry.registerItems(channel.pipeline());
+        return channel.pipeline().names();
+    }
+
+    @Test
+    public void testAuthHandlerRunsBeforeSqlStreamHandlerIndependentOfRegistrationOrder() throws Exception {
+        Consumer<PipelineRegistry> blob = AuthenticationHttpAuthHandlerRegistryTest::registerBlobHandler;
+        Consumer<PipelineRegistry> sql = AuthenticationHttpAuthHandlerRegistryTest::registerSqlStreamHandler;
+        Consumer<PipelineRegistry> auth = AuthenticationHttpAuthHandlerRegistryTest::registerAuthHandler;
+        List<List<Consumer<PipelineRegistry>>> registrationOrders = ImmutableList.of(
+            ImmutableList.of(blob, sql, auth),
+            ImmutableList.of(blob, auth, sql),
+            ImmutableList.of(sql, blob, auth),
+            ImmutableList.of(sql, auth, blob),
+            ImmutableList.of(auth, blob, sql),
+            ImmutableList.of(auth, sql, blob)
+        );
+        for (List<Consumer<PipelineRegistry>> registrations : registrationOrders) {
+            List<String> names = pipelineNames(registrations);
+            assertThat(names, hasItems("auth_handler", "sql_stream_handler", "blob_handler", "aggregator"));
+            assertThat(names.indexOf("auth_handler"), lessThan(names.indexOf("sql_stream_handler")));
+            assertThat(names.indexOf("sql_stream_handler"), lessThan(names.indexOf("blob_handler")));
+            assertThat(names.indexOf("blob_handler"), lessThan(names.indexOf("aggregator")));
+        }
+    }
+}
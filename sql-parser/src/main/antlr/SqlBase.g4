@@ -58,10 +58,16 @@ statement
     | SET GLOBAL (PERSISTENT | TRANSIENT)?
         setGlobalAssignment (',' setGlobalAssignment)*                               #setGlobal
     | KILL (ALL | jobId=parameterOrString)                                           #kill
+    | DECLARE name=ident CURSOR FOR query                                            #declareCursor
+    | FETCH (count=integerLiteral | ALL)? (FROM | IN) name=ident                     #fetchFromCursor
+    | CLOSE (name=ident | ALL)                                                       #closeCursor
     | INSERT INTO table ('(' ident (',' ident)* ')')? insertSource
         (ON DUPLICATE KEY UPDATE assignment (',' assignment)*)?                      #insert
     | RESTORE SNAPSHOT qname (ALL | TABLE tableWithPartitions) withProperties?       #restore
+    | COPY tableWithPartition FROM STDIN withProperties?                             #copyFromStdin
     | COPY tableWithPartition FROM path=expr withProperties?                         #copyFrom
+    | COPY '(' query ')' TO STDOUT withProperties?                                   #copyQueryToStdout
+    | COPY table columns? where? TO STDOUT withProperties?                           #copyTableToStdout
     | COPY tableWithPartition columns? where?
         TO DIRECTORY? path=expr withProperties?                                      #copyTo
     | DROP BLOB TABLE (IF EXISTS)? table                                             #dropBlobTable
@@ -596,7 +602,7 @@ nonReserved
     | TIMESTAMP | TO | TOKENIZER | TOKEN_FILTERS | TYPE | VALUES | VIEW | YEAR
     | REPOSITORY | SNAPSHOT | RESTORE | GENERATED | ALWAYS | BEGIN
     | ISOLATION | TRANSACTION | CHARACTERISTICS | LEVEL | LANGUAGE | OPEN | CLOSE | RENAME
-    | PRIVILEGES | SCHEMA | INGEST | RULE
+    | PRIVILEGES | SCHEMA | INGEST | RULE | DECLARE | CURSOR | FETCH | STDIN | STDOUT
     ;
 
 SELECT: 'SELECT';
@@ -806,6 +812,13 @@ SCHEMA: 'SCHEMA';
 INGEST: 'INGEST';
 RULE: 'RULE';
 
+DECLARE: 'DECLARE';
+CURSOR: 'CURSOR';
+FETCH: 'FETCH';
+
+STDIN: 'STDIN';
+STDOUT: 'STDOUT';
+
 EQ  : '=';
 NEQ : '<>' | '!=';
 LT  : '<';
@@ -47,6 +47,7 @@ import io.crate.sql.tree.BetweenPredicate;
 import io.crate.sql.tree.BooleanLiteral;
 import io.crate.sql.tree.Cast;
 import io.crate.sql.tree.CharFilters;
+import io.crate.sql.tree.CloseCursor;
 import io.crate.sql.tree.ClusteredBy;
 import io.crate.sql.tree.CollectionColumnType;
 import io.crate.sql.tree.ColumnConstraint;
@@ -54,7 +55,9 @@ import io.crate.sql.tree.ColumnDefinition;
 import io.crate.sql.tree.ColumnType;
 import io.crate.sql.tree.ComparisonExpression;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
 import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CrateTableOption;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
@@ -66,6 +69,7 @@ import io.crate.sql.tree.CreateTable;
 import io.crate.sql.tree.CreateUser;
 import io.crate.sql.tree.CurrentTime;
 import io.crate.sql.tree.DateLiteral;
+import io.crate.sql.tree.DeclareCursor;
 import io.crate.sql.tree.Delete;
 import io.crate.sql.tree.DenyPrivilege;
 import io.crate.sql.tree.DoubleLiteral;
@@ -81,6 +85,7 @@ import io.crate.sql.tree.ExistsPredicate;
 import io.crate.sql.tree.Explain;
 import io.crate.sql.tree.Expression;
 import io.crate.sql.tree.Extract;
+import io.crate.sql.tree.FetchFromCursor;
 import io.crate.sql.tree.FunctionArgument;
 import io.crate.sql.tree.FunctionCall;
 import io.crate.sql.tree.GenericProperties;
@@ -375,6 +380,41 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
             visitIfPresent(context.withProperties(), GenericProperties.class));
     }
 
+    @Override
+    public Node visitCopyFromStdin(SqlBaseParser.CopyFromStdinContext context) {
+        return new CopyFromStdin(
+            (Table) visit(context.tableWithPartition()),
+            visitIfPresent(context.withProperties(), GenericProperties.class));
+    }
+
+    @Override
+    public Node visitCopyQueryToStdout(SqlBaseParser.CopyQueryToStdoutContext context) {
+        return new CopyToStdout(
+            (Query) visit(context.query()),
+            visitIfPresent(context.withProperties(), GenericProperties.class));
+    }
+
+    @Override
+    public Node visitCopyTableToStdout(SqlBaseParser.CopyTableToStdoutContext context) {
+        List<SelectItem> selectItems = Optional.ofNullable(context.columns())
+            .map(list -> visit(list.primaryExpression(), Expression.class).stream()
+                .<SelectItem>map(SingleColumn::new)
+                .collect(toList()))
+            .orElse(ImmutableList.of(new AllColumns()));
+        QuerySpecification querySpecification = new QuerySpecification(
+            new Select(false, selectItems),
+            ImmutableList.of((Relation) visit(context.table())),
+            visitIfPresent(context.where(), Expression.class),
+            ImmutableList.of(),
+            Optional.empty(),
+            ImmutableList.of(),
+            Optional.empty(),
+            Optional.empty());
+        return new CopyToStdout(
+            new Query(Optional.empty(), querySpecification, ImmutableList.of(), Optional.empty(), Optional.empty()),
+            visitIfPresent(context.withProperties(), GenericProperties.class));
+    }
+
     @Override
     public Node visitCopyTo(SqlBaseParser.CopyToContext context) {
         List<Expression> columns = Optional.ofNullable(context.columns())
@@ -490,6 +530,32 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
         return new KillStatement((Expression) visit(context.jobId));
     }
 
+    @Override
+    public Node visitDeclareCursor(SqlBaseParser.DeclareCursorContext context) {
+        return new DeclareCursor(getIdentText(context.name), (Query) visit(context.query()));
+    }
+
+    @Override
+    public Node visitFetchFromCursor(SqlBaseParser.FetchFromCursorContext context) {
+        int count;
+        if (context.ALL() != null) {
+            count = FetchFromCursor.ALL;
+        } else if (context.count != null) {
+            count = Integer.parseInt(context.count.getText());
+            if (count < 1) {
+                throw new IllegalArgumentException("FETCH count must be greater than 0");
+            }
+        } else {
+            count = 1;
+        }
+        return new FetchFromCursor(getIdentText(context.name), count);
+    }
+
+    @Override
+    public Node visitCloseCursor(SqlBaseParser.CloseCursorContext context) {
+        return new CloseCursor(context.ALL() != null ? null : getIdentText(context.name));
+    }
+
     @Override
     public Node visitExplain(SqlBaseParser.ExplainContext context) {
         return new Explain((Statement) visit(context.statement()));
@@ -540,4 +540,24 @@ public abstract class AstVisitor<R, C> {
     public R visitDropIngestRule(DropIngestRule node, C context) {
         return visitStatement(node, context);
     }
+
+    public R visitDeclareCursor(DeclareCursor node, C context) {
+        return visitStatement(node, context);
+    }
+
+    public R visitFetchFromCursor(FetchFromCursor node, C context) {
+        return visitStatement(node, context);
+    }
+
+    public R visitCloseCursor(CloseCursor node, C context) {
+        return visitStatement(node, context);
+    }
+
+    public R visitCopyFromStdin(CopyFromStdin node, C context) {
+        return visitStatement(node, context);
+    }
+
+    public R visitCopyToStdout(CopyToStdout node, C context) {
+        return visitStatement(node, context);
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.sql.tree;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Optional;
+
+/**
+ * {@code COPY table FROM STDIN [WITH (...)]}
+ */
+public class CopyFromStdin extends Statement {
+
+    private final Table table;
+    private final Optional<GenericProperties> genericProperties;
+
+    public CopyFromStdin(Table table, Optional<GenericProperties> genericProperties) {
+        this.table = table;
+        this.genericProperties = genericProperties;
+    }
+
+    public Table table() {
+        return table;
+    }
+
+    public Optional<GenericProperties> genericProperties() {
+        return genericProperties;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CopyFromStdin that = (CopyFromStdin) o;
+        return table.equals(that.table) && genericProperties.equals(that.genericProperties);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * table.hashCode() + genericProperties.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("table", table)
+            .add("properties", genericProperties)
+            .toString();
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitCopyFromStdin(this, context);
+    }
+}
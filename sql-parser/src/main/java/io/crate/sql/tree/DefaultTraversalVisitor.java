@@ -343,6 +343,18 @@ public abstract class DefaultTraversalVisitor<R, C>
         return null;
     }
 
+    @Override
+    public R visitCopyFromStdin(CopyFromStdin node, C context) {
+        process(node.table(), context);
+        return null;
+    }
+
+    @Override
+    public R visitCopyToStdout(CopyToStdout node, C context) {
+        process(node.query(), context);
+        return null;
+    }
+
     @Override
     public R visitAlterTable(AlterTable node, C context) {
         process(node.table(), context);
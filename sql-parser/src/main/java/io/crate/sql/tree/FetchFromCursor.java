@@ -0,0 +1,82 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.sql.tree;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * {@code FETCH [ count | ALL ] FROM name}
+ */
+public class FetchFromCursor extends Statement {
+
+    /**
+     * count used for {@code FETCH ALL}
+     */
+    public static final int ALL = 0;
+
+    private final String name;
+    private final int count;
+
+    public FetchFromCursor(String name, int count) {
+        this.name = name;
+        this.count = count;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the number of rows to fetch or {@link #ALL} to fetch all remaining rows
+     */
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * name.hashCode() + count;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        FetchFromCursor that = (FetchFromCursor) obj;
+        return count == that.count && name.equals(that.name);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("name", name)
+            .add("count", count)
+            .toString();
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitFetchFromCursor(this, context);
+    }
+}
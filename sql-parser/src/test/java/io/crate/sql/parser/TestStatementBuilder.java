@@ -53,6 +53,35 @@ public class TestStatementBuilder {
         printStatement("BEGIN");
     }
 
+    @Test
+    public void testCursorStmtBuilder() throws Exception {
+        printStatement("declare c cursor for select * from t1 order by x");
+        printStatement("fetch from c");
+        printStatement("fetch 100 from c");
+        printStatement("fetch all in c");
+        printStatement("close c");
+        printStatement("close all");
+    }
+
+    @Test
+    public void testFetchFromCursor() throws Exception {
+        FetchFromCursor fetch = (FetchFromCursor) SqlParser.createStatement("FETCH 10 FROM c");
+        assertThat(fetch.name(), is("c"));
+        assertThat(fetch.count(), is(10));
+
+        fetch = (FetchFromCursor) SqlParser.createStatement("FETCH FROM c");
+        assertThat(fetch.count(), is(1));
+
+        fetch = (FetchFromCursor) SqlParser.createStatement("FETCH ALL FROM c");
+        assertThat(fetch.count(), is(FetchFromCursor.ALL));
+    }
+
+    @Test
+    public void testCloseAllCursors() throws Exception {
+        CloseCursor close = (CloseCursor) SqlParser.createStatement("CLOSE ALL");
+        assertThat(close.name(), nullValue());
+    }
+
     @Test
     public void testNullNotAllowedAsArgToExtractField() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
@@ -709,6 +738,30 @@ public class TestStatementBuilder {
         printStatement("copy foo where a = 'x' to DIRECTORY '/folder'");
     }
 
+    @Test
+    public void testCopyStdinStdoutStmtBuilder() throws Exception {
+        printStatement("copy foo from stdin");
+        printStatement("copy foo partition (a='x') from STDIN with (format='csv')");
+        printStatement("copy (select a, b from foo where a > 1 order by b) to stdout");
+        printStatement("copy foo to stdout with (format='csv')");
+        printStatement("copy foo (a, b['x']) where a = 'x' to stdout");
+    }
+
+    @Test
+    public void testCopyTableToStdoutIsRepresentedAsQuery() throws Exception {
+        CopyToStdout copy = (CopyToStdout) SqlParser.createStatement("copy foo (a, b) where a = 1 to stdout");
+        assertThat(copy.query(), is(SqlParser.createStatement("select a, b from foo where a = 1")));
+
+        copy = (CopyToStdout) SqlParser.createStatement("copy foo to stdout");
+        assertThat(copy.query(), is(SqlParser.createStatement("select * from foo")));
+    }
+
+    @Test
+    public void testCopyFromStdinIsNotParsedAsColumn() throws Exception {
+        assertThat(SqlParser.createStatement("copy foo from stdin"), instanceOf(CopyFromStdin.class));
+        assertThat(SqlParser.createStatement("copy foo from 'stdin'"), instanceOf(CopyFrom.class));
+    }
+
     @Test
     public void testInsertStmtBuilder() throws Exception {
         // insert from values
@@ -23,6 +23,7 @@
 package io.crate.analyze;
 
 import io.crate.action.sql.SessionContext;
+import io.crate.action.sql.StatementCache;
 import io.crate.planner.Plan;
 import io.crate.sql.parser.SqlParser;
 import io.crate.sql.tree.Statement;
@@ -63,6 +64,7 @@ public class PreExecutionBenchmark {
     private Statement selectStatement;
     private Analysis selectAnalysis;
     private UUID jobId;
+    private StatementCache statementCache;
 
     @Setup
     public void setup() {
@@ -96,6 +98,7 @@ public class PreExecutionBenchmark {
         selectAnalysis =
             e.analyzer.boundAnalyze(selectStatement, SessionContext.create(), ParameterContext.EMPTY);
         jobId = UUID.randomUUID();
+        statementCache = new StatementCache(100);
     }
 
     @TearDown
@@ -109,6 +112,11 @@ public class PreExecutionBenchmark {
         return SqlParser.createStatement("select name from users");
     }
 
+    @Benchmark
+    public Statement measureParseSimpleSelectCached() throws Exception {
+        return statementCache.get("select name from users");
+    }
+
     @Benchmark
     public AnalyzedStatement measureParseAndAnalyzeSimpleSelect() {
         return e.analyze("select name from users");
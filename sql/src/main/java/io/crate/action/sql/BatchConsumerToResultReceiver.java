@@ -29,6 +29,9 @@ import io.crate.data.RowBridging;
 import io.crate.exceptions.SQLExceptions;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BatchConsumerToResultReceiver implements BatchConsumer {
 
@@ -67,6 +70,11 @@ public class BatchConsumerToResultReceiver implements BatchConsumer {
                     resultReceiver.batchFinished();
                     return; // resumed via postgres protocol, close is done later
                 }
+                CompletableFuture<?> writable = resultReceiver.whenWritable();
+                if (writable != null && continueOnCurrentThread(iterator, writable) == false) {
+                    // receiver can't keep up (e.g. slow client); consumption continues once it is writable again
+                    return;
+                }
             }
             allLoaded = iterator.allLoaded();
         } catch (Throwable t) {
@@ -89,6 +97,40 @@ public class BatchConsumerToResultReceiver implements BatchConsumer {
         }
     }
 
+    /**
+     * Decides who continues consuming the iterator once {@code writable} completes: If it has completed by the time
+     * the callback is registered (e.g. synchronously), the current call continues its loop and true is returned.
+     * Otherwise the callback resumes the consumption and false is returned.
+     * Resuming from a callback which is run on the current stack would add a stack frame per row.
+     *
+     * @throws Throwable the failure of {@code writable} if it completed exceptionally before the callback was
+     *                   registered. The caller closes the iterator and fails the receiver in that case.
+     */
+    private boolean continueOnCurrentThread(BatchIterator iterator, CompletableFuture<?> writable) throws Throwable {
+        // whoever arrives second (this method or the callback) continues
+        AtomicBoolean otherArrived = new AtomicBoolean(false);
+        writable.whenComplete((r, f) -> {
+            if (otherArrived.getAndSet(true) == false) {
+                return;
+            }
+            if (f == null) {
+                consumeIt(iterator);
+            } else {
+                iterator.close();
+                resultReceiver.fail(SQLExceptions.unwrap(f));
+            }
+        });
+        if (otherArrived.getAndSet(true) == false) {
+            return false;
+        }
+        try {
+            writable.join();
+        } catch (CompletionException e) {
+            throw SQLExceptions.unwrap(e);
+        }
+        return true;
+    }
+
     /**
      * If this consumer suspended itself (due to {@code maxRows} being > 0, it will close the BatchIterator
      * and finish the ResultReceiver with interrupted=true.
@@ -107,6 +149,8 @@ public class BatchConsumerToResultReceiver implements BatchConsumer {
     public void replaceResultReceiver(ResultReceiver resultReceiver, int maxRows) {
         this.resultReceiver = resultReceiver;
         this.maxRows = maxRows;
+        // maxRows applies to the rows pushed to the new receiver; it may differ from the previous one (e.g. FETCH n)
+        this.rowCount = 0;
     }
 
     public void resume() {
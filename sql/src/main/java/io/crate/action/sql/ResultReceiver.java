@@ -29,6 +29,8 @@ import io.crate.executor.Executor;
 import io.crate.planner.Plan;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Used via {@link BatchConsumerToResultReceiver} to receive results from {@link Executor#execute(Plan, BatchConsumer, Row)}
@@ -47,4 +49,18 @@ public interface ResultReceiver extends CompletionListenable {
     void allFinished(boolean interrupted);
 
     void fail(@Nonnull Throwable t);
+
+    /**
+     * Used to apply backpressure: {@link BatchConsumerToResultReceiver} stops consuming rows until the returned
+     * future completes.
+     *
+     * @return null if the receiver can take more rows right away, otherwise a future which completes once it can
+     *         take more rows (e.g. once the network channel to a slow client becomes writable again). The future
+     *         completes exceptionally if the receiver won't be able to take rows anymore (e.g. the client
+     *         disconnected).
+     */
+    @Nullable
+    default CompletableFuture<?> whenWritable() {
+        return null;
+    }
 }
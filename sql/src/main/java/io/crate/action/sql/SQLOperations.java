@@ -27,11 +27,16 @@ import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.symbol.Field;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.executor.Executor;
+import io.crate.operation.collect.files.Pipes;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.operation.user.User;
 import io.crate.operation.user.UserManager;
 import io.crate.planner.Planner;
+import io.crate.protocols.postgres.CopyPortal;
+import io.crate.protocols.postgres.CursorStatementPortal;
+import io.crate.protocols.postgres.Cursors;
 import io.crate.protocols.postgres.FormatCodes;
+import io.crate.protocols.postgres.GenericPlans;
 import io.crate.protocols.postgres.Portal;
 import io.crate.protocols.postgres.SimplePortal;
 import io.crate.sql.parser.SqlParser;
@@ -45,6 +50,8 @@ import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.NodeDisconnectedException;
 
 import javax.annotation.Nullable;
@@ -65,6 +72,15 @@ public class SQLOperations {
         "node.sql.read_only",
         false,
         Setting.Property.NodeScope);
+    public static final Setting<TimeValue> CURSOR_IDLE_TIMEOUT_SETTING = Setting.timeSetting(
+        "node.sql.cursor_idle_timeout",
+        TimeValue.timeValueMinutes(10),
+        Setting.Property.NodeScope);
+    public static final Setting<Integer> STATEMENT_CACHE_SIZE_SETTING = Setting.intSetting(
+        "node.sql.statement_cache_size",
+        1000,
+        0,
+        Setting.Property.NodeScope);
     private static final Logger LOGGER = Loggers.getLogger(SQLOperations.class);
 
     // Parser can't handle empty statement but postgres requires support for it.
@@ -77,7 +93,11 @@ public class SQLOperations {
     private final JobsLogs jobsLogs;
     private final ClusterService clusterService;
     private final UserManager userManager;
+    private final Pipes pipes;
+    private final ThreadPool threadPool;
     private final boolean isReadOnly;
+    private final TimeValue cursorIdleTimeout;
+    private final StatementCache statementCache;
     private volatile boolean disabled;
 
     @Inject
@@ -87,14 +107,20 @@ public class SQLOperations {
                          JobsLogs jobsLogs,
                          Settings settings,
                          ClusterService clusterService,
-                         Provider<UserManager> userManagerProvider) {
+                         Provider<UserManager> userManagerProvider,
+                         Pipes pipes,
+                         ThreadPool threadPool) {
         this.analyzer = analyzer;
         this.planner = planner;
         this.executorProvider = executorProvider;
         this.jobsLogs = jobsLogs;
         this.clusterService = clusterService;
         this.userManager = userManagerProvider.get();
+        this.pipes = pipes;
+        this.threadPool = threadPool;
         this.isReadOnly = NODE_READ_ONLY_SETTING.get(settings);
+        this.cursorIdleTimeout = CURSOR_IDLE_TIMEOUT_SETTING.get(settings);
+        this.statementCache = new StatementCache(STATEMENT_CACHE_SIZE_SETTING.get(settings));
     }
 
     private Session createSession(SessionContext sessionContext) {
@@ -188,6 +214,8 @@ public class SQLOperations {
         private final Map<String, PreparedStmt> preparedStatements = new HashMap<>();
         private final Map<String, Portal> portals = new HashMap<>();
         private final Set<Portal> pendingExecutions = Collections.newSetFromMap(new IdentityHashMap<Portal, Boolean>());
+        private final Cursors cursors = new Cursors(threadPool, cursorIdleTimeout);
+        private final GenericPlans genericPlans = new GenericPlans(clusterService);
 
         private Session(Executor executor, SessionContext sessionContext) {
             this.executor = executor;
@@ -197,7 +225,7 @@ public class SQLOperations {
         private Portal getOrCreatePortal(String portalName) {
             Portal portal = portals.get(portalName);
             if (portal == null) {
-                portal = new SimplePortal(portalName, analyzer, executor, isReadOnly, sessionContext);
+                portal = new SimplePortal(portalName, analyzer, executor, isReadOnly, sessionContext, genericPlans);
                 portals.put(portalName, portal);
             }
             return portal;
@@ -220,7 +248,7 @@ public class SQLOperations {
 
             Statement statement;
             try {
-                statement = SqlParser.createStatement(query);
+                statement = statementCache.get(query);
             } catch (Throwable t) {
                 if ("".equals(query)) {
                     statement = EMPTY_STMT;
@@ -238,9 +266,27 @@ public class SQLOperations {
                          @Nullable FormatCodes.FormatCode[] resultFormatCodes) {
             LOGGER.debug("method=bind portalName={} statementName={} params={}", portalName, statementName, params);
 
+            cursors.closeIdle();
             Portal portal = getOrCreatePortal(portalName);
             try {
                 PreparedStmt preparedStmt = getSafeStmt(statementName);
+                if (CursorStatementPortal.isCursorStatement(preparedStmt.statement()) &&
+                    !(portal instanceof CursorStatementPortal)) {
+                    if (portal.synced()) {
+                        portal.close();
+                    }
+                    pendingExecutions.remove(portal);
+                    portal = new CursorStatementPortal(portalName, analyzer, executor, isReadOnly, sessionContext, cursors);
+                    portals.put(portalName, portal);
+                } else if (CopyPortal.isCopyStatement(preparedStmt.statement()) && !(portal instanceof CopyPortal)) {
+                    if (portal.synced()) {
+                        portal.close();
+                    }
+                    pendingExecutions.remove(portal);
+                    portal = new CopyPortal(portalName, analyzer, executor, isReadOnly, sessionContext, pipes,
+                        clusterService.localNode().getId());
+                    portals.put(portalName, portal);
+                }
                 Portal newPortal = portal.bind(
                     statementName, preparedStmt.query(), preparedStmt.statement(), params, resultFormatCodes);
                 if (portal != newPortal) {
@@ -286,6 +332,17 @@ public class SQLOperations {
                      */
                     PreparedStmt preparedStmt = preparedStatements.get(portalOrStatement);
                     Statement statement = preparedStmt.statement();
+                    if (CursorStatementPortal.isCursorStatement(statement)) {
+                        try {
+                            return CursorStatementPortal.describe(statement, cursors);
+                        } catch (Throwable t) {
+                            throw SQLExceptions.createSQLActionException(t, sessionContext);
+                        }
+                    }
+                    if (CopyPortal.isCopyStatement(statement)) {
+                        // the columns of COPY TO STDOUT are sent with the CopyOutResponse
+                        return null;
+                    }
 
                     AnalyzedRelation analyzedRelation;
                     if (preparedStmt.isRelationInitialized()) {
@@ -353,6 +410,18 @@ public class SQLOperations {
             return portal.getLastOutputTypes();
         }
 
+        /**
+         * @return the portal if it has been bound to {@code COPY FROM STDIN} or {@code COPY TO STDOUT}, otherwise null
+         */
+        @Nullable
+        public CopyPortal getCopyPortal(String portalName) {
+            Portal portal = portals.get(portalName);
+            if (portal instanceof CopyPortal) {
+                return (CopyPortal) portal;
+            }
+            return null;
+        }
+
         public String getQuery(String portalName) {
             return getSafePortal(portalName).getLastQuery();
         }
@@ -409,6 +478,7 @@ public class SQLOperations {
             for (Portal portal : portals.values()) {
                 portal.close();
             }
+            cursors.closeAll();
         }
     }
 
@@ -0,0 +1,72 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+
+/**
+ * Node wide cache of parsed statements, keyed by the statement text.
+ * <p>
+ * Parsing doesn't depend on the schema, the user or the cluster state, and the AST nodes are immutable,
+ * so the same {@link Statement} instance can be shared by all sessions.
+ * Only successfully parsed statements are cached; statements with syntax errors are parsed again on each call.
+ * Statements longer than {@link #MAX_QUERY_LENGTH} characters aren't cached either: the cache is bounded by the
+ * number of entries and the size of an AST grows with the statement, so a few large statements (e.g. inserts with
+ * inlined values, which are rarely sent twice) could otherwise use a lot of memory.
+ * <p>
+ * The analyzed statements and plans are not cached: they contain values which are only valid for one execution
+ * (bound parameters, the statement timestamp, the shard routing) and are modified during planning.
+ */
+public class StatementCache {
+
+    static final int MAX_QUERY_LENGTH = 8 * 1024;
+
+    private final Cache<String, Statement> statements;
+
+    public StatementCache(int maxSize) {
+        this.statements = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .build();
+    }
+
+    /**
+     * @throws io.crate.sql.parser.ParsingException if the statement can't be parsed
+     */
+    public Statement get(String query) {
+        Statement statement = statements.getIfPresent(query);
+        if (statement == null) {
+            statement = SqlParser.createStatement(query);
+            if (query.length() <= MAX_QUERY_LENGTH) {
+                statements.put(query, statement);
+            }
+        }
+        return statement;
+    }
+
+    long size() {
+        return statements.size();
+    }
+}
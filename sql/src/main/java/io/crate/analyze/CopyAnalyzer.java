@@ -50,6 +50,8 @@ import io.crate.metadata.TableIdent;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.settings.ByteSizeSetting;
+import io.crate.metadata.settings.IntSetting;
 import io.crate.metadata.settings.SettingsApplier;
 import io.crate.metadata.settings.SettingsAppliers;
 import io.crate.metadata.settings.StringSetting;
@@ -82,12 +84,31 @@ class CopyAnalyzer {
         new StringSetting("compression", ImmutableSet.of("gzip"));
 
     private static final StringSetting OUTPUT_FORMAT_SETTINGS =
-        new StringSetting("format", ImmutableSet.of("json_object", "json_array"));
+        new StringSetting("format", ImmutableSet.of("json_object", "json_array", "csv"));
+
+    private static final IntSetting COMPRESSION_LEVEL_SETTINGS =
+        new IntSetting("compression_level", null, 1, 9);
+
+    /**
+     * Each shard compresses with up to this many threads, more than the available processors only add contention
+     */
+    private static final IntSetting COMPRESSION_THREADS_SETTINGS =
+        new IntSetting("compression_threads", 1, 1, Runtime.getRuntime().availableProcessors());
+
+    private static final ByteSizeSetting MAX_FILE_SIZE_SETTINGS = new ByteSizeSetting("max_file_size", null);
+
+    private static final StringSetting INPUT_FORMAT_SETTINGS =
+        new StringSetting("format", ImmutableSet.of("json", "csv"), "json");
+
+    private static final ImmutableSet<String> CSV_CHARACTER_SETTINGS = ImmutableSet.of("delimiter", "quote");
 
     private static final ImmutableMap<String, SettingsApplier> SETTINGS_APPLIERS =
         ImmutableMap.<String, SettingsApplier>builder()
             .put(COMPRESSION_SETTINGS.name(), new SettingsAppliers.StringSettingsApplier(COMPRESSION_SETTINGS))
             .put(OUTPUT_FORMAT_SETTINGS.name(), new SettingsAppliers.StringSettingsApplier(OUTPUT_FORMAT_SETTINGS))
+            .put(COMPRESSION_LEVEL_SETTINGS.name(), new SettingsAppliers.IntSettingsApplier(COMPRESSION_LEVEL_SETTINGS))
+            .put(COMPRESSION_THREADS_SETTINGS.name(), new SettingsAppliers.IntSettingsApplier(COMPRESSION_THREADS_SETTINGS))
+            .put(MAX_FILE_SIZE_SETTINGS.name(), new SettingsAppliers.ByteSizeSettingsApplier(MAX_FILE_SIZE_SETTINGS))
             .build();
     private final Schemas schemas;
     private final Functions functions;
@@ -126,6 +147,7 @@ class CopyAnalyzer {
             Map<String, Expression> properties = new HashMap<>(node.genericProperties().get().properties());
             nodeFilters = discoveryNodePredicate(analysis.parameterContext().parameters(), properties.remove(NodeFilters.NAME));
             settings = settingsFromProperties(properties, expressionAnalyzer, expressionAnalysisContext);
+            validateInputFormatSettings(settings);
         }
         Symbol uri = expressionAnalyzer.convert(node.path(), expressionAnalysisContext);
         uri = normalizer.normalize(uri, analysis.transactionContext());
@@ -140,6 +162,20 @@ class CopyAnalyzer {
     }
 
 
+    private static void validateInputFormatSettings(Settings settings) {
+        String error = INPUT_FORMAT_SETTINGS.validate(INPUT_FORMAT_SETTINGS.extract(settings));
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        for (String name : CSV_CHARACTER_SETTINGS) {
+            String value = settings.get(name);
+            if (value != null && (value.length() != 1 || value.charAt(0) > 127)) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "Setting \"%s\" must be a single ASCII character, got '%s'", name, value));
+            }
+        }
+    }
+
     private ExpressionAnalyzer createExpressionAnalyzer(Analysis analysis, DocTableRelation tableRelation) {
         return new ExpressionAnalyzer(
             functions,
@@ -241,7 +277,8 @@ class CopyAnalyzer {
         WriterProjection.OutputFormat outputFormat =
             settingAsEnum(WriterProjection.OutputFormat.class, settings.get(OUTPUT_FORMAT_SETTINGS.name()));
 
-        if (!columnsDefined && outputFormat == WriterProjection.OutputFormat.JSON_ARRAY) {
+        if (!columnsDefined && (outputFormat == WriterProjection.OutputFormat.JSON_ARRAY ||
+                                outputFormat == WriterProjection.OutputFormat.CSV)) {
             throw new UnsupportedFeatureException("Output format not supported without specifying columns.");
         }
 
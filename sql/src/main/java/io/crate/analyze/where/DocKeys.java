@@ -111,6 +111,13 @@ public class DocKeys implements Iterable<DocKeys.DocKey> {
         this.idFunction = Id.compile(width, clusteredByIdx);
     }
 
+    /**
+     * @return DocKeys of the same columns with other values
+     */
+    public DocKeys withValues(List<List<Symbol>> docKeys) {
+        return new DocKeys(docKeys, withVersions, clusteredByIdx, partitionIdx);
+    }
+
     public boolean withVersions() {
         return withVersions;
     }
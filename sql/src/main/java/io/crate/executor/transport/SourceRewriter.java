@@ -0,0 +1,225 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and updates parts of a document source by streaming its XContent tokens.
+ * <p>
+ * Unlike converting the source into a map and serializing it again, the values which aren't read or updated
+ * are skipped or copied token by token, without creating objects for them.
+ */
+final class SourceRewriter {
+
+    private SourceRewriter() {
+    }
+
+    /**
+     * Reads the values of the given top-level fields of the source.
+     * Fields which aren't contained in the source are missing in the resulting map.
+     */
+    static Map<String, Object> readTopLevelFields(BytesReference source, Set<String> fieldNames) throws IOException {
+        Map<String, Object> values = new HashMap<>(fieldNames.size());
+        if (fieldNames.isEmpty()) {
+            return values;
+        }
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY, source)) {
+            ensureStartObject(parser.nextToken());
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                token = parser.nextToken();
+                if (fieldNames.contains(fieldName)) {
+                    values.put(fieldName, readValue(parser, token));
+                    if (values.size() == fieldNames.size()) {
+                        break;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Overwrites the given values on the source, see {@link TransportShardUpsertAction#updateSourceByPaths(Map, Map)}
+     * for the semantics of the changes. The order of the fields of the source is kept, new fields are appended.
+     *
+     * @return the updated source or null if the changes contain both a path and one of its parents,
+     *         which must be applied on the source as a map in the order of the changes.
+     */
+    @Nullable
+    static BytesReference rewrite(BytesReference source, Map<String, Object> changes) throws IOException {
+        Changes rootChanges = Changes.of(changes);
+        if (rootChanges == null) {
+            return null;
+        }
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY, source)) {
+            XContentBuilder builder = XContentFactory.contentBuilder(parser.contentType());
+            ensureStartObject(parser.nextToken());
+            copyObject(parser, builder, rootChanges);
+            return builder.bytes();
+        }
+    }
+
+    private static void copyObject(XContentParser parser, XContentBuilder builder, Changes changes) throws IOException {
+        Set<String> appliedChanges = new HashSet<>();
+        builder.startObject();
+        while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            if (changes.values.containsKey(fieldName)) {
+                parser.nextToken();
+                parser.skipChildren();
+                builder.field(fieldName, changes.values.get(fieldName));
+                appliedChanges.add(fieldName);
+            } else if (changes.children.containsKey(fieldName)) {
+                Changes childChanges = changes.children.get(fieldName);
+                XContentParser.Token token = parser.nextToken();
+                if (token == XContentParser.Token.VALUE_NULL) {
+                    throw new NullPointerException(String.format(Locale.ENGLISH,
+                        "Object %s is null, cannot write %s onto it", fieldName, childChanges.toPaths()));
+                }
+                if (token != XContentParser.Token.START_OBJECT) {
+                    throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "%s is not an object, cannot write %s onto it", fieldName, childChanges.toPaths()));
+                }
+                builder.field(fieldName);
+                copyObject(parser, builder, childChanges);
+                appliedChanges.add(fieldName);
+            } else {
+                // copies the field name and its value
+                builder.copyCurrentStructure(parser);
+            }
+        }
+        for (Map.Entry<String, Object> entry : changes.values.entrySet()) {
+            if (!appliedChanges.contains(entry.getKey())) {
+                builder.field(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Changes> entry : changes.children.entrySet()) {
+            if (!appliedChanges.contains(entry.getKey())) {
+                builder.field(entry.getKey(), entry.getValue().toMap());
+            }
+        }
+        builder.endObject();
+    }
+
+    private static void ensureStartObject(XContentParser.Token token) {
+        if (token != XContentParser.Token.START_OBJECT) {
+            throw new ElasticsearchParseException("Document source must be an object, got [{}]", token);
+        }
+    }
+
+    @Nullable
+    private static Object readValue(XContentParser parser, XContentParser.Token token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return parser.text();
+            case VALUE_NUMBER:
+                return parser.numberValue();
+            case VALUE_BOOLEAN:
+                return parser.booleanValue();
+            case START_OBJECT:
+                return parser.map();
+            case START_ARRAY:
+                return parser.list();
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.binaryValue();
+            default:
+                throw new ElasticsearchParseException("Unexpected token [{}] in document source", token);
+        }
+    }
+
+    /**
+     * The changes to apply on an object: the new values of its fields and the changes of its child objects.
+     */
+    private static class Changes {
+
+        private final Map<String, Object> values = new LinkedHashMap<>();
+        private final Map<String, Changes> children = new LinkedHashMap<>();
+
+        @Nullable
+        static Changes of(Map<String, Object> changesByPath) {
+            Changes changes = new Changes();
+            for (Map.Entry<String, Object> entry : changesByPath.entrySet()) {
+                if (!changes.add(entry.getKey(), entry.getValue())) {
+                    return null;
+                }
+            }
+            return changes;
+        }
+
+        private boolean add(String path, Object value) {
+            int dotIndex = path.indexOf('.');
+            if (dotIndex == -1) {
+                if (children.containsKey(path)) {
+                    return false;
+                }
+                values.put(path, value);
+                return true;
+            }
+            String fieldName = path.substring(0, dotIndex);
+            if (values.containsKey(fieldName)) {
+                return false;
+            }
+            return children.computeIfAbsent(fieldName, k -> new Changes()).add(path.substring(dotIndex + 1), value);
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>(values);
+            for (Map.Entry<String, Changes> entry : children.entrySet()) {
+                map.put(entry.getKey(), entry.getValue().toMap());
+            }
+            return map;
+        }
+
+        private Map<String, Object> toPaths() {
+            Map<String, Object> paths = new LinkedHashMap<>(values);
+            for (Map.Entry<String, Changes> entry : children.entrySet()) {
+                for (Map.Entry<String, Object> childPath : entry.getValue().toPaths().entrySet()) {
+                    paths.put(entry.getKey() + '.' + childPath.getKey(), childPath.getValue());
+                }
+            }
+            return paths;
+        }
+    }
+}
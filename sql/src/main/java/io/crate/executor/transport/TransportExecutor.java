@@ -41,6 +41,7 @@ import io.crate.executor.transport.executionphases.ExecutionPhasesTask;
 import io.crate.executor.transport.task.DropTableTask;
 import io.crate.executor.transport.task.KillJobTask;
 import io.crate.executor.transport.task.KillTask;
+import io.crate.executor.transport.task.ShardUpsertCoalescer;
 import io.crate.executor.transport.task.ShowCreateTableTask;
 import io.crate.executor.transport.task.UpsertByIdTask;
 import io.crate.executor.transport.task.elasticsearch.CreateAnalyzerTask;
@@ -114,6 +115,7 @@ public class TransportExecutor implements Executor {
 
     private final ProjectionToProjectorVisitor globalProjectionToProjectionVisitor;
     private final MultiPhaseExecutor multiPhaseExecutor = new MultiPhaseExecutor();
+    private final ShardUpsertCoalescer shardUpsertCoalescer;
 
     @Inject
     public TransportExecutor(Settings settings,
@@ -140,6 +142,8 @@ public class TransportExecutor implements Executor {
         this.dclStatementDispatcher = dclStatementDispatcher;
         this.transportDropTableAction = transportDropTableAction;
         this.plan2TaskVisitor = new TaskCollectingVisitor();
+        this.shardUpsertCoalescer = new ShardUpsertCoalescer(
+            (request, listener) -> transportActionProvider.transportShardUpsertAction().execute(request, listener));
         EvaluatingNormalizer normalizer = EvaluatingNormalizer.functionOnlyNormalizer(functions);
         globalProjectionToProjectionVisitor = new ProjectionToProjectorVisitor(
             clusterService,
@@ -271,7 +275,7 @@ public class TransportExecutor implements Executor {
                 clusterService,
                 threadPool.scheduler(),
                 clusterService.state().metaData().settings(),
-                transportActionProvider.transportShardUpsertAction()::execute,
+                shardUpsertCoalescer,
                 transportActionProvider.transportBulkCreateIndicesAction());
         }
 
@@ -48,6 +48,7 @@ import io.crate.operation.reference.ReferenceResolver;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ElasticsearchGenerationException;
+import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.ActionFilters;
@@ -345,7 +346,7 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
 
         GetResult getResult = getDocument(indexShard, request, item);
 
-        List<Input<?>> updateInputs = resolveSymbols(GetResultRefResolver.INSTANCE,
+        List<Input<?>> updateInputs = resolveSymbols(new GetResultRefResolver(),
             getResult, Arrays.asList(item.updateAssignments()), item.insertValues());
 
         Map<String, Object> pathsToUpdate = new LinkedHashMap<>();
@@ -379,6 +380,15 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         // Currently the validation is done only for generated columns.
         processGeneratedColumns(tableInfo, pathsToUpdate, updatedGeneratedColumns, true, getResult);
 
+        try {
+            BytesReference updatedSource = SourceRewriter.rewrite(getResult.internalSourceRef(), pathsToUpdate);
+            if (updatedSource != null) {
+                return new SourceAndVersion(updatedSource, getResult.getVersion());
+            }
+        } catch (IOException e) {
+            throw new ElasticsearchGenerationException("Failed to generate updated source of [" + item.id() + "]", e);
+        }
+
         Tuple<XContentType, Map<String, Object>> sourceAndContent =
             XContentHelper.convertToMap(getResult.internalSourceRef(), false, XContentType.JSON);
         final XContentType updateSourceContentType = sourceAndContent.v1();
@@ -683,9 +693,17 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         return columnsNotUsed;
     }
 
+    /**
+     * Resolves references to the values of a {@link GetResult}.
+     * <p>
+     * Only the top-level columns which are referenced are read from the source instead of the whole source,
+     * so an instance must not be shared between different sets of references.
+     */
     private static class GetResultRefResolver implements ReferenceResolver<CollectExpression<GetResult, ?>> {
 
-        private static final GetResultRefResolver INSTANCE = new GetResultRefResolver();
+        private final Set<String> topLevelColumns = new HashSet<>();
+        private GetResult currentResult;
+        private Map<String, Object> currentValues;
 
         @Override
         public CollectExpression<GetResult, ?> getImplementation(Reference ref) {
@@ -705,15 +723,27 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                     return RowContextCollectorExpression.forFunction(GetResult::getSource);
 
                 default:
+                    topLevelColumns.add(columnIdent.name());
                     return RowContextCollectorExpression.forFunction(response -> {
                         if (response == null) {
                             return null;
                         }
-                        Map<String, Object> sourceAsMap = response.sourceAsMap();
-                        return ref.valueType().value(XContentMapValues.extractValue(fqn, sourceAsMap));
+                        return ref.valueType().value(XContentMapValues.extractValue(fqn, topLevelValues(response)));
                     });
             }
         }
+
+        private Map<String, Object> topLevelValues(GetResult getResult) {
+            if (getResult != currentResult) {
+                try {
+                    currentValues = SourceRewriter.readTopLevelFields(getResult.internalSourceRef(), topLevelColumns);
+                } catch (IOException e) {
+                    throw new ElasticsearchParseException("Failed to parse source of [{}]", e, getResult.getId());
+                }
+                currentResult = getResult;
+            }
+            return currentValues;
+        }
     }
 
     private static class GetResultOrGeneratedColumnsResolver extends GetResultRefResolver {
@@ -0,0 +1,221 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport.task;
+
+import io.crate.executor.transport.ShardResponse;
+import io.crate.executor.transport.ShardUpsertRequest;
+import io.crate.metadata.Reference;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkRequestExecutor;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Merges concurrent single-row upserts into the same shard into one {@link ShardUpsertRequest} (group commit),
+ * so that they share one replication round trip and one translog sync.
+ * <p>
+ * If no merged request to a shard is in-flight, a row is sent right away, so under low load nothing is delayed.
+ * Rows arriving while a request is in-flight are queued and sent together, up to {@link #MAX_ITEMS_PER_REQUEST},
+ * once the in-flight request completes.
+ * <p>
+ * Only rows with the same columns and request options are merged. The merged request continues on errors.
+ * A row which failed within it is sent again in its original request, so that its listener receives the same
+ * failure as without merging. Requests with more than one row are passed through as they are.
+ * <p>
+ * Note that a merged request has its own job id, so killing one of the jobs doesn't interrupt it.
+ */
+public class ShardUpsertCoalescer implements BulkRequestExecutor<ShardUpsertRequest> {
+
+    static final int MAX_ITEMS_PER_REQUEST = 1000;
+
+    private final BulkRequestExecutor<ShardUpsertRequest> upsertAction;
+    private final Map<RequestKey, ArrayDeque<PendingUpsert>> pendingByRequestKey = new HashMap<>();
+
+    public ShardUpsertCoalescer(BulkRequestExecutor<ShardUpsertRequest> upsertAction) {
+        this.upsertAction = upsertAction;
+    }
+
+    @Override
+    public void execute(ShardUpsertRequest request, ActionListener<ShardResponse> listener) {
+        if (request.items().size() != 1) {
+            upsertAction.execute(request, listener);
+            return;
+        }
+        RequestKey key = new RequestKey(request);
+        PendingUpsert upsert = new PendingUpsert(request, listener);
+        synchronized (pendingByRequestKey) {
+            ArrayDeque<PendingUpsert> pending = pendingByRequestKey.get(key);
+            if (pending != null) {
+                // a request is in-flight, this one is sent once it completes
+                pending.add(upsert);
+                return;
+            }
+            pendingByRequestKey.put(key, new ArrayDeque<>());
+        }
+        send(key, Collections.singletonList(upsert));
+    }
+
+    private void send(RequestKey key, List<PendingUpsert> upserts) {
+        ShardUpsertRequest mergedRequest = key.newRequest();
+        for (int i = 0; i < upserts.size(); i++) {
+            ShardUpsertRequest.Item item = upserts.get(i).request.items().get(0);
+            mergedRequest.add(i, new ShardUpsertRequest.Item(
+                item.id(), item.updateAssignments(), item.insertValues(), item.version()));
+        }
+        upsertAction.execute(mergedRequest, new ActionListener<ShardResponse>() {
+            @Override
+            public void onResponse(ShardResponse shardResponse) {
+                sendNext(key);
+                BitSet written = new BitSet(upserts.size());
+                ShardResponse.markResponseItemsAndFailures(shardResponse, written);
+                Exception failure = shardResponse.failure();
+                for (int i = 0; i < upserts.size(); i++) {
+                    PendingUpsert upsert = upserts.get(i);
+                    if (written.get(i)) {
+                        upsert.onWritten();
+                    } else if (failure != null) {
+                        // the processing of the request stopped before this row
+                        upsert.listener.onFailure(failure);
+                    } else {
+                        // the row failed, send it on its own to report the failure as if it hadn't been merged
+                        upsertAction.execute(upsert.request, upsert.listener);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                sendNext(key);
+                for (PendingUpsert upsert : upserts) {
+                    upsert.listener.onFailure(e);
+                }
+            }
+        });
+    }
+
+    private void sendNext(RequestKey key) {
+        List<PendingUpsert> next;
+        synchronized (pendingByRequestKey) {
+            ArrayDeque<PendingUpsert> pending = pendingByRequestKey.get(key);
+            if (pending.isEmpty()) {
+                pendingByRequestKey.remove(key);
+                return;
+            }
+            next = new ArrayList<>(Math.min(pending.size(), MAX_ITEMS_PER_REQUEST));
+            while (!pending.isEmpty() && next.size() < MAX_ITEMS_PER_REQUEST) {
+                next.add(pending.poll());
+            }
+        }
+        send(key, next);
+    }
+
+    private static class PendingUpsert {
+
+        private final ShardUpsertRequest request;
+        private final ActionListener<ShardResponse> listener;
+
+        PendingUpsert(ShardUpsertRequest request, ActionListener<ShardResponse> listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+
+        void onWritten() {
+            ShardResponse response = new ShardResponse();
+            response.add(request.items().get(0).location());
+            listener.onResponse(response);
+        }
+    }
+
+    /**
+     * The properties of a request which must be equal for its rows to be merged into one request.
+     */
+    private static class RequestKey {
+
+        private final ShardId shardId;
+        @Nullable
+        private final String routing;
+        private final TimeValue timeout;
+        @Nullable
+        private final String[] updateColumns;
+        @Nullable
+        private final Reference[] insertColumns;
+        private final boolean overwriteDuplicates;
+        private final boolean validateConstraints;
+
+        RequestKey(ShardUpsertRequest request) {
+            shardId = request.shardId();
+            routing = request.routing();
+            timeout = request.timeout();
+            updateColumns = request.updateColumns();
+            insertColumns = request.insertColumns();
+            overwriteDuplicates = request.overwriteDuplicates();
+            validateConstraints = request.validateConstraints();
+        }
+
+        ShardUpsertRequest newRequest() {
+            return new ShardUpsertRequest.Builder(
+                timeout,
+                overwriteDuplicates,
+                true,
+                updateColumns,
+                insertColumns,
+                UUID.randomUUID(),
+                validateConstraints
+            ).newRequest(shardId, routing);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RequestKey that = (RequestKey) o;
+            return overwriteDuplicates == that.overwriteDuplicates &&
+                   validateConstraints == that.validateConstraints &&
+                   shardId.equals(that.shardId) &&
+                   Objects.equals(routing, that.routing) &&
+                   timeout.equals(that.timeout) &&
+                   Arrays.equals(updateColumns, that.updateColumns) &&
+                   Arrays.equals(insertColumns, that.insertColumns);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(shardId, routing, timeout, overwriteDuplicates, validateConstraints);
+            result = 31 * result + Arrays.hashCode(updateColumns);
+            result = 31 * result + Arrays.hashCode(insertColumns);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation;
+
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.logging.Loggers;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A concurrency limit which is adjusted using additive-increase/multiplicative-decrease (AIMD), based on the
+ * observed latency of the operations and on rejected operations:
+ * <ul>
+ *     <li>An operation completing within {@link #LATENCY_TOLERANCE} times the average latency increases the limit
+ *     by {@code 1 / limit}, so the limit grows by about one per round of operations.</li>
+ *     <li>A rejected operation or an operation exceeding that latency halves the limit. This happens at most once
+ *     per average latency, so that the operations which were in-flight at the same time only count once.</li>
+ * </ul>
+ * Changes of the (integer) limit are logged at debug level.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    static final double MIN_LIMIT = 1;
+    static final double MAX_LIMIT = NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS * 4;
+
+    private static final Logger LOGGER = Loggers.getLogger(AdaptiveConcurrencyLimit.class);
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.1;
+
+    private final String nodeId;
+    private final LongSupplier nanoTime;
+
+    private double limit = NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS;
+    private double avgLatencyNanos = -1;
+    private long lastDecreaseNanos;
+
+    AdaptiveConcurrencyLimit(String nodeId, LongSupplier nanoTime) {
+        this.nodeId = nodeId;
+        this.nanoTime = nanoTime;
+        this.lastDecreaseNanos = nanoTime.getAsLong();
+    }
+
+    synchronized long get() {
+        return (long) limit;
+    }
+
+    synchronized void onSuccess(long latencyNanos) {
+        if (avgLatencyNanos < 0) {
+            avgLatencyNanos = latencyNanos;
+        }
+        if (latencyNanos > avgLatencyNanos * LATENCY_TOLERANCE) {
+            decrease();
+        } else {
+            long prevLimit = (long) limit;
+            limit = Math.min(MAX_LIMIT, limit + 1 / limit);
+            if (LOGGER.isDebugEnabled() && (long) limit != prevLimit) {
+                LOGGER.debug("Increased concurrency limit for node={} from {} to {}, latency={}ms avgLatency={}ms",
+                    nodeId, prevLimit, (long) limit, latencyNanos / 1_000_000.0, avgLatencyNanos / 1_000_000.0);
+            }
+        }
+        avgLatencyNanos += (latencyNanos - avgLatencyNanos) * LATENCY_SMOOTHING_FACTOR;
+    }
+
+    synchronized void onRejection() {
+        decrease();
+    }
+
+    private void decrease() {
+        long now = nanoTime.getAsLong();
+        if (now - lastDecreaseNanos >= Math.max(avgLatencyNanos, 0)) {
+            long prevLimit = (long) limit;
+            limit = Math.max(MIN_LIMIT, limit / 2);
+            lastDecreaseNanos = now;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Decreased concurrency limit for node={} from {} to {}, avgLatency={}ms",
+                    nodeId, prevLimit, (long) limit, avgLatencyNanos / 1_000_000.0);
+            }
+        }
+    }
+}
@@ -22,29 +22,45 @@
 
 package io.crate.operation;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.elasticsearch.common.inject.Singleton;
 
 import javax.annotation.Nullable;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
 
 /**
  * Counts how many operations issued from the current node are in progress across the cluster.
  * If the destination node cannot be determined, it counts the in progress operations towards the unknown node.
  * Note: one job can span multiple nodes.
+ * <p>
+ * It also keeps an adaptive limit of concurrent operations per node, see {@link #getConcurrencyLimitForNode(String)}.
  */
 @Singleton
 public class NodeJobsCounter {
 
     /**
-     * Represents the maximum number of concurrent operations that can be issued towards a node.
+     * Represents the maximum number of concurrent operations that can be issued towards a node,
+     * unless the adaptive limit of the node is used.
      */
     public static final long MAX_NODE_CONCURRENT_OPERATIONS = 5;
 
     private long unknownNodeCount = 0L;
     // Using single element long[] to avoid autoboxing
     private final Map<String, long[]> operationsCountPerNode = new ConcurrentHashMap<>();
+    private final Map<String, AdaptiveConcurrencyLimit> concurrencyLimitPerNode = new ConcurrentHashMap<>();
+    private final LongSupplier nanoTime;
+
+    public NodeJobsCounter() {
+        this(System::nanoTime);
+    }
+
+    @VisibleForTesting
+    NodeJobsCounter(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+    }
 
     private static BiFunction<String, long[], long[]> INCREMENT_COUNTER_FOR_NODE = (node, count) -> {
         if (count == null) {
@@ -93,4 +109,35 @@ public class NodeJobsCounter {
         }
         return count;
     }
+
+    /**
+     * Returns the number of operations which may currently be in progress towards the given node.
+     * <p>
+     * The limit starts at {@link #MAX_NODE_CONCURRENT_OPERATIONS} and is adjusted based on the latencies and
+     * rejections reported using {@link #onOperationCompleted(String, long)} and {@link #onOperationRejected(String)}:
+     * It shrinks quickly if the node becomes overloaded and grows back gradually once it recovers.
+     */
+    public long getConcurrencyLimitForNode(@Nullable String nodeId) {
+        if (nodeId == null) {
+            return MAX_NODE_CONCURRENT_OPERATIONS;
+        }
+        AdaptiveConcurrencyLimit limit = concurrencyLimitPerNode.get(nodeId);
+        return limit == null ? MAX_NODE_CONCURRENT_OPERATIONS : limit.get();
+    }
+
+    public void onOperationCompleted(@Nullable String nodeId, long latencyNanos) {
+        if (nodeId != null) {
+            concurrencyLimit(nodeId).onSuccess(latencyNanos);
+        }
+    }
+
+    public void onOperationRejected(@Nullable String nodeId) {
+        if (nodeId != null) {
+            concurrencyLimit(nodeId).onRejection();
+        }
+    }
+
+    private AdaptiveConcurrencyLimit concurrencyLimit(String nodeId) {
+        return concurrencyLimitPerNode.computeIfAbsent(nodeId, id -> new AdaptiveConcurrencyLimit(id, nanoTime));
+    }
 }
@@ -24,7 +24,6 @@ package io.crate.operation.collect.collectors;
 
 import org.apache.lucene.index.FieldInfo;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
-import org.elasticsearch.index.mapper.SourceFieldMapper;
 
 import java.io.IOException;
 import java.util.HashSet;
@@ -49,11 +48,13 @@ public class CollectorFieldsVisitor extends FieldsVisitor {
         return required;
     }
 
+    /**
+     * Only loads the fields which have been added using {@link #addField(String)}.
+     * The {@code _source} field is no exception; it has to be added explicitly by the expressions that read it,
+     * so that collecting only {@code _uid} (e.g. for DELETE or UPDATE) doesn't copy the whole source of each document.
+     */
     @Override
     public Status needsField(FieldInfo fieldInfo) throws IOException {
-        if (SourceFieldMapper.NAME.equals(fieldInfo.name)) {
-            return Status.YES;
-        }
         return requiredFields.contains(fieldInfo.name) ? Status.YES : Status.NO;
     }
 
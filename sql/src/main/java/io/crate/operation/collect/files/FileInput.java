@@ -21,9 +21,11 @@
 
 package io.crate.operation.collect.files;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -43,5 +45,44 @@ public interface FileInput {
 
     InputStream getStream(URI uri) throws IOException;
 
+    /**
+     * Like {@link #getStream(URI)} but the returned stream starts at byte {@code position} of the file.
+     * Implementations should override this if they can seek or request a range without reading the skipped bytes.
+     */
+    default InputStream getStream(URI uri, long position) throws IOException {
+        InputStream stream = getStream(uri);
+        if (stream != null && position > 0) {
+            long remaining = position;
+            while (remaining > 0) {
+                long skipped = stream.skip(remaining);
+                if (skipped <= 0) {
+                    if (stream.read() == -1) {
+                        break;
+                    }
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * @return the size of the file in bytes or -1 if it is unknown.
+     *         Only files with a known size are split into byte ranges which are read by different readers.
+     */
+    default long size(URI uri) throws IOException {
+        return -1;
+    }
+
+    /**
+     * @return a channel to read the file or null if the file can only be read as stream.
+     *         Uncompressed files which can be opened as channel are memory-mapped instead of being streamed.
+     */
+    @Nullable
+    default FileChannel getChannel(URI uri) throws IOException {
+        return null;
+    }
+
     boolean sharedStorageDefault();
 }
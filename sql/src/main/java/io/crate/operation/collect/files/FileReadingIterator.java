@@ -21,6 +21,7 @@
 
 package io.crate.operation.collect.files;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import io.crate.concurrent.CompletableFutures;
@@ -28,6 +29,7 @@ import io.crate.data.BatchIterator;
 import io.crate.data.CloseAssertingBatchIterator;
 import io.crate.data.Columns;
 import io.crate.data.Input;
+import io.crate.operation.reference.file.CSVLineParser;
 import io.crate.operation.reference.file.LineContext;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.ElasticsearchParseException;
@@ -36,13 +38,11 @@ import org.elasticsearch.common.logging.Loggers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.SocketTimeoutException;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -65,11 +65,20 @@ public class FileReadingIterator implements BatchIterator {
 
     private static final Logger LOGGER = Loggers.getLogger(FileReadingIterator.class);
     public static final int MAX_SOCKET_TIMEOUT_RETRIES = 5;
+
+    /**
+     * Uncompressed files on shared storage which are at least this large are split into byte ranges,
+     * one per reader, instead of being read by a single reader.
+     */
+    private static final long MIN_SPLIT_SIZE_BYTES = 64 * 1024 * 1024;
     private final Map<String, FileInputFactory> fileInputFactories;
     private final Boolean shared;
     private final int numReaders;
     private final int readerNumber;
     private final boolean compressed;
+    private final long minSplitSizeBytes;
+    @Nullable
+    private final CSVLineParser csvParser;
 
     private static final Pattern HAS_GLOBS_PATTERN = Pattern.compile("(.*)[^\\\\]\\*.*");
     private static final Predicate<URI> MATCH_ALL_PREDICATE = (URI input) -> true;
@@ -80,7 +89,8 @@ public class FileReadingIterator implements BatchIterator {
     private Tuple<FileInput, UriWithGlob> currentInput = null;
     private Iterator<URI> currentInputIterator = null;
     private URI currentUri;
-    private BufferedReader currentReader = null;
+    private LineReader currentReader = null;
+    private long currentEnd;
     private long currentLineNumber;
     private LineContext lineContext;
     private final Columns inputs;
@@ -92,7 +102,11 @@ public class FileReadingIterator implements BatchIterator {
                                 Map<String, FileInputFactory> fileInputFactories,
                                 Boolean shared,
                                 int numReaders,
-                                int readerNumber) {
+                                int readerNumber,
+                                @Nullable CSVLineParser csvParser,
+                                long minSplitSizeBytes) {
+        this.minSplitSizeBytes = minSplitSizeBytes;
+        this.csvParser = csvParser;
         this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
         this.inputs = Columns.wrap(inputs.stream().map(ExceptionHandlingInputProxy::new).collect(Collectors.toList()));
         this.fileInputFactories = fileInputFactories;
@@ -128,8 +142,9 @@ public class FileReadingIterator implements BatchIterator {
                 return this.input.value();
             } catch (ElasticsearchParseException e) {
                 throw new ElasticsearchParseException(String.format(Locale.ENGLISH,
-                    "Failed to parse JSON in line: %d in file: \"%s\"%n" +
-                    "Original error message: %s", currentLineNumber, currentUri, e.getMessage()), e);
+                    "Failed to parse %s in line: %d in file: \"%s\"%n" +
+                    "Original error message: %s",
+                    csvParser == null ? "JSON" : "CSV", currentLineNumber, currentUri, e.getMessage()), e);
             }
         }
     }
@@ -142,12 +157,43 @@ public class FileReadingIterator implements BatchIterator {
                                             Boolean shared,
                                             int numReaders,
                                             int readerNumber) {
+        return newInstance(fileUris, inputs, collectorExpressions, compression, fileInputFactories, shared,
+            numReaders, readerNumber, null);
+    }
+
+    /**
+     * @param csvParser parser for files in CSV format, or null if the files contain JSON objects
+     */
+    public static BatchIterator newInstance(Collection<String> fileUris,
+                                            List<Input<?>> inputs,
+                                            Iterable<LineCollectorExpression<?>> collectorExpressions,
+                                            String compression,
+                                            Map<String, FileInputFactory> fileInputFactories,
+                                            Boolean shared,
+                                            int numReaders,
+                                            int readerNumber,
+                                            @Nullable CSVLineParser csvParser) {
+        return newInstance(fileUris, inputs, collectorExpressions, compression, fileInputFactories, shared,
+            numReaders, readerNumber, csvParser, MIN_SPLIT_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    static BatchIterator newInstance(Collection<String> fileUris,
+                                     List<Input<?>> inputs,
+                                     Iterable<LineCollectorExpression<?>> collectorExpressions,
+                                     String compression,
+                                     Map<String, FileInputFactory> fileInputFactories,
+                                     Boolean shared,
+                                     int numReaders,
+                                     int readerNumber,
+                                     @Nullable CSVLineParser csvParser,
+                                     long minSplitSizeBytes) {
         return new CloseAssertingBatchIterator(new FileReadingIterator(fileUris, inputs, collectorExpressions,
-            compression, fileInputFactories, shared, numReaders, readerNumber));
+            compression, fileInputFactories, shared, numReaders, readerNumber, csvParser, minSplitSizeBytes));
     }
 
     private void initCollectorState() {
-        lineContext = new LineContext();
+        lineContext = new LineContext(csvParser);
         for (LineCollectorExpression<?> collectorExpression : collectorExpressions) {
             collectorExpression.startCollect(lineContext);
         }
@@ -172,12 +218,12 @@ public class FileReadingIterator implements BatchIterator {
     public boolean moveNext() {
         try {
             if (currentReader != null) {
-                String line = getLine(currentReader, currentLineNumber, 0);
+                byte[] line = getLine(0);
                 if (line == null) {
                     closeCurrentReader();
                     return moveNext();
                 } else {
-                    lineContext.rawSource(line.getBytes(StandardCharsets.UTF_8));
+                    lineContext.rawSource(line);
                     return true;
                 }
             } else if (currentInputIterator != null && currentInputIterator.hasNext()) {
@@ -198,14 +244,27 @@ public class FileReadingIterator implements BatchIterator {
 
     private void advanceToNextUri(FileInput fileInput) throws IOException {
         currentUri = currentInputIterator.next();
-        initCurrentReader(fileInput, currentUri);
+        if (!isSharedStorage(fileInput) || numReaders == 1) {
+            initCurrentReader(fileInput, currentUri, 0, Long.MAX_VALUE);
+            return;
+        }
+        long size = compressed ? -1 : fileInput.size(currentUri);
+        if (size >= minSplitSizeBytes) {
+            // every reader reads the lines starting within its range of the file
+            long start = size / numReaders * readerNumber;
+            long end = readerNumber == numReaders - 1 ? Long.MAX_VALUE : size / numReaders * (readerNumber + 1);
+            initCurrentReader(fileInput, currentUri, start, end);
+        } else if (isAssignedToThisReader(currentUri)) {
+            initCurrentReader(fileInput, currentUri, 0, Long.MAX_VALUE);
+        }
     }
 
     private void advanceToNextFileInput() throws IOException {
         currentInput = fileInputsIterator.next();
         FileInput fileInput = currentInput.v1();
         UriWithGlob fileUri = currentInput.v2();
-        Predicate<URI> uriPredicate = generateUriPredicate(fileInput, fileUri.globPredicate);
+        // files on shared storage are assigned to readers in advanceToNextUri, because large files are split
+        Predicate<URI> uriPredicate = fileUri.globPredicate == null ? MATCH_ALL_PREDICATE : fileUri.globPredicate;
         List<URI> uris = getUris(fileInput, fileUri.uri, fileUri.preGlobUri, uriPredicate);
         if (uris.size() > 0) {
             currentInputIterator = uris.iterator();
@@ -213,12 +272,62 @@ public class FileReadingIterator implements BatchIterator {
         }
     }
 
-    private void initCurrentReader(FileInput fileInput, URI uri) throws IOException {
-        InputStream stream = fileInput.getStream(uri);
-        if (stream != null) {
-            currentReader = createBufferedReader(stream);
-            currentLineNumber = 0;
+    /**
+     * Opens a reader for the lines of {@code uri} which start within [start, end)
+     */
+    private void initCurrentReader(FileInput fileInput, URI uri, long start, long end) throws IOException {
+        currentLineNumber = 0;
+        if (start == 0) {
+            openReader(fileInput, uri, 0);
+            if (csvParser != null && currentReader != null) {
+                readCsvHeader(currentReader);
+            }
+        } else {
+            if (csvParser != null) {
+                // only the first range of the file contains the header
+                try (LineReader headerReader = newLineReader(fileInput, uri, 0)) {
+                    if (headerReader != null) {
+                        readCsvHeader(headerReader);
+                    }
+                }
+                currentLineNumber = 0;
+            }
+            // the line which contains byte start - 1 is read by the previous reader
+            openReader(fileInput, uri, start - 1);
+            if (currentReader != null) {
+                currentReader.readLine();
+            }
+        }
+        currentEnd = end;
+    }
+
+    private void readCsvHeader(LineReader reader) throws IOException {
+        while (reader.readLine()) {
+            currentLineNumber++;
+            if (reader.lineLength() > 0) {
+                csvParser.parseHeader(reader.line());
+                return;
+            }
+        }
+    }
+
+    private void openReader(FileInput fileInput, URI uri, long position) throws IOException {
+        currentReader = newLineReader(fileInput, uri, position);
+    }
+
+    @Nullable
+    private LineReader newLineReader(FileInput fileInput, URI uri, long position) throws IOException {
+        if (!compressed) {
+            FileChannel channel = fileInput.getChannel(uri);
+            if (channel != null) {
+                return new MappedLineReader(channel, position);
+            }
+        }
+        InputStream stream = position == 0 ? fileInput.getStream(uri) : fileInput.getStream(uri, position);
+        if (stream == null) {
+            return null;
         }
+        return new StreamLineReader(compressed ? new GZIPInputStream(stream) : stream, position);
     }
 
     private void closeCurrentReader() {
@@ -232,18 +341,15 @@ public class FileReadingIterator implements BatchIterator {
         }
     }
 
-    private String getLine(BufferedReader reader, long startFrom, int retry) throws IOException {
-        String line = null;
+    @Nullable
+    private byte[] getLine(int retry) throws IOException {
         try {
-            while ((line = reader.readLine()) != null) {
+            while (currentReader.position() < currentEnd && currentReader.readLine()) {
                 currentLineNumber++;
-                if (currentLineNumber < startFrom) {
-                    continue;
-                }
-                if (line.length() == 0) {
+                if (currentReader.lineLength() == 0) {
                     continue;
                 }
-                break;
+                return currentReader.line();
             }
         } catch (SocketTimeoutException e) {
             if (retry > MAX_SOCKET_TIMEOUT_RETRIES) {
@@ -251,10 +357,11 @@ public class FileReadingIterator implements BatchIterator {
                 LOGGER.info("Timeout during COPY FROM '{}' after {} retries", e, uri.toString(), retry);
                 throw e;
             } else {
-                long startLine = currentLineNumber + 1;
-                closeCurrentReader();
-                initCurrentReader(currentInput.v1(), currentUri);
-                return getLine(currentReader, startLine, retry + 1);
+                reopenCurrentReader();
+                if (currentReader == null) {
+                    return null;
+                }
+                return getLine(retry + 1);
             }
         } catch (Exception e) {
             URI uri = currentInput.v2().uri;
@@ -263,7 +370,26 @@ public class FileReadingIterator implements BatchIterator {
             LOGGER.info("Error during COPY FROM '{}'", e, uri.toString());
             rethrowUnchecked(e);
         }
-        return line;
+        return null;
+    }
+
+    /**
+     * Re-opens the current reader at the line where reading failed
+     */
+    private void reopenCurrentReader() throws IOException {
+        long position = currentReader.position();
+        long lineNumber = currentLineNumber;
+        closeCurrentReader();
+        if (compressed) {
+            // can't seek within the compressed stream, skip the already read lines instead
+            openReader(currentInput.v1(), currentUri, 0);
+            for (long i = 0; i < lineNumber && currentReader != null; i++) {
+                currentReader.readLine();
+            }
+        } else {
+            openReader(currentInput.v1(), currentUri, position);
+        }
+        currentLineNumber = lineNumber;
     }
 
     @Override
@@ -371,17 +497,6 @@ public class FileReadingIterator implements BatchIterator {
         return new URLFileInput(fileUri);
     }
 
-    private BufferedReader createBufferedReader(InputStream inputStream) throws IOException {
-        BufferedReader reader;
-        if (compressed) {
-            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(inputStream),
-                StandardCharsets.UTF_8));
-        } else {
-            reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-        }
-        return reader;
-    }
-
     private static List<URI> getUris(FileInput fileInput, URI fileUri, URI preGlobUri, Predicate<URI> uriPredicate) throws IOException {
         List<URI> uris;
         if (preGlobUri != null) {
@@ -394,25 +509,16 @@ public class FileReadingIterator implements BatchIterator {
         return uris;
     }
 
-    private Predicate<URI> generateUriPredicate(FileInput fileInput, @Nullable Predicate<URI> globPredicate) {
-        Predicate<URI> moduloPredicate;
-        boolean sharedStorage = MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
-        if (sharedStorage) {
-            moduloPredicate = input -> {
-                int hash = input.hashCode();
-                if (hash == Integer.MIN_VALUE) {
-                    hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
-                }
-                return Math.abs(hash) % numReaders == readerNumber;
-            };
-        } else {
-            moduloPredicate = MATCH_ALL_PREDICATE;
-        }
+    private boolean isSharedStorage(FileInput fileInput) {
+        return MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
+    }
 
-        if (globPredicate != null) {
-            return moduloPredicate.and(globPredicate);
+    private boolean isAssignedToThisReader(URI uri) {
+        int hash = uri.hashCode();
+        if (hash == Integer.MIN_VALUE) {
+            hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
         }
-        return moduloPredicate;
+        return Math.abs(hash) % numReaders == readerNumber;
     }
 
     private static class GlobPredicate implements Predicate<URI> {
@@ -0,0 +1,55 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads newline separated lines of a file as raw bytes.
+ * <p>
+ * Unlike a {@link java.io.BufferedReader} the lines are not decoded into Strings and the position of the next line
+ * within the file is known, which allows to read only a byte range of a file.
+ */
+interface LineReader extends Closeable {
+
+    /**
+     * @return the position within the file of the line which will be read by the next {@link #readLine()} call
+     */
+    long position();
+
+    /**
+     * Reads the next line. Its length (without line terminator) is available via {@link #lineLength()} and its
+     * content via {@link #line()} until the next call.
+     *
+     * @return false if the end of the file has been reached
+     */
+    boolean readLine() throws IOException;
+
+    int lineLength();
+
+    /**
+     * @return a copy of the current line which is {@link #lineLength()} bytes long
+     */
+    byte[] line();
+}
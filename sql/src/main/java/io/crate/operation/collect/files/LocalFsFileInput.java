@@ -29,12 +29,15 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
@@ -90,6 +93,37 @@ public class LocalFsFileInput implements FileInput {
         }
     }
 
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        FileInputStream stream = (FileInputStream) getStream(uri);
+        if (stream != null && position > 0) {
+            stream.getChannel().position(position);
+        }
+        return stream;
+    }
+
+    @Override
+    public long size(URI uri) throws IOException {
+        Path path = Paths.get(uri);
+        if (Files.isRegularFile(path)) {
+            return Files.size(path);
+        }
+        return -1;
+    }
+
+    @Override
+    public FileChannel getChannel(URI uri) throws IOException {
+        Path path = Paths.get(uri);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return false;
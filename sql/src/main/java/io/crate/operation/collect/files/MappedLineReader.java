@@ -0,0 +1,129 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * {@link LineReader} for uncompressed local files which memory-maps the file and searches the line
+ * boundaries directly within the mapped bytes.
+ * <p>
+ * Each line is copied exactly once: from the page cache into the array returned by {@link #line()}.
+ * Files larger than the maximum size of a mapping are mapped in regions; a region always starts at the
+ * beginning of a line.
+ */
+class MappedLineReader implements LineReader {
+
+    private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long maxRegionSize;
+
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    private long position;
+    private int lineOffset;
+    private int lineLength;
+
+    /**
+     * @param position the position within the file of the first line to read
+     */
+    MappedLineReader(FileChannel channel, long position) throws IOException {
+        this(channel, position, MAX_REGION_SIZE);
+    }
+
+    MappedLineReader(FileChannel channel, long position, long maxRegionSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.position = position;
+        this.maxRegionSize = maxRegionSize;
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public boolean readLine() throws IOException {
+        if (position >= size) {
+            lineLength = 0;
+            return false;
+        }
+        while (true) {
+            if (region == null || position < regionStart || position >= regionStart + region.limit()) {
+                mapRegion(position);
+            }
+            int start = (int) (position - regionStart);
+            int limit = region.limit();
+            int end = start;
+            while (end < limit && region.get(end) != '\n') {
+                end++;
+            }
+            if (end == limit && regionStart + limit < size) {
+                if (start == 0) {
+                    throw new IOException("Line at position " + position + " is longer than " + maxRegionSize + " bytes");
+                }
+                // the line continues after the mapped region, map a new region starting at the line
+                mapRegion(position);
+                continue;
+            }
+            lineOffset = start;
+            lineLength = end - start;
+            position = regionStart + Math.min(end + 1, limit);
+            if (lineLength > 0 && end < limit && region.get(end - 1) == '\r') {
+                lineLength--;
+            }
+            return true;
+        }
+    }
+
+    private void mapRegion(long start) throws IOException {
+        regionStart = start;
+        region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(maxRegionSize, size - start));
+    }
+
+    @Override
+    public int lineLength() {
+        return lineLength;
+    }
+
+    @Override
+    public byte[] line() {
+        byte[] line = new byte[lineLength];
+        region.position(lineOffset);
+        region.get(line);
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the mapped regions are released once they are garbage collected
+        region = null;
+        channel.close();
+    }
+}
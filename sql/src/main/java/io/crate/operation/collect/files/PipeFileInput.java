@@ -0,0 +1,64 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * FileInput which reads the {@link PipeInputStream}s of the local node, see {@link Pipes}.
+ */
+class PipeFileInput implements FileInput {
+
+    private final Pipes pipes;
+
+    PipeFileInput(Pipes pipes) {
+        this.pipes = pipes;
+    }
+
+    @Override
+    public List<URI> listUris(URI fileUri, Predicate<URI> uriPredicate) throws IOException {
+        if (pipes.get(fileUri) != null && uriPredicate.test(fileUri)) {
+            return Collections.singletonList(fileUri);
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public InputStream getStream(URI uri) throws IOException {
+        PipeInputStream pipe = pipes.get(uri);
+        if (pipe == null) {
+            throw new IOException("Pipe " + uri + " doesn't exist on this node");
+        }
+        return pipe;
+    }
+
+    @Override
+    public boolean sharedStorageDefault() {
+        return false;
+    }
+}
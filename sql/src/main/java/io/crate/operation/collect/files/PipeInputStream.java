@@ -0,0 +1,200 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * InputStream which is fed with chunks of data by a producer, e.g. a client connection, and read by another thread.
+ * <p>
+ * Reads block until data is available or the producer called {@link #finish()} or {@link #fail(Throwable)}.
+ * To limit the memory used by buffered chunks the producer is paused while more than {@code maxBufferedBytes}
+ * are buffered, and resumed once the reader consumed half of them.
+ * <p>
+ * The reader usually runs on a pool thread, so a read doesn't wait for longer than {@code idleTimeoutMillis}:
+ * if the producer doesn't provide data within that time the pipe is failed.
+ */
+public class PipeInputStream extends InputStream {
+
+    private final URI uri;
+    private final long maxBufferedBytes;
+    private final long idleTimeoutMillis;
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+
+    private long bufferedBytes = 0;
+    private boolean finished = false;
+    private boolean closed = false;
+    @Nullable
+    private Throwable failure;
+    @Nullable
+    private Consumer<Boolean> pausedProducer;
+
+    private byte[] current;
+    private int currentPos = 0;
+
+    PipeInputStream(URI uri, long maxBufferedBytes, long idleTimeoutMillis) {
+        this.uri = uri;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public URI uri() {
+        return uri;
+    }
+
+    /**
+     * Appends a chunk of data. Chunks written after the pipe was finished or closed are dropped.
+     *
+     * @param setProducing called with {@code false} if the producer should pause because too much data is buffered,
+     *                     and later with {@code true} once it can resume.
+     */
+    public synchronized void write(byte[] chunk, Consumer<Boolean> setProducing) {
+        if (finished || closed) {
+            return;
+        }
+        chunks.add(chunk);
+        bufferedBytes += chunk.length;
+        notifyAll();
+        if (bufferedBytes >= maxBufferedBytes && pausedProducer == null) {
+            pausedProducer = setProducing;
+            setProducing.accept(false);
+        }
+    }
+
+    /**
+     * Marks the end of the data; the reader receives EOF after the buffered chunks.
+     */
+    public synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    /**
+     * Aborts the pipe; the reader fails with an IOException caused by {@code t}.
+     */
+    public synchronized void fail(Throwable t) {
+        if (failure == null && !closed) {
+            failure = t;
+        }
+        finished = true;
+        discardChunks();
+        notifyAll();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (current == null || currentPos == current.length) {
+            current = nextChunk();
+            currentPos = 0;
+            if (current == null) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, current.length - currentPos);
+        System.arraycopy(current, currentPos, b, off, n);
+        currentPos += n;
+        return n;
+    }
+
+    @Nullable
+    private synchronized byte[] nextChunk() throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        while (true) {
+            if (failure != null) {
+                throw new IOException(failure.getMessage(), failure);
+            }
+            if (closed) {
+                throw new IOException("Pipe " + uri + " is closed");
+            }
+            byte[] chunk = chunks.poll();
+            if (chunk != null) {
+                bufferedBytes -= chunk.length;
+                if (pausedProducer != null && bufferedBytes <= maxBufferedBytes / 2) {
+                    resumeProducer();
+                }
+                return chunk;
+            }
+            if (finished) {
+                return null;
+            }
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                fail(new TimeoutException(
+                    "No data received for " + uri + " within " + idleTimeoutMillis + "ms"));
+                continue;
+            }
+            try {
+                wait(remainingMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for data of " + uri);
+            }
+        }
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - currentPos;
+    }
+
+    /**
+     * Closes the reading side; data which is written afterwards is dropped.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        discardChunks();
+        notifyAll();
+    }
+
+    private void discardChunks() {
+        chunks.clear();
+        bufferedBytes = 0;
+        if (pausedProducer != null) {
+            resumeProducer();
+        }
+    }
+
+    private void resumeProducer() {
+        Consumer<Boolean> producer = pausedProducer;
+        pausedProducer = null;
+        producer.accept(true);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.TimeValue;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the {@link PipeInputStream}s of this node.
+ * <p>
+ * A pipe is addressed by an uri with the {@link #SCHEME} scheme which can be used as source of a {@code COPY FROM}
+ * that is executed on this node, e.g. to import data which is sent by a client over the connection of the statement.
+ */
+@Singleton
+public class Pipes {
+
+    public static final String SCHEME = "pipe";
+
+    private static final long MAX_BUFFERED_BYTES = ByteSizeUnit.MB.toBytes(8);
+
+    /**
+     * Time after which a read of a pipe for which the client didn't send any data fails,
+     * so that a stalled client doesn't block the reading thread forever.
+     */
+    private static final long IDLE_TIMEOUT_MILLIS = TimeValue.timeValueSeconds(60).millis();
+
+    private final ConcurrentMap<URI, PipeInputStream> pipes = new ConcurrentHashMap<>();
+
+    public PipeInputStream create() {
+        URI uri = URI.create(SCHEME + ":///" + UUID.randomUUID().toString());
+        PipeInputStream pipe = new PipeInputStream(uri, MAX_BUFFERED_BYTES, IDLE_TIMEOUT_MILLIS);
+        pipes.put(uri, pipe);
+        return pipe;
+    }
+
+    @Nullable
+    public PipeInputStream get(URI uri) {
+        return pipes.get(uri);
+    }
+
+    /**
+     * Closes and unregisters the pipe
+     */
+    public void remove(PipeInputStream pipe) {
+        pipes.remove(pipe.uri());
+        pipe.close();
+    }
+}
@@ -22,6 +22,7 @@
 package io.crate.operation.collect.files;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
@@ -33,7 +34,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
 public class S3FileInput implements FileInput {
@@ -43,6 +46,12 @@ public class S3FileInput implements FileInput {
 
     final S3ClientHelper clientBuilder;
 
+    /**
+     * The sizes of the objects returned by {@link #listUris(URI, Predicate)}, so that {@link #size(URI)}
+     * doesn't need to request the metadata of each object.
+     */
+    private final Map<URI, Long> sizes = new HashMap<>();
+
     public S3FileInput() {
         clientBuilder = new S3ClientHelper();
     }
@@ -77,6 +86,7 @@ public class S3FileInput implements FileInput {
                 URI keyUri = uri.resolve("/" + key);
                 if (uriPredicate.test(keyUri)) {
                     uris.add(keyUri);
+                    sizes.put(keyUri, summary.getSize());
                     if (logger.isDebugEnabled()) {
                         logger.debug("{}", keyUri);
                     }
@@ -98,6 +108,35 @@ public class S3FileInput implements FileInput {
         return null;
     }
 
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        if (position <= 0) {
+            return getStream(uri);
+        }
+        if (client == null) {
+            client = clientBuilder.client(uri);
+        }
+        GetObjectRequest request = new GetObjectRequest(uri.getHost(), uri.getPath().substring(1))
+            .withRange(position, Long.MAX_VALUE - 1);
+        S3Object object = client.getObject(request);
+        if (object != null) {
+            return object.getObjectContent();
+        }
+        return null;
+    }
+
+    @Override
+    public long size(URI uri) throws IOException {
+        Long size = sizes.get(uri);
+        if (size != null) {
+            return size;
+        }
+        if (client == null) {
+            client = clientBuilder.client(uri);
+        }
+        return client.getObjectMetadata(uri.getHost(), uri.getPath().substring(1)).getContentLength();
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return true;
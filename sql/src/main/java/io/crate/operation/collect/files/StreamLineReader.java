@@ -0,0 +1,132 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * {@link LineReader} for any InputStream, e.g. of compressed or remote files.
+ */
+class StreamLineReader implements LineReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPos = 0;
+    private int bufferLimit = 0;
+
+    private long position;
+
+    // lines which are completely contained in the buffer are copied from there, other lines are assembled in line
+    private boolean lineInBuffer = false;
+    private int lineOffset = 0;
+    private byte[] line = new byte[256];
+    private int lineLength = 0;
+
+    /**
+     * @param in       the stream to read from
+     * @param position the position of the first byte of {@code in} within the file
+     */
+    StreamLineReader(InputStream in, long position) {
+        this.in = in;
+        this.position = position;
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public boolean readLine() throws IOException {
+        lineInBuffer = false;
+        lineLength = 0;
+        long consumed = 0;
+        while (true) {
+            if (bufferPos == bufferLimit) {
+                int read = in.read(buffer, 0, buffer.length);
+                if (read == -1) {
+                    position += consumed;
+                    return consumed > 0;
+                }
+                bufferPos = 0;
+                bufferLimit = read;
+            }
+            int start = bufferPos;
+            int end = start;
+            while (end < bufferLimit && buffer[end] != '\n') {
+                end++;
+            }
+            if (end < bufferLimit) {
+                bufferPos = end + 1;
+                position += consumed + end - start + 1;
+                if (consumed == 0) {
+                    lineInBuffer = true;
+                    lineOffset = start;
+                    lineLength = end - start;
+                    if (lineLength > 0 && buffer[end - 1] == '\r') {
+                        lineLength--;
+                    }
+                } else {
+                    append(start, end - start);
+                    if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                        lineLength--;
+                    }
+                }
+                return true;
+            }
+            append(start, end - start);
+            consumed += end - start;
+            bufferPos = bufferLimit;
+        }
+    }
+
+    private void append(int offset, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(buffer, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    @Override
+    public byte[] line() {
+        if (lineInBuffer) {
+            return Arrays.copyOfRange(buffer, lineOffset, lineOffset + lineLength);
+        }
+        return Arrays.copyOf(line, lineLength);
+    }
+
+    @Override
+    public int lineLength() {
+        return lineLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -34,6 +34,7 @@ import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.collect.files.FileInputFactory;
 import io.crate.operation.collect.files.FileReadingIterator;
 import io.crate.operation.collect.files.LineCollectorExpression;
+import io.crate.operation.reference.file.CSVLineParser;
 import io.crate.operation.reference.file.FileLineReferenceResolver;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.FileUriCollectPhase;
@@ -75,6 +76,11 @@ public class FileCollectSource implements CollectSource {
 
         List<String> fileUris;
         fileUris = targetUriToStringList(fileUriCollectPhase.targetUri());
+        CSVLineParser csvParser = null;
+        if (fileUriCollectPhase.inputFormat() == FileUriCollectPhase.InputFormat.CSV) {
+            csvParser = new CSVLineParser(
+                fileUriCollectPhase.csvDelimiter(), fileUriCollectPhase.csvQuote(), fileUriCollectPhase.columnTypes());
+        }
         BatchIterator fileReadingIterator = FileReadingIterator.newInstance(
             fileUris,
             ctx.topLevelInputs(),
@@ -83,7 +89,8 @@ public class FileCollectSource implements CollectSource {
             fileInputFactoryMap,
             fileUriCollectPhase.sharedStorage(),
             readers.length,
-            Arrays.binarySearch(readers, clusterService.state().nodes().getLocalNodeId())
+            Arrays.binarySearch(readers, clusterService.state().nodes().getLocalNodeId()),
+            csvParser
         );
 
         return BatchIteratorCollectorBridge.newInstance(fileReadingIterator, consumer);
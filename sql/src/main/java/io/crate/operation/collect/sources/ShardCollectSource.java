@@ -30,10 +30,12 @@ import io.crate.analyze.OrderBy;
 import io.crate.analyze.symbol.Symbols;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.blob.v2.BlobShard;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.AsyncCompositeBatchIterator;
 import io.crate.data.BatchConsumer;
 import io.crate.data.BatchIterator;
 import io.crate.data.Buckets;
+import io.crate.data.CollectingBatchIterator;
 import io.crate.data.CompositeBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowsBatchIterator;
@@ -60,6 +62,7 @@ import io.crate.operation.collect.ShardCollectorProvider;
 import io.crate.operation.collect.collectors.CompositeCollector;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
 import io.crate.operation.collect.collectors.OrderedLuceneBatchIteratorFactory;
+import io.crate.operation.projectors.CollectingProjector;
 import io.crate.operation.projectors.ProjectingBatchConsumer;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
@@ -70,6 +73,9 @@ import io.crate.operation.reference.sys.node.local.NodeSysReferenceResolver;
 import io.crate.planner.consumer.OrderByPositionVisitor;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.RoutedCollectPhase;
+import io.crate.planner.projection.AggregationProjection;
+import io.crate.planner.projection.GroupProjection;
+import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.Projections;
 import io.crate.plugin.IndexEventListenerProxy;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
@@ -95,11 +101,14 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.function.Supplier;
+import java.util.stream.Collector;
 
 import static io.crate.blob.v2.BlobIndex.isBlobIndex;
 
@@ -150,6 +159,10 @@ import static io.crate.blob.v2.BlobIndex.isBlobIndex;
  *                       nodeConsumer // consumes the compositeBatchIterator
  *
  * </pre>
+ * <p>
+ * If the only shard projection is a grouping or aggregation, it is not applied per shard. Instead the rows of each
+ * shard are consumed concurrently into a state of their own by a {@link CollectingBatchIterator}, and the states are
+ * merged before the rows are passed on. That way the node emits a single partial result instead of one per shard.
  */
 @Singleton
 public class ShardCollectSource extends AbstractComponent implements CollectSource {
@@ -330,15 +343,30 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         // actual shards might be less if table is partitioned and a partition has been deleted meanwhile
         final int maxNumShards = normalizedPhase.routing().numShards(localNodeId);
         boolean hasShardProjections = Projections.hasAnyShardProjections(normalizedPhase.projections());
+        Projection mergeableShardProjection = maxNumShards > 1
+            ? mergeableShardProjection(Projections.shardProjections(normalizedPhase.projections()))
+            : null;
+        RoutedCollectPhase shardsPhase = mergeableShardProjection == null
+            ? normalizedPhase
+            : withoutShardProjections(normalizedPhase);
         Map<String, Map<String, List<Integer>>> locations = normalizedPhase.routing().locations();
         final List<CrateCollector.Builder> builders = new ArrayList<>(maxNumShards);
 
         Map<String, List<Integer>> indexShards = locations.get(localNodeId);
         if (indexShards != null) {
             builders.addAll(
-                getDocCollectors(jobCollectContext, normalizedPhase, lastConsumer.requiresScroll(), indexShards));
+                getDocCollectors(jobCollectContext, shardsPhase, lastConsumer.requiresScroll(), indexShards));
         }
 
+        if (mergeableShardProjection != null && !builders.isEmpty()) {
+            return createMergingCollector(
+                builders,
+                firstConsumer,
+                mergeableShardProjection,
+                normalizedPhase.jobId(),
+                jobCollectContext.queryPhaseRamAccountingContext()
+            );
+        }
         switch (builders.size()) {
             case 0:
                 return RowsCollector.empty(firstConsumer, phase.toCollect().size());
@@ -360,6 +388,76 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         }
     }
 
+    /**
+     * @return the shard projection if it's the only one and consumes all rows of a shard into the state of a
+     *         collector, which can be merged with the states of the other shards. Otherwise null.
+     */
+    @Nullable
+    private static Projection mergeableShardProjection(Collection<? extends Projection> shardProjections) {
+        if (shardProjections.size() != 1) {
+            return null;
+        }
+        Projection projection = shardProjections.iterator().next();
+        if (projection instanceof GroupProjection || projection instanceof AggregationProjection) {
+            return projection;
+        }
+        return null;
+    }
+
+    private static RoutedCollectPhase withoutShardProjections(RoutedCollectPhase phase) {
+        RoutedCollectPhase result = new RoutedCollectPhase(
+            phase.jobId(),
+            phase.phaseId(),
+            phase.name(),
+            phase.routing(),
+            phase.maxRowGranularity(),
+            phase.toCollect(),
+            new ArrayList<>(Projections.nodeProjections(phase.projections())),
+            phase.whereClause(),
+            phase.distributionInfo(),
+            phase.user()
+        );
+        result.nodePageSizeHint(phase.nodePageSizeHint());
+        return result;
+    }
+
+    /**
+     * Creates a collector which consumes the rows of each shard into its own state, concurrently on the search
+     * executor. Once all shards are consumed their states are merged, so that the node emits the rows of a single
+     * state instead of the rows of each shard.
+     */
+    private CrateCollector createMergingCollector(List<CrateCollector.Builder> builders,
+                                                  BatchConsumer firstConsumer,
+                                                  Projection shardProjection,
+                                                  UUID jobId,
+                                                  RamAccountingContext ramAccountingContext) {
+        if (builders.size() == 1) {
+            return builders.get(0).build(ProjectingBatchConsumer.create(
+                firstConsumer,
+                Collections.singletonList(shardProjection),
+                jobId,
+                ramAccountingContext,
+                sharedProjectorFactory
+            ));
+        }
+        List<CollectingProjector> projectors = new ArrayList<>(builders.size());
+        for (int i = 0; i < builders.size(); i++) {
+            projectors.add((CollectingProjector) sharedProjectorFactory.create(
+                shardProjection, ramAccountingContext, jobId));
+        }
+        List<Collector<Row, Object, ? extends Iterable<Row>>> collectors = new ArrayList<>(projectors.size());
+        for (CollectingProjector projector : projectors) {
+            //noinspection unchecked
+            collectors.add((Collector<Row, Object, ? extends Iterable<Row>>) projector.collector());
+        }
+        return new CompositeCollector(
+            builders,
+            firstConsumer,
+            iterators -> CollectingBatchIterator.newInstance(
+                executor, iterators, collectors, projectors.get(0).numOutputs())
+        );
+    }
+
     private CrateCollector createMultiShardScoreDocCollector(RoutedCollectPhase collectPhase,
                                                              BatchConsumer consumer,
                                                              JobCollectContext jobCollectContext,
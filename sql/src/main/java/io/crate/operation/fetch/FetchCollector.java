@@ -26,17 +26,25 @@ import com.carrotsearch.hppc.IntContainer;
 import com.carrotsearch.hppc.cursors.IntCursor;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccounting;
+import io.crate.data.RowN;
 import io.crate.executor.transport.StreamBucket;
 import io.crate.operation.InputRow;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 class FetchCollector {
@@ -48,18 +56,24 @@ class FetchCollector {
     private final Streamer<?>[] streamers;
     private final List<LeafReaderContext> readerContexts;
     private final RamAccountingContext ramAccountingContext;
+    private final RowAccounting rowAccounting;
+
+    @Nullable
+    private StoredFieldsReader storedFieldsReader;
 
     FetchCollector(List<LuceneCollectorExpression<?>> collectorExpressions,
                    Streamer<?>[] streamers,
                    Engine.Searcher searcher,
                    IndexFieldDataService indexFieldDataService,
                    RamAccountingContext ramAccountingContext,
+                   RowAccounting rowAccounting,
                    int readerId) {
         // use toArray to avoid iterator allocations in docIds loop
         this.collectorExpressions = collectorExpressions.toArray(new LuceneCollectorExpression[0]);
         this.streamers = streamers;
         this.readerContexts = searcher.searcher().getIndexReader().leaves();
         this.ramAccountingContext = ramAccountingContext;
+        this.rowAccounting = rowAccounting;
         this.fieldsVisitor = new CollectorFieldsVisitor(this.collectorExpressions.length);
         CollectorContext collectorContext = new CollectorContext(indexFieldDataService, fieldsVisitor, readerId);
         for (LuceneCollectorExpression<?> collectorExpression : this.collectorExpressions) {
@@ -73,23 +87,108 @@ class FetchCollector {
     private void setNextDocId(LeafReaderContext readerContext, int doc) throws IOException {
         if (visitorEnabled) {
             fieldsVisitor.reset();
-            readerContext.reader().document(doc, fieldsVisitor);
+            if (storedFieldsReader == null) {
+                readerContext.reader().document(doc, fieldsVisitor);
+            } else {
+                storedFieldsReader.visitDocument(doc, fieldsVisitor);
+            }
         }
         for (LuceneCollectorExpression e : collectorExpressions) {
-            e.setNextReader(readerContext);
             e.setNextDocId(doc);
         }
     }
 
+    private void setNextReader(LeafReaderContext readerContext) throws IOException {
+        if (visitorEnabled) {
+            storedFieldsReader = sequentialStoredFieldsReader(readerContext.reader());
+        }
+        for (LuceneCollectorExpression e : collectorExpressions) {
+            e.setNextReader(readerContext);
+        }
+    }
+
+    /**
+     * Fetches the given docIds.
+     * The docs are read ordered by docId (so segment by segment and sequentially within a segment),
+     * but the rows of the resulting bucket are in the same order as the docIds within the container.
+     * <p>
+     * If the docIds are already sorted the rows are written to the bucket directly; otherwise they are
+     * materialized until all docs have been read, and accounted for until they've been copied into the bucket,
+     * which accounts for them on its own.
+     */
     public StreamBucket collect(IntContainer docIds) throws IOException {
         StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccountingContext);
-        for (IntCursor cursor : docIds) {
-            int docId = cursor.value;
-            int readerIndex = ReaderUtil.subIndex(docId, readerContexts);
-            LeafReaderContext subReaderContext = readerContexts.get(readerIndex);
+        long[] sortedDocIdsWithPos = sortedDocIdsWithPositions(docIds);
+        Object[][] rows = isInContainerOrder(sortedDocIdsWithPos) ? null : new Object[sortedDocIdsWithPos.length][];
+
+        long heldBytes = 0;
+        LeafReaderContext subReaderContext = null;
+        int subReaderEnd = -1;
+        for (long docIdWithPos : sortedDocIdsWithPos) {
+            int docId = (int) (docIdWithPos >>> 32);
+            if (docId >= subReaderEnd) {
+                subReaderContext = readerContexts.get(ReaderUtil.subIndex(docId, readerContexts));
+                subReaderEnd = subReaderContext.docBase + subReaderContext.reader().maxDoc();
+                setNextReader(subReaderContext);
+            }
             setNextDocId(subReaderContext, docId - subReaderContext.docBase);
-            builder.add(row);
+            if (rows == null) {
+                builder.add(row);
+            } else {
+                heldBytes += rowAccounting.accountForAndMaybeBreak(row);
+                rows[(int) docIdWithPos] = row.materialize();
+            }
+        }
+        if (rows == null) {
+            return builder.build();
         }
+        RowN rowN = new RowN(row.numColumns());
+        for (Object[] cells : rows) {
+            rowN.cells(cells);
+            builder.add(rowN);
+        }
+        ramAccountingContext.addBytesWithoutBreaking(-heldBytes);
         return builder.build();
     }
+
+    /**
+     * Returns a stored fields reader dedicated to this fetch request.
+     * Unlike {@link LeafReader#document(int, org.apache.lucene.index.StoredFieldVisitor)}, which goes through a
+     * thread-local reader per document, the merge instance is optimized for sequential access and keeps the state
+     * of the currently decompressed block between documents, which pays off because the docs are read sorted by docId.
+     */
+    @Nullable
+    private static StoredFieldsReader sequentialStoredFieldsReader(LeafReader reader) {
+        LeafReader unwrapped = FilterLeafReader.unwrap(reader);
+        if (unwrapped instanceof CodecReader) {
+            return ((CodecReader) unwrapped).getFieldsReader().getMergeInstance();
+        }
+        return null;
+    }
+
+    /**
+     * @return the docIds in the upper and their position within the container in the lower 32 bits, sorted by docId
+     */
+    private static long[] sortedDocIdsWithPositions(IntContainer docIds) {
+        long[] docIdsWithPos = new long[docIds.size()];
+        int pos = 0;
+        for (IntCursor cursor : docIds) {
+            docIdsWithPos[pos] = ((long) cursor.value << 32) | pos;
+            pos++;
+        }
+        Arrays.sort(docIdsWithPos);
+        return docIdsWithPos;
+    }
+
+    /**
+     * @return true if the sort by docId kept the positions of the container, so the rows can be written as read
+     */
+    private static boolean isInContainerOrder(long[] sortedDocIdsWithPos) {
+        for (int i = 0; i < sortedDocIdsWithPos.length; i++) {
+            if ((int) sortedDocIdsWithPos[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
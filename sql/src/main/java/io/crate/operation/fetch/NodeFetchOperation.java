@@ -28,6 +28,7 @@ import com.carrotsearch.hppc.cursors.IntObjectCursor;
 import io.crate.Streamer;
 import io.crate.analyze.symbol.Symbols;
 import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccounting;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.executor.transport.StreamBucket;
 import io.crate.jobs.JobContextService;
@@ -37,6 +38,7 @@ import io.crate.metadata.TableIdent;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.operation.reference.doc.lucene.LuceneReferenceResolver;
+import io.crate.types.DataType;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.IndexService;
@@ -45,6 +47,7 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -65,12 +68,17 @@ public class NodeFetchOperation {
 
         private final Streamer<?>[] streamers;
         private final Collection<Reference> refs;
+        private final List<DataType> types;
         private final FetchContext fetchContext;
 
         TableFetchInfo(Collection<Reference> refs, FetchContext fetchContext) {
             this.refs = refs;
             this.fetchContext = fetchContext;
             this.streamers = Symbols.streamerArray(refs);
+            this.types = new ArrayList<>(refs.size());
+            for (Reference ref : refs) {
+                types.add(ref.valueType());
+            }
         }
 
         FetchCollector createCollector(int readerId, RamAccountingContext ramAccountingContext) {
@@ -79,7 +87,8 @@ public class NodeFetchOperation {
                 indexService.mapperService()::fullName, indexService.getIndexSettings());
             ArrayList<LuceneCollectorExpression<?>> exprs = new ArrayList<>(refs.size());
             for (Reference reference : refs) {
-                exprs.add(resolver.getImplementation(reference));
+                // columns with doc values don't need the _source to be loaded and parsed
+                exprs.add(resolver.getImplementation(resolver.preferDocValues(reference)));
             }
             return new FetchCollector(
                 exprs,
@@ -87,6 +96,7 @@ public class NodeFetchOperation {
                 fetchContext.searcher(readerId),
                 indexService.fieldData(),
                 ramAccountingContext,
+                new RowAccounting(types, ramAccountingContext),
                 readerId
             );
         }
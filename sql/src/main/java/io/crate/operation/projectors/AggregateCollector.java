@@ -92,9 +92,7 @@ public class AggregateCollector implements Collector<Row, Object[], Object[]> {
 
     @Override
     public BinaryOperator<Object[]> combiner() {
-        return (state1, state2) -> {
-            throw new UnsupportedOperationException("combine not supported");
-        };
+        return this::mergeStates;
     }
 
     @Override
@@ -129,6 +127,13 @@ public class AggregateCollector implements Collector<Row, Object[], Object[]> {
         }
     }
 
+    private Object[] mergeStates(Object[] state1, Object[] state2) {
+        for (int i = 0; i < aggregations.length; i++) {
+            state1[i] = aggregations[i].reduce(ramAccounting, state1[i], state2[i]);
+        }
+        return state1;
+    }
+
     private Object[] finishCollect(Object[] state) {
         for (int i = 0; i < aggregations.length; i++) {
             state[i] = aggregations[i].terminatePartial(ramAccounting, state[i]);
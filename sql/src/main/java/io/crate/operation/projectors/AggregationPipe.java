@@ -26,7 +26,6 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
-import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.operation.AggregationContext;
@@ -35,11 +34,12 @@ import io.crate.operation.collect.CollectExpression;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
-public class AggregationPipe implements Projector {
+public class AggregationPipe implements CollectingProjector {
 
-    private final AggregateCollector collector;
+    private final Collector<Row, Object[], List<Row>> collector;
     private final int numAggregations;
 
     public AggregationPipe(List<CollectExpression<Row, ?>> expressions,
@@ -54,22 +54,30 @@ public class AggregationPipe implements Projector {
             functions[i] = aggregation.function();
             inputs[i] = aggregation.inputs();
         }
-        collector = new AggregateCollector(
-            expressions,
-            ramAccountingContext,
-            aggregateMode,
-            functions,
-            inputs
-        );
+        collector = Collectors.collectingAndThen(
+            new AggregateCollector(
+                expressions,
+                ramAccountingContext,
+                aggregateMode,
+                functions,
+                inputs
+            ),
+            cells -> Collections.singletonList(new RowN(cells)));
     }
 
     @Override
     public BatchIterator apply(BatchIterator batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator,
-            Collectors.collectingAndThen(
-                collector,
-                cells -> Collections.singletonList(new RowN(cells))),
-            numAggregations);
+        return CollectingBatchIterator.newInstance(batchIterator, collector, numAggregations);
+    }
+
+    @Override
+    public Collector<Row, ?, ? extends Iterable<Row>> collector() {
+        return collector;
+    }
+
+    @Override
+    public int numOutputs() {
+        return numAggregations;
     }
 
     @Override
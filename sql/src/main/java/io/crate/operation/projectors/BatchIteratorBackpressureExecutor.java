@@ -54,7 +54,8 @@ public class BatchIteratorBackpressureExecutor<R> {
     private final Supplier<CompletableFuture<R>> executeFunction;
     private final Consumer<Row> onRowConsumer;
     private final ScheduledExecutorService scheduler;
-    private final Iterator<TimeValue> throttleDelay;
+    private final BackoffPolicy backoffPolicy;
+    private Iterator<TimeValue> throttleDelay;
     private final BooleanSupplier pauseConsumption;
     private final BiConsumer<Object, Throwable> continueConsumptionOrFinish;
     private final int bulkSize;
@@ -78,6 +79,7 @@ public class BatchIteratorBackpressureExecutor<R> {
         this.executeFunction = executeFunction;
         this.pauseConsumption = pauseConsumption;
         this.bulkSize = bulkSize;
+        this.backoffPolicy = backoffPolicy;
         this.throttleDelay = backoffPolicy.iterator();
         this.continueConsumptionOrFinish = this::continueConsumptionOrFinish;
     }
@@ -174,6 +176,10 @@ public class BatchIteratorBackpressureExecutor<R> {
             scheduler.schedule(this::resumeConsumption, throttleDelay.next().getMillis(), TimeUnit.MILLISECONDS);
             return;
         }
+        // The pressure is gone, start with the shortest delay again the next time consumption is suspended.
+        // Otherwise the delay would only grow during the execution and consumption would be resumed slowly.
+        throttleDelay = backoffPolicy.iterator();
+
         // Suspend happened once a batch was ready, so execute it now.
         // consumeIterator would otherwise move past the indexInBulk == bulkSize check and end up building a huge batch
         executeBatch();
@@ -0,0 +1,42 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.data.Projector;
+import io.crate.data.Row;
+
+import java.util.stream.Collector;
+
+/**
+ * A projector which consumes all rows of the source BatchIterator using a {@link Collector} before it emits the rows
+ * of the result.
+ * <p>
+ * The states of the collectors of several projectors which have been created for the same projection can be merged
+ * using the combiner, so that several sources can be consumed concurrently, each by its own projector.
+ */
+public interface CollectingProjector extends Projector {
+
+    Collector<Row, ?, ? extends Iterable<Row>> collector();
+
+    int numOutputs();
+}
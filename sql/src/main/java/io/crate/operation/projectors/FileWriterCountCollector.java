@@ -23,6 +23,7 @@
 package io.crate.operation.projectors;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.CountingOutputStream;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
@@ -31,11 +32,14 @@ import io.crate.exceptions.UnhandledServerException;
 import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.metadata.ColumnIdent;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.projectors.writer.LeveledGZIPOutputStream;
 import io.crate.operation.projectors.writer.Output;
 import io.crate.operation.projectors.writer.OutputFile;
 import io.crate.operation.projectors.writer.OutputS3;
+import io.crate.operation.projectors.writer.ParallelGZIPOutputStream;
 import io.crate.planner.projection.WriterProjection;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
@@ -45,6 +49,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -58,6 +63,7 @@ import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
+import java.util.zip.Deflater;
 
 /**
  * Collector implementation which writes the rows to the configured {@link Output}
@@ -75,37 +81,77 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     private final List<String> outputNames;
     private final WriterProjection.OutputFormat outputFormat;
     private final WriterProjection.CompressionType compressionType;
-    private Output output;
-
-    private final RowWriter rowWriter;
-
+    private final int compressionLevel;
+    private final int compressionThreads;
+    private final long maxFileSize;
+    private final ExecutorService executorService;
+
+    private int part = 0;
+    private CountingOutputStream countingStream;
+    private RowWriter rowWriter;
+
+    /**
+     * @param compressionLevel   the gzip compression level or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param compressionThreads number of blocks which are compressed concurrently using {@code executorService}.
+     *                           If 1 the output is compressed by the thread writing the rows.
+     * @param maxFileSize        the (uncompressed) number of bytes after which the output is continued in a new file,
+     *                           or -1 to write all rows into one file.
+     */
     public FileWriterCountCollector(ExecutorService executorService,
                                     String uri,
                                     @Nullable WriterProjection.CompressionType compressionType,
+                                    int compressionLevel,
+                                    int compressionThreads,
+                                    long maxFileSize,
                                     @Nullable List<Input<?>> inputs,
                                     Iterable<CollectExpression<Row, ?>> collectExpressions,
                                     Map<ColumnIdent, Object> overwrites,
                                     @Nullable List<String> outputNames,
                                     WriterProjection.OutputFormat outputFormat) {
+        this.executorService = executorService;
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
         this.overwrites = toNestedStringObjectMap(overwrites);
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
         this.compressionType = compressionType;
+        this.compressionLevel = compressionLevel;
+        this.compressionThreads = compressionThreads;
+        this.maxFileSize = maxFileSize;
         try {
             this.uri = new URI(uri);
         } catch (URISyntaxException e) {
             throw new SQLParseException(String.format(Locale.ENGLISH, "Invalid uri '%s'", uri), e);
         }
-        if (this.uri.getScheme() == null || this.uri.getScheme().equals("file")) {
-            this.output = new OutputFile(this.uri, this.compressionType);
-        } else if (this.uri.getScheme().equalsIgnoreCase("s3")) {
-            this.output = new OutputS3(executorService, this.uri, this.compressionType);
+        this.rowWriter = initWriter(createOutput(this.uri));
+    }
+
+    private Output createOutput(URI uri) {
+        if (uri.getScheme() == null || uri.getScheme().equals("file")) {
+            return new OutputFile(uri);
+        } else if (uri.getScheme().equalsIgnoreCase("s3")) {
+            return new OutputS3(executorService, uri);
         } else {
-            throw new UnsupportedFeatureException(String.format(Locale.ENGLISH, "Unknown scheme '%s'", this.uri.getScheme()));
+            throw new UnsupportedFeatureException(String.format(Locale.ENGLISH, "Unknown scheme '%s'", uri.getScheme()));
+        }
+    }
+
+    /**
+     * @return the uri of the n-th file of the output. The part number is inserted before the file extension,
+     *         e.g. {@code /tmp/doc_0_.json.gz} becomes {@code /tmp/doc_0_.1.json.gz}
+     */
+    @VisibleForTesting
+    static URI partUri(URI uri, int part) {
+        if (part == 0) {
+            return uri;
         }
-        this.rowWriter = initWriter();
+        String uriString = uri.toString();
+        int fileNameStart = uriString.lastIndexOf('/') + 1;
+        int extensionStart = uriString.indexOf('.', fileNameStart);
+        if (extensionStart == -1) {
+            extensionStart = uriString.length();
+        }
+        return URI.create(uriString.substring(0, extensionStart) + "." + part + uriString.substring(extensionStart));
     }
 
     @VisibleForTesting
@@ -146,30 +192,45 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         return nestedMap;
     }
 
-    private RowWriter initWriter() {
+    private RowWriter initWriter(Output output) {
         try {
+            // bytes are counted before compression, so that the size of the files doesn't depend on the buffering
+            // of the compression
+            countingStream = new CountingOutputStream(compress(output.acquireOutputStream()));
+            OutputStream outputStream = countingStream;
             if (!overwrites.isEmpty()) {
                 return new DocWriter(
-                    output.acquireOutputStream(), collectExpressions, overwrites);
+                    outputStream, collectExpressions, overwrites);
             } else if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
-                return new ColumnRowWriter(output.acquireOutputStream(), collectExpressions, inputs);
+                return new ColumnRowWriter(outputStream, collectExpressions, inputs);
+            } else if (outputFormat.equals(WriterProjection.OutputFormat.CSV)) {
+                return new CsvRowWriter(outputStream, collectExpressions, inputs, outputNames);
             } else if (outputNames != null && outputFormat.equals(WriterProjection.OutputFormat.JSON_OBJECT)) {
-                return new ColumnRowObjectWriter(output.acquireOutputStream(), collectExpressions, inputs, outputNames);
+                return new ColumnRowObjectWriter(outputStream, collectExpressions, inputs, outputNames);
             } else {
-                return new RawRowWriter(output.acquireOutputStream());
+                return new RawRowWriter(outputStream);
             }
         } catch (IOException e) {
             throw new UnhandledServerException(String.format(Locale.ENGLISH, "Failed to open output: '%s'", e.getMessage()), e);
         }
     }
 
-    private void closeWriterAndOutput() {
-        try {
-            if (rowWriter != null) {
-                rowWriter.close();
-            }
-        } catch (IOException ignored) {
+    private OutputStream compress(OutputStream outputStream) throws IOException {
+        if (compressionType == null) {
+            return outputStream;
+        }
+        if (compressionThreads > 1) {
+            return new ParallelGZIPOutputStream(outputStream, executorService, compressionLevel, compressionThreads);
+        }
+        return new LeveledGZIPOutputStream(outputStream, compressionLevel);
+    }
 
+    private void closeWriter() {
+        try {
+            rowWriter.close();
+        } catch (IOException e) {
+            // with compression the remaining data is only written on close
+            throw new UnhandledServerException("Failed to close output", e);
         }
     }
 
@@ -184,6 +245,12 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     }
 
     private void onNextRow(long[] container, Row row) {
+        if (maxFileSize > 0 && countingStream.getCount() >= maxFileSize) {
+            // continue in the next file; this is only done once there is another row, to not create empty files
+            closeWriter();
+            part++;
+            rowWriter = initWriter(createOutput(partUri(uri, part)));
+        }
         rowWriter.write(row);
         container[0] += 1;
     }
@@ -198,7 +265,7 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     @Override
     public Function<long[], Iterable<Row>> finisher() {
         return (container) -> {
-            closeWriterAndOutput();
+            closeWriter();
             return Collections.singletonList(new Row1(container[0]));
         };
     }
@@ -323,6 +390,103 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         }
     }
 
+    /**
+     * Writes the inputs as comma separated values, preceded by a header line with the output names.
+     * Values which contain a comma, quote or line break are quoted, as well as empty strings to distinguish
+     * them from null. Objects and arrays are written as JSON.
+     */
+    static class CsvRowWriter implements RowWriter {
+
+        private static final byte DELIMITER = (byte) ',';
+        private static final byte QUOTE = (byte) '"';
+
+        private final OutputStream outputStream;
+        private final Iterable<CollectExpression<Row, ?>> collectExpressions;
+        private final List<Input<?>> inputs;
+        private final BytesStreamOutput line = new BytesStreamOutput();
+
+        CsvRowWriter(OutputStream outputStream,
+                     Iterable<CollectExpression<Row, ?>> collectExpressions,
+                     List<Input<?>> inputs,
+                     List<String> outputNames) throws IOException {
+            this.outputStream = outputStream;
+            this.collectExpressions = collectExpressions;
+            this.inputs = inputs;
+            for (int i = 0; i < outputNames.size(); i++) {
+                if (i > 0) {
+                    line.writeByte(DELIMITER);
+                }
+                writeField(new BytesRef(outputNames.get(i)));
+            }
+            writeLine();
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            try {
+                for (int i = 0; i < inputs.size(); i++) {
+                    if (i > 0) {
+                        line.writeByte(DELIMITER);
+                    }
+                    writeValue(inputs.get(i).value());
+                }
+                writeLine();
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        private void writeLine() throws IOException {
+            line.writeByte(NEW_LINE);
+            line.bytes().writeTo(outputStream);
+            line.reset();
+        }
+
+        private void writeValue(@Nullable Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value instanceof BytesRef) {
+                writeField((BytesRef) value);
+            } else if (value instanceof String) {
+                writeField(new BytesRef((String) value));
+            } else if (value instanceof Number || value instanceof Boolean) {
+                line.writeBytes(value.toString().getBytes(StandardCharsets.US_ASCII));
+            } else {
+                XContentBuilder builder = XContentFactory.jsonBuilder().value(value);
+                writeField(builder.bytes().toBytesRef());
+            }
+        }
+
+        private void writeField(BytesRef value) throws IOException {
+            boolean needsQuotes = value.length == 0;
+            for (int i = value.offset; i < value.offset + value.length && !needsQuotes; i++) {
+                byte b = value.bytes[i];
+                needsQuotes = b == DELIMITER || b == QUOTE || b == NEW_LINE || b == '\r';
+            }
+            if (!needsQuotes) {
+                line.writeBytes(value.bytes, value.offset, value.length);
+                return;
+            }
+            line.writeByte(QUOTE);
+            for (int i = value.offset; i < value.offset + value.length; i++) {
+                if (value.bytes[i] == QUOTE) {
+                    line.writeByte(QUOTE);
+                }
+                line.writeByte(value.bytes[i]);
+            }
+            line.writeByte(QUOTE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.close();
+        }
+    }
+
     static class ColumnRowObjectWriter extends ColumnRowWriter {
 
         private final List<String> outputNames;
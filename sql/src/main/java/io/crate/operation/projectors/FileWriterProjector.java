@@ -34,6 +34,7 @@ import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
 
 public class FileWriterProjector implements Projector {
 
@@ -45,6 +46,9 @@ public class FileWriterProjector implements Projector {
     private final List<String> outputNames;
     private final WriterProjection.OutputFormat outputFormat;
     private final WriterProjection.CompressionType compressionType;
+    private final int compressionLevel;
+    private final int compressionThreads;
+    private final long maxFileSize;
     private final ExecutorService executorService;
 
     /**
@@ -63,6 +67,24 @@ public class FileWriterProjector implements Projector {
                                Map<ColumnIdent, Object> overwrites,
                                @Nullable List<String> outputNames,
                                WriterProjection.OutputFormat outputFormat) {
+        this(executorService, uri, compressionType, Deflater.DEFAULT_COMPRESSION, 1, -1L, inputs, collectExpressions,
+            overwrites, outputNames, outputFormat);
+    }
+
+    /**
+     * See {@link FileWriterCountCollector} for the compression and file size parameters.
+     */
+    public FileWriterProjector(ExecutorService executorService,
+                               String uri,
+                               @Nullable WriterProjection.CompressionType compressionType,
+                               int compressionLevel,
+                               int compressionThreads,
+                               long maxFileSize,
+                               @Nullable List<Input<?>> inputs,
+                               Iterable<CollectExpression<Row, ?>> collectExpressions,
+                               Map<ColumnIdent, Object> overwrites,
+                               @Nullable List<String> outputNames,
+                               WriterProjection.OutputFormat outputFormat) {
         this.collectExpressions = collectExpressions;
         this.executorService = executorService;
         this.inputs = inputs;
@@ -70,6 +92,9 @@ public class FileWriterProjector implements Projector {
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
         this.compressionType = compressionType;
+        this.compressionLevel = compressionLevel;
+        this.compressionThreads = compressionThreads;
+        this.maxFileSize = maxFileSize;
         this.uri = uri;
     }
 
@@ -81,6 +106,9 @@ public class FileWriterProjector implements Projector {
                 executorService,
                 uri.toString(),
                 compressionType,
+                compressionLevel,
+                compressionThreads,
+                maxFileSize,
                 inputs,
                 collectExpressions,
                 overwrites,
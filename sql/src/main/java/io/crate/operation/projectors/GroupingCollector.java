@@ -151,9 +151,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
 
     @Override
     public BinaryOperator<Map<K, Object[]>> combiner() {
-        return (state1, state2) -> {
-            throw new UnsupportedOperationException("combine not supported");
-        };
+        return this::mergeStates;
     }
 
     @Override
@@ -195,6 +193,29 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         statesByKey.put(key, states);
     }
 
+    /**
+     * Merges two maps of partial states, e.g. of two shards, using {@link AggregationFunction#reduce}.
+     * The smaller map is merged into the larger one, which is then returned.
+     */
+    private Map<K, Object[]> mergeStates(Map<K, Object[]> statesByKey1, Map<K, Object[]> statesByKey2) {
+        Map<K, Object[]> target = statesByKey1;
+        Map<K, Object[]> source = statesByKey2;
+        if (statesByKey2.size() > statesByKey1.size()) {
+            target = statesByKey2;
+            source = statesByKey1;
+        }
+        for (Map.Entry<K, Object[]> entry : source.entrySet()) {
+            Object[] sourceStates = entry.getValue();
+            Object[] targetStates = target.putIfAbsent(entry.getKey(), sourceStates);
+            if (targetStates != null) {
+                for (int i = 0; i < aggregations.length; i++) {
+                    targetStates[i] = aggregations[i].reduce(ramAccountingContext, targetStates[i], sourceStates[i]);
+                }
+            }
+        }
+        return target;
+    }
+
     private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
         return Iterables.transform(statesByKey.entrySet(), new com.google.common.base.Function<Map.Entry<K, Object[]>, Row>() {
 
@@ -26,7 +26,6 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
-import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.operation.AggregationContext;
 import io.crate.operation.aggregation.AggregationFunction;
@@ -35,8 +34,9 @@ import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 
 import java.util.List;
+import java.util.stream.Collector;
 
-public class GroupingProjector implements Projector {
+public class GroupingProjector implements CollectingProjector {
 
     private final GroupingCollector<Object> collector;
     private final int numCols;
@@ -93,6 +93,16 @@ public class GroupingProjector implements Projector {
         return CollectingBatchIterator.newInstance(batchIterator, collector, numCols);
     }
 
+    @Override
+    public Collector<Row, ?, ? extends Iterable<Row>> collector() {
+        return collector;
+    }
+
+    @Override
+    public int numOutputs() {
+        return numCols;
+    }
+
     @Override
     public boolean providesIndependentScroll() {
         return true;
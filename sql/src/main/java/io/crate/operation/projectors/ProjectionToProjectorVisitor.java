@@ -264,6 +264,9 @@ public class ProjectionToProjectorVisitor
         if (!uri.endsWith("/")) {
             sb.append("/");
         }
+        if (projection.outputFormat() == WriterProjection.OutputFormat.CSV && fileName.endsWith(".json")) {
+            fileName = fileName.substring(0, fileName.length() - ".json".length()) + ".csv";
+        }
         sb.append(fileName);
         if (projection.compressionType() == WriterProjection.CompressionType.GZIP) {
             sb.append(".gz");
@@ -277,6 +280,9 @@ public class ProjectionToProjectorVisitor
             threadPool.generic(),
             uri,
             projection.compressionType(),
+            projection.compressionLevel(),
+            projection.compressionThreads(),
+            projection.maxFileSize(),
             inputs,
             ctx.expressions(),
             overwrites,
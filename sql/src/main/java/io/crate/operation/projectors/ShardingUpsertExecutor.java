@@ -69,8 +69,6 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-import static io.crate.operation.NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS;
-
 public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TItem extends ShardRequest.Item>
     implements Function<BatchIterator, CompletableFuture<? extends Iterable<Row>>> {
 
@@ -152,8 +150,9 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
         return () -> {
             for (ShardLocation shardLocation : requestsByShard.keySet()) {
                 String requestNodeId = shardLocation.nodeId;
-                if (nodeJobsCounter.getInProgressJobsForNode(requestNodeId) >= MAX_NODE_CONCURRENT_OPERATIONS) {
-                    LOGGER.debug("reached maximum concurrent operations for node {}", requestNodeId);
+                long limit = nodeJobsCounter.getConcurrencyLimitForNode(requestNodeId);
+                if (nodeJobsCounter.getInProgressJobsForNode(requestNodeId) >= limit) {
+                    LOGGER.debug("reached maximum concurrent operations ({}) for node {}", limit, requestNodeId);
                     return true;
                 }
             }
@@ -269,6 +268,8 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
             it.remove();
 
             final ShardLocation shardLocation = entry.getKey();
+            // time the request was last sent; it is re-sent by the RetryListener after it has been rejected
+            final long[] sentAtNanos = new long[] { System.nanoTime() };
             nodeJobsCounter.increment(shardLocation.nodeId);
             ActionListener<ShardResponse> listener = new ActionListener<ShardResponse>() {
 
@@ -277,6 +278,7 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
                 @Override
                 public void onResponse(ShardResponse shardResponse) {
                     nodeJobsCounter.decrement(shardLocation.nodeId);
+                    nodeJobsCounter.onOperationCompleted(shardLocation.nodeId, System.nanoTime() - sentAtNanos[0]);
                     processShardResponse(shardResponse);
                     maybeSetInterrupt(shardResponse.failure());
                     countdown();
@@ -311,6 +313,8 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
                     LOGGER.debug("Executing retry Listener for nodeId: {} request: {}",
                         shardLocation.nodeId,
                         request);
+                    nodeJobsCounter.onOperationRejected(shardLocation.nodeId);
+                    sentAtNanos[0] = System.nanoTime();
                     requestExecutor.execute(request, l);
                 },
                 listener,
@@ -22,25 +22,21 @@
 package io.crate.operation.projectors.writer;
 
 import com.google.common.base.Preconditions;
-import io.crate.planner.projection.WriterProjection;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
-import java.util.zip.GZIPOutputStream;
 
 public class OutputFile extends Output {
 
     private final String path;
     private final boolean overwrite;
-    private final boolean compression;
 
-    public OutputFile(URI uri, WriterProjection.CompressionType compressionType) {
+    public OutputFile(URI uri) {
         Preconditions.checkArgument(uri.getHost() == null);
         this.path = uri.getPath();
-        compression = compressionType != null;
         this.overwrite = true;
     }
 
@@ -55,10 +51,6 @@ public class OutputFile extends Output {
                 throw new IOException("Output path is a directory: " + path);
             }
         }
-        OutputStream os = new FileOutputStream(outFile);
-        if (compression) {
-            os = new GZIPOutputStream(os);
-        }
-        return os;
+        return new FileOutputStream(outFile);
     }
 }
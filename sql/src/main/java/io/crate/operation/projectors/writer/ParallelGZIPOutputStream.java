@@ -0,0 +1,144 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * GZIP output stream which compresses blocks of data concurrently.
+ * <p>
+ * Each block is compressed into a separate gzip member. A file consisting of several members is a valid
+ * gzip file (RFC 1952) and is decompressed as a whole by gunzip or {@link java.util.zip.GZIPInputStream}.
+ * The compressed members are written to the underlying stream in order, by the thread which writes to this stream.
+ * <p>
+ * {@link #flush()} doesn't flush incomplete blocks, as that would result in a bad compression ratio
+ * if it is called after each row. All data is written once the stream is closed.
+ */
+public class ParallelGZIPOutputStream extends OutputStream {
+
+    private static final int BLOCK_SIZE = 1024 * 1024;
+
+    private final OutputStream out;
+    private final Executor executor;
+    private final int level;
+    private final int maxPendingBlocks;
+    private final ArrayDeque<CompletableFuture<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength = 0;
+    private boolean wroteBlocks = false;
+    private boolean closed = false;
+
+    /**
+     * @param level   the compression level, see {@link LeveledGZIPOutputStream}
+     * @param threads the maximum number of blocks which are compressed concurrently
+     */
+    public ParallelGZIPOutputStream(OutputStream out, Executor executor, int level, int threads) {
+        this.out = out;
+        this.executor = executor;
+        this.level = level;
+        this.maxPendingBlocks = threads;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        block[blockLength++] = (byte) b;
+        if (blockLength == block.length) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, block.length - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            len -= n;
+            if (blockLength == block.length) {
+                submitBlock();
+            }
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        wroteBlocks = true;
+        final byte[] data = block;
+        final int length = blockLength;
+        block = new byte[BLOCK_SIZE];
+        blockLength = 0;
+        pendingBlocks.add(CompletableFuture.supplyAsync(() -> compress(data, length, level), executor));
+        while (pendingBlocks.size() > maxPendingBlocks) {
+            writeNextBlock();
+        }
+    }
+
+    private void writeNextBlock() throws IOException {
+        try {
+            out.write(pendingBlocks.poll().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the compression of a block");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress block", e.getCause());
+        }
+    }
+
+    private static byte[] compress(byte[] data, int length, int level) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 4);
+        try (OutputStream gzip = new LeveledGZIPOutputStream(bytes, level)) {
+            gzip.write(data, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (blockLength > 0 || !wroteBlocks) {
+                // an empty output still consists of one (empty) gzip member to be a valid gzip file
+                submitBlock();
+            }
+            while (!pendingBlocks.isEmpty()) {
+                writeNextBlock();
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
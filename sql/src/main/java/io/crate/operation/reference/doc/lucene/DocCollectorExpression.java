@@ -28,6 +28,7 @@ import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
 import org.elasticsearch.search.lookup.SourceLookup;
 
 import java.util.Map;
@@ -46,6 +47,7 @@ public class DocCollectorExpression extends LuceneCollectorExpression<Map<String
     public void startCollect(CollectorContext context) {
         context.visitor().required(true);
         this.visitor = context.visitor();
+        this.visitor.addField(SourceFieldMapper.NAME);
     }
 
     @Override
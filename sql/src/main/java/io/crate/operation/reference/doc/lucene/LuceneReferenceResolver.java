@@ -133,6 +133,44 @@ public class LuceneReferenceResolver implements ReferenceResolver<LuceneCollecto
         }
     }
 
+    /**
+     * Rewrites a source lookup ({@code _doc['x']}) into a regular column reference ({@code x})
+     * if the value of the column can be read from doc values instead of the {@code _source}.
+     * Otherwise the reference is returned unchanged.
+     */
+    public Reference preferDocValues(Reference reference) {
+        ColumnIdent columnIdent = reference.ident().columnIdent();
+        if (columnIdent.isColumn() || !DocSysColumns.Names.DOC.equals(columnIdent.name())) {
+            return reference;
+        }
+        if (!hasDocValuesImplementation(reference.valueType().id())) {
+            return reference;
+        }
+        MappedFieldType fieldType = fieldTypeLookup.get(columnIdent.shiftRight().fqn());
+        if (fieldType == null || !fieldType.hasDocValues()) {
+            return reference;
+        }
+        return (Reference) DocReferences.inverseSourceLookup(reference);
+    }
+
+    private static boolean hasDocValuesImplementation(int typeId) {
+        switch (typeId) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case TimestampType.ID:
+            case FloatType.ID:
+            case DoubleType.ID:
+            case BooleanType.ID:
+            case StringType.ID:
+            case IpType.ID:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private static class NullValueCollectorExpression extends LuceneCollectorExpression<Void> {
 
         NullValueCollectorExpression(String columnName) {
@@ -25,6 +25,7 @@ import io.crate.metadata.doc.DocSysColumns;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
 
 import java.io.IOException;
 
@@ -42,6 +43,7 @@ public class RawCollectorExpression extends LuceneCollectorExpression<BytesRef>
     public void startCollect(CollectorContext context) {
         context.visitor().required(true);
         this.visitor = context.visitor();
+        this.visitor.addField(SourceFieldMapper.NAME);
     }
 
     @Override
@@ -0,0 +1,336 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.reference.file;
+
+import io.crate.types.ByteType;
+import io.crate.types.CollectionType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the lines of a CSV file into one value per column.
+ *
+ * The first line of each file is the header which names the columns. Every other line is split on the
+ * delimiter without copying the line; only quoted fields containing an escaped quote ({@code ""}) are copied.
+ * Fields of known columns are converted to the type of the column, all other fields are kept as strings.
+ * Empty unquoted fields are null, an empty quoted field ({@code ""}) is an empty string.
+ * <p>
+ * Records can't span multiple lines: files are split into lines (and large files into byte ranges read by
+ * different nodes) before they are parsed, so quoted fields containing line breaks are not supported.
+ */
+public final class CSVLineParser {
+
+    private final byte delimiter;
+    private final byte quote;
+    private final Map<String, DataType> columnTypes;
+
+    private String[] columns;
+    private DataType[] types;
+    private Map<String, Integer> columnIndices;
+    private int lastSourceSize = 128;
+
+    public CSVLineParser(char delimiter, char quote, Map<String, DataType> columnTypes) {
+        assert delimiter < 128 && quote < 128 : "delimiter and quote must be ASCII characters";
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.columnTypes = columnTypes;
+    }
+
+    public void parseHeader(byte[] line) {
+        Object[] fields = new Object[countFields(line)];
+        split(line, fields);
+        columns = new String[fields.length];
+        types = new DataType[fields.length];
+        columnIndices = new HashMap<>(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] == null) {
+                throw new ElasticsearchParseException("Column name at position {} of the CSV header is empty", i + 1);
+            }
+            String column = ((BytesRef) fields[i]).utf8ToString();
+            if (columnIndices.put(column, i) != null) {
+                throw new ElasticsearchParseException("Column \"{}\" appears more than once in the CSV header", column);
+            }
+            columns[i] = column;
+            types[i] = columnTypes.getOrDefault(column, DataTypes.STRING);
+        }
+    }
+
+    /**
+     * @return the position of the column within the lines or null if the header doesn't contain the column
+     */
+    @Nullable
+    public Integer columnIndex(String column) {
+        return columnIndices == null ? null : columnIndices.get(column);
+    }
+
+    /**
+     * Parses the fields of {@code line} and converts them to the types of their columns.
+     */
+    public Object[] parse(byte[] line) {
+        if (columns == null) {
+            throw new ElasticsearchParseException("CSV header is missing");
+        }
+        Object[] values = new Object[columns.length];
+        int numFields = split(line, values);
+        if (numFields != columns.length) {
+            throw new ElasticsearchParseException(
+                "Number of values ({}) doesn't match the number of columns in the CSV header ({})",
+                numFields, columns.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = convert(i, (BytesRef) values[i]);
+        }
+        return values;
+    }
+
+    /**
+     * Encodes values which have been returned by {@link #parse(byte[])} as a JSON object.
+     * null values are omitted.
+     */
+    public BytesRef toJson(Object[] values) throws IOException {
+        XContentBuilder builder = new XContentBuilder(JsonXContent.jsonXContent, new BytesStreamOutput(lastSourceSize));
+        builder.startObject();
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value != null) {
+                builder.field(columns[i]);
+                writeValue(builder, value);
+            }
+        }
+        builder.endObject();
+        BytesRef source = builder.bytes().toBytesRef();
+        lastSourceSize = source.length;
+        return source;
+    }
+
+    private static void writeValue(XContentBuilder builder, @Nullable Object value) throws IOException {
+        // the builder would write BytesRef values as binary
+        if (value instanceof BytesRef) {
+            builder.utf8Value((BytesRef) value);
+        } else if (value instanceof Object[]) {
+            builder.startArray();
+            for (Object o : (Object[]) value) {
+                writeValue(builder, o);
+            }
+            builder.endArray();
+        } else {
+            builder.value(value);
+        }
+    }
+
+    /**
+     * Creates a map of values which have been returned by {@link #parse(byte[])},
+     * with strings as they would be parsed from JSON.
+     */
+    public Map<String, Object> toMap(Object[] values) {
+        Map<String, Object> map = new HashMap<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value != null) {
+                map.put(columns[i], toMapValue(value));
+            }
+        }
+        return map;
+    }
+
+    private static Object toMapValue(@Nullable Object value) {
+        if (value instanceof BytesRef) {
+            return ((BytesRef) value).utf8ToString();
+        }
+        if (value instanceof Object[]) {
+            Object[] values = (Object[]) value;
+            List<Object> list = new ArrayList<>(values.length);
+            for (Object o : values) {
+                list.add(toMapValue(o));
+            }
+            return list;
+        }
+        return value;
+    }
+
+    private int countFields(byte[] line) {
+        int numFields = 1;
+        boolean inQuotes = false;
+        for (byte b : line) {
+            if (b == quote) {
+                inQuotes = !inQuotes;
+            } else if (b == delimiter && !inQuotes) {
+                numFields++;
+            }
+        }
+        return numFields;
+    }
+
+    /**
+     * Splits the line into fields and stores the first {@code fields.length} of them as {@link BytesRef} or null.
+     *
+     * @return the number of fields of the line
+     */
+    private int split(byte[] line, Object[] fields) {
+        int numFields = 0;
+        int pos = 0;
+        while (true) {
+            BytesRef field;
+            if (pos < line.length && line[pos] == quote) {
+                int start = pos + 1;
+                int i = start;
+                boolean hasEscapedQuotes = false;
+                while (true) {
+                    if (i >= line.length) {
+                        // files are read line by line, so a line break within a quoted value ends up here as well
+                        throw new ElasticsearchParseException(
+                            "Quoted value in column {} is not terminated, quoted values must not contain line breaks",
+                            numFields + 1);
+                    }
+                    if (line[i] == quote) {
+                        if (i + 1 < line.length && line[i + 1] == quote) {
+                            hasEscapedQuotes = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                field = hasEscapedQuotes ? unescape(line, start, i) : new BytesRef(line, start, i - start);
+                pos = i + 1;
+                if (pos < line.length && line[pos] != delimiter) {
+                    throw new ElasticsearchParseException(
+                        "Unexpected character after the quoted value in column {}", numFields + 1);
+                }
+            } else {
+                int start = pos;
+                while (pos < line.length && line[pos] != delimiter) {
+                    pos++;
+                }
+                field = pos == start ? null : new BytesRef(line, start, pos - start);
+            }
+            if (numFields < fields.length) {
+                fields[numFields] = field;
+            }
+            numFields++;
+            if (pos >= line.length) {
+                return numFields;
+            }
+            pos++;
+        }
+    }
+
+    private BytesRef unescape(byte[] line, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            bytes[length++] = line[i];
+            if (line[i] == quote) {
+                i++;
+            }
+        }
+        return new BytesRef(Arrays.copyOf(bytes, length));
+    }
+
+    private Object convert(int idx, @Nullable BytesRef field) {
+        DataType type = types[idx];
+        if (field == null || type.id() == StringType.ID) {
+            return field;
+        }
+        try {
+            switch (type.id()) {
+                case LongType.ID:
+                case IntegerType.ID:
+                case ShortType.ID:
+                case ByteType.ID:
+                    return type.value(parseLong(field));
+
+                default:
+                    if (type instanceof CollectionType) {
+                        return type.value(parseList(field));
+                    }
+                    return type.value(field);
+            }
+        } catch (Exception e) {
+            throw new ElasticsearchParseException("Cannot convert value \"{}\" of column \"{}\" to type {}",
+                e, field.utf8ToString(), columns[idx], type.getName());
+        }
+    }
+
+    private static Object parseList(BytesRef field) throws IOException {
+        try (XContentParser parser = JsonXContent.jsonXContent.createParser(
+            NamedXContentRegistry.EMPTY, field.bytes, field.offset, field.length)) {
+            return parser.list();
+        }
+    }
+
+    /**
+     * Parses a decimal number without creating an intermediate String.
+     */
+    static long parseLong(BytesRef field) {
+        int pos = field.offset;
+        int end = field.offset + field.length;
+        boolean negative = false;
+        if (field.bytes[pos] == '-' || field.bytes[pos] == '+') {
+            negative = field.bytes[pos] == '-';
+            pos++;
+        }
+        if (pos == end) {
+            throw new NumberFormatException("Not a number: " + field.utf8ToString());
+        }
+        long result = 0;
+        for (; pos < end; pos++) {
+            int digit = field.bytes[pos] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a number: " + field.utf8ToString());
+            }
+            // accumulate negatively so that Long.MIN_VALUE can be parsed
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Number out of range: " + field.utf8ToString());
+            }
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw new NumberFormatException("Number out of range: " + field.utf8ToString());
+            }
+            return -result;
+        }
+        return result;
+    }
+}
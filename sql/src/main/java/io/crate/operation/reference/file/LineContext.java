@@ -28,51 +28,94 @@ import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 public class LineContext {
 
+    @Nullable
+    private final CSVLineParser csvParser;
     private byte[] rawSource;
     private Map<String, Object> parsedSource;
+    private Object[] csvValues;
+
+    public LineContext() {
+        this(null);
+    }
+
+    /**
+     * @param csvParser parser for lines in CSV format, or null if the lines are JSON objects
+     */
+    public LineContext(@Nullable CSVLineParser csvParser) {
+        this.csvParser = csvParser;
+    }
 
     @Nullable
     public BytesRef sourceAsBytesRef() {
-        if (rawSource != null) {
-            return new BytesRef(rawSource);
+        if (rawSource == null) {
+            return null;
+        }
+        if (csvParser != null) {
+            try {
+                return csvParser.toJson(csvValues());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
-        return null;
+        return new BytesRef(rawSource);
     }
 
     public Map<String, Object> sourceAsMap() {
         if (parsedSource == null) {
-            try {
-                parsedSource = XContentHelper.convertToMap(new BytesArray(rawSource), false, XContentType.JSON).v2();
-            } catch (NullPointerException e) {
+            if (rawSource == null) {
                 return null;
             }
+            if (csvParser != null) {
+                parsedSource = csvParser.toMap(csvValues());
+            } else {
+                parsedSource = XContentHelper.convertToMap(new BytesArray(rawSource), false, XContentType.JSON).v2();
+            }
         }
         return parsedSource;
     }
 
     public Object get(ColumnIdent columnIdent) {
-        // TODO: change interface in order to not compute the path for every row
-        if (parsedSource == null) {
-            // TODO: optimize if collectorContext has prefetchColumns
-
-            try {
-                parsedSource = XContentHelper.convertToMap(new BytesArray(rawSource), false, XContentType.JSON).v2();
-            } catch (NullPointerException e) {
+        if (csvParser != null) {
+            if (rawSource == null) {
+                return null;
+            }
+            // CSV values are already typed, only nested columns of objects need to be looked up
+            Integer idx = csvParser.columnIndex(columnIdent.name());
+            if (idx == null) {
+                return null;
+            }
+            Object value = csvValues()[idx];
+            if (columnIdent.isColumn()) {
+                return value;
+            }
+            if (!(value instanceof Map)) {
                 return null;
             }
+            return getByPath((Map) value, columnIdent.path());
         }
 
+        // TODO: change interface in order to not compute the path for every row
+        Map<String, Object> source = sourceAsMap();
+        if (source == null) {
+            return null;
+        }
         LinkedList<String> path = new LinkedList<>(columnIdent.path());
         path.add(0, columnIdent.name());
-        Map parentMap = parsedSource;
+        return getByPath(source, path);
+    }
 
-        while (path.size() > 1) {
-            Object o = parentMap.get(path.pollFirst());
+    @Nullable
+    private static Object getByPath(Map parentMap, List<String> path) {
+        for (int i = 0; i < path.size() - 1; i++) {
+            Object o = parentMap.get(path.get(i));
             if (o == null) {
                 return null;
             }
@@ -80,15 +123,23 @@ public class LineContext {
             parentMap = (Map) o;
         }
 
-        Object o = parentMap.get(path.peekFirst());
+        Object o = parentMap.get(path.get(path.size() - 1));
         if (o instanceof String) {
             return new BytesRef((String) o);
         }
         return o;
     }
 
+    private Object[] csvValues() {
+        if (csvValues == null) {
+            csvValues = csvParser.parse(rawSource);
+        }
+        return csvValues;
+    }
+
     public void rawSource(byte[] bytes) {
         this.rawSource = bytes;
         this.parsedSource = null;
+        this.csvValues = null;
     }
 }
@@ -59,6 +59,7 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.Reference;
 import io.crate.metadata.Routing;
+import io.crate.metadata.TableIdent;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.table.TableInfo;
@@ -82,6 +83,10 @@ import io.crate.planner.statement.SetSessionPlan;
 import io.crate.sql.tree.Expression;
 import io.crate.types.DataTypes;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
@@ -223,6 +228,37 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
             return routingBuilder.allocateRouting(tableInfo, where, preference, sessionContext);
         }
 
+        /**
+         * Makes routings of {@code table} which are allocated afterwards read each shard from the node holding the
+         * primary of the shard with the same id of {@code targetIndex}, if the shard has an active copy there.
+         * Shards without such a copy are read from the node which would have been chosen anyway.
+         */
+        public void colocateRouting(TableIdent table, String targetIndex) {
+            RoutingTable routingTable = clusterService.state().routingTable();
+            IndexRoutingTable targetRoutingTable = routingTable.index(targetIndex);
+            if (targetRoutingTable == null) {
+                return;
+            }
+            routingBuilder.preferNodes(table, (index, shardId) -> {
+                IndexRoutingTable indexRoutingTable = routingTable.index(index);
+                IndexShardRoutingTable targetShard = targetRoutingTable.shard(shardId);
+                if (indexRoutingTable == null || targetShard == null) {
+                    return null;
+                }
+                ShardRouting targetPrimary = targetShard.primaryShard();
+                IndexShardRoutingTable shard = indexRoutingTable.shard(shardId);
+                if (targetPrimary == null || !targetPrimary.active() || shard == null) {
+                    return null;
+                }
+                for (ShardRouting shardRouting : shard.activeShards()) {
+                    if (shardRouting.currentNodeId().equals(targetPrimary.currentNodeId())) {
+                        return shardRouting.currentNodeId();
+                    }
+                }
+                return null;
+            });
+        }
+
         public ReaderAllocations buildReaderAllocations() {
             return routingBuilder.buildReaderAllocations();
         }
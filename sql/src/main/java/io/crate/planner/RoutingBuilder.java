@@ -38,10 +38,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
 
 final class RoutingBuilder {
 
     final Map<TableIdent, List<TableRouting>> routingListByTable = new HashMap<>();
+    private final Map<TableIdent, BiFunction<String, Integer, String>> preferredNodesByTable = new HashMap<>();
 
     private ReaderAllocations readerAllocations;
 
@@ -68,7 +71,7 @@ final class RoutingBuilder {
         Routing existing = tryFindMatchInExisting(where, preference, existingRoutings);
         if (existing != null) return existing;
 
-        Routing routing = tableInfo.getRouting(where, preference, sessionContext);
+        Routing routing = getRouting(tableInfo, where, preference, sessionContext);
         existingRoutings.add(new TableRouting(where, preference, routing));
         // ensure all routings of this table are allocated
         // and update new routing by merging with existing ones
@@ -97,11 +100,58 @@ final class RoutingBuilder {
                                        SessionContext sessionContext) {
         List<TableRouting> existingRoutings = new ArrayList<>();
         routingListByTable.put(tableInfo.ident(), existingRoutings);
-        Routing routing = tableInfo.getRouting(where, preference, sessionContext);
+        Routing routing = getRouting(tableInfo, where, preference, sessionContext);
         existingRoutings.add(new TableRouting(where, preference, routing));
         return routing;
     }
 
+    /**
+     * Routings of {@code table} which are allocated afterwards read a shard from the node returned by
+     * {@code preferredNode} for the index name and shard id. If it returns null the shard is read from the node
+     * chosen by the table. Does nothing if a routing of the table has already been allocated, as all routings of
+     * a table must read a shard from the same node.
+     */
+    void preferNodes(TableIdent table, BiFunction<String, Integer, String> preferredNode) {
+        if (routingListByTable.containsKey(table)) {
+            return;
+        }
+        preferredNodesByTable.put(table, preferredNode);
+    }
+
+    private Routing getRouting(TableInfo tableInfo, WhereClause where,
+                               @Nullable String preference,
+                               SessionContext sessionContext) {
+        Routing routing = tableInfo.getRouting(where, preference, sessionContext);
+        BiFunction<String, Integer, String> preferredNode = preferredNodesByTable.get(tableInfo.ident());
+        if (preferredNode == null) {
+            return routing;
+        }
+        return withPreferredNodes(routing, preferredNode);
+    }
+
+    @VisibleForTesting
+    static Routing withPreferredNodes(Routing routing, BiFunction<String, Integer, String> preferredNode) {
+        if (!routing.hasLocations()) {
+            return routing;
+        }
+        Map<String, Map<String, List<Integer>>> locations = new TreeMap<>();
+        for (Map.Entry<String, Map<String, List<Integer>>> indicesByNodeId : routing.locations().entrySet()) {
+            for (Map.Entry<String, List<Integer>> shardsByIndexEntry : indicesByNodeId.getValue().entrySet()) {
+                String index = shardsByIndexEntry.getKey();
+                for (Integer shardId : shardsByIndexEntry.getValue()) {
+                    String nodeId = preferredNode.apply(index, shardId);
+                    if (nodeId == null) {
+                        nodeId = indicesByNodeId.getKey();
+                    }
+                    locations.computeIfAbsent(nodeId, k -> new TreeMap<>())
+                        .computeIfAbsent(index, k -> new ArrayList<>())
+                        .add(shardId);
+                }
+            }
+        }
+        return new Routing(locations);
+    }
+
     ReaderAllocations buildReaderAllocations() {
         if (readerAllocations != null) {
             return readerAllocations;
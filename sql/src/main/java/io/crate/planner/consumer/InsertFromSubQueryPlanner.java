@@ -22,15 +22,19 @@
 package io.crate.planner.consumer;
 
 
+import com.google.common.annotations.VisibleForTesting;
 import io.crate.analyze.InsertFromSubQueryAnalyzedStatement;
 import io.crate.analyze.QuerySpec;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.AnalyzedRelationVisitor;
 import io.crate.analyze.relations.QueriedDocTable;
 import io.crate.analyze.relations.QueriedRelation;
+import io.crate.analyze.symbol.InputColumn;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.metadata.DocReferences;
+import io.crate.metadata.Reference;
+import io.crate.metadata.doc.DocTableInfo;
 import io.crate.planner.Merge;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
@@ -74,9 +78,13 @@ public final class InsertFromSubQueryPlanner {
             throw new UnsupportedFeatureException("Using limit, offset or order by is not " +
                                                   "supported on insert using a sub-query");
         }
+        Planner.Context plannerContext = context.plannerContext();
+        if (isColocated(statement, subRelation)) {
+            DocTableInfo sourceTable = ((QueriedDocTable) subRelation).tableRelation().tableInfo();
+            plannerContext.colocateRouting(sourceTable.ident(), statement.tableInfo().ident().indexName());
+        }
         SOURCE_LOOKUP_CONVERTER.process(subRelation, null);
         context.setFetchMode(FetchMode.NEVER);
-        Planner.Context plannerContext = context.plannerContext();
         Plan plannedSubQuery = plannerContext.planSubRelation(subRelation, context);
         if (plannedSubQuery == null) {
             return null;
@@ -90,6 +98,38 @@ public final class InsertFromSubQueryPlanner {
         return plan;
     }
 
+    /**
+     * Returns true if each row of the sub relation is written into the shard of the target table with the same id as
+     * the shard it is read from. This is the case if both tables have the same number of shards and the rows are
+     * routed by the same value. Reading the source shards from the nodes holding the target primaries then avoids
+     * sending the rows over the network.
+     */
+    @VisibleForTesting
+    static boolean isColocated(InsertFromSubQueryAnalyzedStatement statement, QueriedRelation subRelation) {
+        if (!(subRelation instanceof QueriedDocTable) || !(statement.clusteredBySymbol() instanceof InputColumn)) {
+            return false;
+        }
+        QuerySpec querySpec = subRelation.querySpec();
+        if (querySpec.hasAggregates() || !querySpec.groupBy().isEmpty()) {
+            return false;
+        }
+        DocTableInfo sourceTable = ((QueriedDocTable) subRelation).tableRelation().tableInfo();
+        DocTableInfo targetTable = statement.tableInfo();
+        if (sourceTable.isPartitioned() || targetTable.isPartitioned()
+            || sourceTable.numberOfShards() != targetTable.numberOfShards()) {
+            return false;
+        }
+        InputColumn clusteredBy = (InputColumn) statement.clusteredBySymbol();
+        Symbol output = querySpec.outputs().get(clusteredBy.index());
+        if (!(output instanceof Reference)) {
+            return false;
+        }
+        Reference reference = (Reference) output;
+        return reference.ident().tableIdent().equals(sourceTable.ident())
+               && reference.ident().columnIdent().equals(sourceTable.clusteredBy())
+               && reference.valueType().equals(clusteredBy.valueType());
+    }
+
     private static class ToSourceLookupConverter extends AnalyzedRelationVisitor<Void, Void> {
 
         @Override
@@ -83,6 +83,27 @@ public class ESGet extends UnnestablePlan {
         }
     }
 
+    private ESGet(ESGet template, DocKeys docKeys, UUID jobId) {
+        this.tableInfo = template.tableInfo;
+        this.outputs = template.outputs;
+        this.outputTypes = template.outputTypes;
+        this.sortSymbols = template.sortSymbols;
+        this.reverseFlags = template.reverseFlags;
+        this.nullsFirst = template.nullsFirst;
+        this.executionPhaseId = template.executionPhaseId;
+        this.limit = template.limit;
+        this.offset = template.offset;
+        this.docKeys = docKeys;
+        this.jobId = jobId;
+    }
+
+    /**
+     * @return a plan with the same outputs, ordering and limits which looks up other keys as another job
+     */
+    public ESGet withDocKeys(DocKeys docKeys, UUID jobId) {
+        return new ESGet(this, docKeys, jobId);
+    }
+
     public List<DataType> outputTypes() {
         return outputTypes;
     }
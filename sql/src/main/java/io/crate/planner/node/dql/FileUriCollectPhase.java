@@ -27,6 +27,8 @@ import io.crate.analyze.symbol.Symbols;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.ExecutionPhaseVisitor;
 import io.crate.planner.projection.Projection;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
@@ -34,16 +36,28 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class FileUriCollectPhase extends AbstractProjectionsPhase implements CollectPhase {
 
+    public enum InputFormat {
+        JSON,
+        CSV
+    }
+
     private final Collection<String> executionNodes;
     private final Symbol targetUri;
     private final List<Symbol> toCollect;
     private final String compression;
     private final Boolean sharedStorage;
+    private final InputFormat inputFormat;
+    private final char csvDelimiter;
+    private final char csvQuote;
+    private final Map<String, DataType> columnTypes;
     private DistributionInfo distributionInfo = DistributionInfo.DEFAULT_BROADCAST;
 
     public FileUriCollectPhase(UUID jobId,
@@ -55,12 +69,38 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
                                List<Projection> projections,
                                String compression,
                                Boolean sharedStorage) {
+        this(jobId, phaseId, name, executionNodes, targetUri, toCollect, projections, compression, sharedStorage,
+            InputFormat.JSON, ',', '"', Collections.emptyMap());
+    }
+
+    /**
+     * @param csvDelimiter delimiter of the values within a line, only used for {@link InputFormat#CSV}
+     * @param csvQuote character to quote values which contain the delimiter, only used for {@link InputFormat#CSV}
+     * @param columnTypes types of the top-level columns of the target table, used to convert CSV values
+     */
+    public FileUriCollectPhase(UUID jobId,
+                               int phaseId,
+                               String name,
+                               Collection<String> executionNodes,
+                               Symbol targetUri,
+                               List<Symbol> toCollect,
+                               List<Projection> projections,
+                               String compression,
+                               Boolean sharedStorage,
+                               InputFormat inputFormat,
+                               char csvDelimiter,
+                               char csvQuote,
+                               Map<String, DataType> columnTypes) {
         super(jobId, phaseId, name, projections);
         this.executionNodes = executionNodes;
         this.targetUri = targetUri;
         this.toCollect = toCollect;
         this.compression = compression;
         this.sharedStorage = sharedStorage;
+        this.inputFormat = inputFormat;
+        this.csvDelimiter = csvDelimiter;
+        this.csvQuote = csvQuote;
+        this.columnTypes = columnTypes;
         outputTypes = extractOutputTypes(toCollect, projections);
     }
 
@@ -96,6 +136,20 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
         super(in);
         compression = in.readOptionalString();
         sharedStorage = in.readOptionalBoolean();
+        inputFormat = InputFormat.values()[in.readVInt()];
+        if (inputFormat == InputFormat.CSV) {
+            csvDelimiter = (char) in.readVInt();
+            csvQuote = (char) in.readVInt();
+            int numColumns = in.readVInt();
+            columnTypes = new HashMap<>(numColumns);
+            for (int i = 0; i < numColumns; i++) {
+                columnTypes.put(in.readString(), DataTypes.fromStream(in));
+            }
+        } else {
+            csvDelimiter = ',';
+            csvQuote = '"';
+            columnTypes = Collections.emptyMap();
+        }
         targetUri = Symbols.fromStream(in);
 
         int numNodes = in.readVInt();
@@ -112,6 +166,16 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
         super.writeTo(out);
         out.writeOptionalString(compression);
         out.writeOptionalBoolean(sharedStorage);
+        out.writeVInt(inputFormat.ordinal());
+        if (inputFormat == InputFormat.CSV) {
+            out.writeVInt(csvDelimiter);
+            out.writeVInt(csvQuote);
+            out.writeVInt(columnTypes.size());
+            for (Map.Entry<String, DataType> entry : columnTypes.entrySet()) {
+                out.writeString(entry.getKey());
+                DataTypes.toStream(entry.getValue(), out);
+            }
+        }
         Symbols.toStream(targetUri, out);
         out.writeVInt(executionNodes.size());
         for (String node : executionNodes) {
@@ -129,6 +193,7 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
             .add("outputTypes", outputTypes)
             .add("compression", compression)
             .add("sharedStorageDefault", sharedStorage)
+            .add("inputFormat", inputFormat)
             .toString();
     }
 
@@ -137,6 +202,22 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
         return sharedStorage;
     }
 
+    public InputFormat inputFormat() {
+        return inputFormat;
+    }
+
+    public char csvDelimiter() {
+        return csvDelimiter;
+    }
+
+    public char csvQuote() {
+        return csvQuote;
+    }
+
+    public Map<String, DataType> columnTypes() {
+        return columnTypes;
+    }
+
     @Override
     public DistributionInfo distributionInfo() {
         return distributionInfo;
@@ -51,6 +51,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
 
 public class WriterProjection extends Projection {
 
@@ -86,7 +87,8 @@ public class WriterProjection extends Projection {
 
     public enum OutputFormat {
         JSON_OBJECT,
-        JSON_ARRAY
+        JSON_ARRAY,
+        CSV
     }
 
     private CompressionType compressionType;
@@ -95,14 +97,37 @@ public class WriterProjection extends Projection {
         GZIP
     }
 
+    private int compressionLevel;
+    private int compressionThreads;
+    private long maxFileSize;
 
+    public WriterProjection(List<Symbol> inputs,
+                            Symbol uri,
+                            @Nullable CompressionType compressionType,
+                            Map<ColumnIdent, Symbol> overwrites,
+                            @Nullable List<String> outputNames,
+                            OutputFormat outputFormat) {
+        this(inputs, uri, compressionType, Deflater.DEFAULT_COMPRESSION, 1, -1L, overwrites, outputNames, outputFormat);
+    }
 
+    /**
+     * @param compressionLevel   gzip compression level or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param compressionThreads number of threads used to compress the output of a shard
+     * @param maxFileSize        number of uncompressed bytes after which the output of a shard continues
+     *                           in a new file, -1 for no limit
+     */
     public WriterProjection(List<Symbol> inputs,
                             Symbol uri,
                             @Nullable CompressionType compressionType,
+                            int compressionLevel,
+                            int compressionThreads,
+                            long maxFileSize,
                             Map<ColumnIdent, Symbol> overwrites,
                             @Nullable List<String> outputNames,
                             OutputFormat outputFormat) {
+        this.compressionLevel = compressionLevel;
+        this.compressionThreads = compressionThreads;
+        this.maxFileSize = maxFileSize;
         this.inputs = inputs;
         this.uri = uri;
         this.overwrites = overwrites;
@@ -129,6 +154,9 @@ public class WriterProjection extends Projection {
         int compressionTypeOrdinal = in.readInt();
         compressionType = compressionTypeOrdinal >= 0 ? CompressionType.values()[compressionTypeOrdinal] : null;
         outputFormat = OutputFormat.values()[in.readInt()];
+        compressionLevel = in.readInt();
+        compressionThreads = in.readVInt();
+        maxFileSize = in.readLong();
     }
 
     @Override
@@ -178,6 +206,18 @@ public class WriterProjection extends Projection {
         return compressionType;
     }
 
+    public int compressionLevel() {
+        return compressionLevel;
+    }
+
+    public int compressionThreads() {
+        return compressionThreads;
+    }
+
+    public long maxFileSize() {
+        return maxFileSize;
+    }
+
     @Override
     public <C, R> R accept(ProjectionVisitor<C, R> visitor, C context) {
         return visitor.visitWriterProjection(this, context);
@@ -204,6 +244,9 @@ public class WriterProjection extends Projection {
         }
         out.writeInt(compressionType != null ? compressionType.ordinal() : -1);
         out.writeInt(outputFormat.ordinal());
+        out.writeInt(compressionLevel);
+        out.writeVInt(compressionThreads);
+        out.writeLong(maxFileSize);
     }
 
     @Override
@@ -220,6 +263,9 @@ public class WriterProjection extends Projection {
         if (compressionType != null ? !compressionType.equals(that.compressionType) : that.compressionType != null)
             return false;
         if (!outputFormat.equals(that.outputFormat)) return false;
+        if (compressionLevel != that.compressionLevel) return false;
+        if (compressionThreads != that.compressionThreads) return false;
+        if (maxFileSize != that.maxFileSize) return false;
 
         return true;
     }
@@ -232,6 +278,9 @@ public class WriterProjection extends Projection {
         result = 31 * result + overwrites.hashCode();
         result = 31 * result + (compressionType != null ? compressionType.hashCode() : 0);
         result = 31 * result + outputFormat.hashCode();
+        result = 31 * result + compressionLevel;
+        result = 31 * result + compressionThreads;
+        result = 31 * result + Long.hashCode(maxFileSize);
         return result;
     }
 
@@ -242,6 +291,9 @@ public class WriterProjection extends Projection {
                ", outputNames=" + outputNames +
                ", compressionType=" + compressionType +
                ", outputFormat=" + outputFormat +
+               ", compressionLevel=" + compressionLevel +
+               ", compressionThreads=" + compressionThreads +
+               ", maxFileSize=" + maxFileSize +
                '}';
     }
 
@@ -252,6 +304,9 @@ public class WriterProjection extends Projection {
                 inputs,
                 uri,
                 compressionType,
+                compressionLevel,
+                compressionThreads,
+                maxFileSize,
                 overwrites,
                 outputNames,
                 outputFormat
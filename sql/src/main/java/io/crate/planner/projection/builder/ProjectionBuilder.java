@@ -199,10 +199,13 @@ public class ProjectionBuilder {
     public static WriterProjection writerProjection(Collection<? extends Symbol> inputs,
                                                     Symbol uri,
                                                     @Nullable WriterProjection.CompressionType compressionType,
+                                                    int compressionLevel,
+                                                    int compressionThreads,
+                                                    long maxFileSize,
                                                     Map<ColumnIdent, Symbol> overwrites,
                                                     @Nullable List<String> outputNames,
                                                     WriterProjection.OutputFormat outputFormat) {
-        return new WriterProjection(
-            InputColumn.fromSymbols(inputs), uri, compressionType, overwrites, outputNames, outputFormat);
+        return new WriterProjection(InputColumn.fromSymbols(inputs), uri, compressionType, compressionLevel,
+            compressionThreads, maxFileSize, overwrites, outputNames, outputFormat);
     }
 }
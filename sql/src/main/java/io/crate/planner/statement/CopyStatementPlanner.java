@@ -49,19 +49,26 @@ import io.crate.planner.projection.SourceIndexWriterProjection;
 import io.crate.planner.projection.WriterProjection;
 import io.crate.planner.projection.builder.InputColumns;
 import io.crate.planner.projection.builder.ProjectionBuilder;
+import io.crate.types.DataType;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
 
 public class CopyStatementPlanner {
 
@@ -137,17 +144,31 @@ public class CopyStatementPlanner {
         // the partitionedBy-inputColumns created for the projection are still valid because the positions are not changed
         rewriteToCollectToUsePartitionValues(table.partitionedByColumns(), partitionValues, toCollect);
 
+        Settings settings = copyFrom.settings();
+        FileUriCollectPhase.InputFormat inputFormat = FileUriCollectPhase.InputFormat.valueOf(
+            settings.get("format", "json").toUpperCase(Locale.ENGLISH));
+        Map<String, DataType> columnTypes = new HashMap<>();
+        if (inputFormat == FileUriCollectPhase.InputFormat.CSV) {
+            for (Reference column : table.columns()) {
+                columnTypes.put(column.ident().columnIdent().name(), column.valueType());
+            }
+        }
+
         DiscoveryNodes allNodes = clusterService.state().nodes();
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
             context.jobId(),
             context.nextExecutionPhaseId(),
             "copyFrom",
-            getExecutionNodes(allNodes, copyFrom.settings().getAsInt("num_readers", allNodes.getSize()), copyFrom.nodePredicate()),
+            getExecutionNodes(allNodes, settings.getAsInt("num_readers", allNodes.getSize()), copyFrom.nodePredicate()),
             copyFrom.uri(),
             toCollect,
             projections,
-            copyFrom.settings().get("compression", null),
-            copyFrom.settings().getAsBoolean("shared", null)
+            settings.get("compression", null),
+            settings.getAsBoolean("shared", null),
+            inputFormat,
+            settings.get("delimiter", ",").charAt(0),
+            settings.get("quote", "\"").charAt(0),
+            columnTypes
         );
 
         Collect collect = new Collect(collectPhase, TopN.NO_LIMIT, 0, 1, 1, null);
@@ -227,10 +248,14 @@ public class CopyStatementPlanner {
                 WriterProjection.OutputFormat.JSON_ARRAY : WriterProjection.OutputFormat.JSON_OBJECT;
         }
 
+        Settings settings = statement.settings();
         WriterProjection projection = ProjectionBuilder.writerProjection(
             statement.subQueryRelation().querySpec().outputs(),
             statement.uri(),
             statement.compressionType(),
+            settings.getAsInt("compression_level", Deflater.DEFAULT_COMPRESSION),
+            settings.getAsInt("compression_threads", 1),
+            settings.getAsBytesSize("max_file_size", new ByteSizeValue(-1)).getBytes(),
             statement.overwrites(),
             statement.outputNames(),
             outputFormat);
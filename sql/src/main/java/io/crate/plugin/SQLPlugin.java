@@ -134,10 +134,13 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         List<Setting<?>> settings = new ArrayList<>();
         settings.add(AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP);
         settings.add(SQLOperations.NODE_READ_ONLY_SETTING);
+        settings.add(SQLOperations.CURSOR_IDLE_TIMEOUT_SETTING);
+        settings.add(SQLOperations.STATEMENT_CACHE_SIZE_SETTING);
 
         // Postgres settings are node settings
         settings.add(PostgresNetty.PSQL_ENABLED_SETTING.setting());
         settings.add(PostgresNetty.PSQL_PORT_SETTING.setting());
+        settings.add(PostgresNetty.PSQL_WRITE_CHUNK_SIZE_SETTING.setting());
 
         // Authentication settings are node settings
         settings.add(AuthSettings.AUTH_HOST_BASED_ENABLED_SETTING.setting());
@@ -0,0 +1,121 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Netty handler which allows to wait until the outbound buffer of a channel has drained enough for the channel to
+ * become writable again (see {@link Channel#isWritable()} and the channel's write buffer water marks).
+ * <p>
+ * This is used to pause producing results for slow clients instead of buffering the whole result in memory.
+ */
+public class ChannelWritabilityHandler extends ChannelInboundHandlerAdapter {
+
+    private final List<CompletableFuture<Void>> waitingForWritability = new ArrayList<>();
+
+    /**
+     * @return null if the channel is writable, otherwise a future which is completed once the channel becomes
+     *         writable again. The future is completed exceptionally if the channel is or gets closed, as a closed
+     *         channel never becomes writable again.
+     */
+    @Nullable
+    public CompletableFuture<?> whenWritable(Channel channel) {
+        if (!channel.isActive()) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(connectionClosed());
+            return future;
+        }
+        if (channel.isWritable()) {
+            return null;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (waitingForWritability) {
+            waitingForWritability.add(future);
+        }
+        // pending writes must be flushed, otherwise the channel would never become writable again
+        channel.flush();
+
+        // writability might have changed before the future was registered
+        if (!channel.isActive()) {
+            failWaiting();
+        } else if (channel.isWritable()) {
+            completeWaiting();
+        }
+        return future;
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable()) {
+            completeWaiting();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        failWaiting();
+        super.channelInactive(ctx);
+    }
+
+    private static IllegalStateException connectionClosed() {
+        return new IllegalStateException("Connection closed");
+    }
+
+    private void completeWaiting() {
+        for (CompletableFuture<Void> future : takeWaiting()) {
+            future.complete(null);
+        }
+    }
+
+    private void failWaiting() {
+        List<CompletableFuture<Void>> futures = takeWaiting();
+        if (futures.isEmpty()) {
+            return;
+        }
+        IllegalStateException connectionClosed = connectionClosed();
+        for (CompletableFuture<Void> future : futures) {
+            future.completeExceptionally(connectionClosed);
+        }
+    }
+
+    private List<CompletableFuture<Void>> takeWaiting() {
+        synchronized (waitingForWritability) {
+            if (waitingForWritability.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<CompletableFuture<Void>> futures = new ArrayList<>(waitingForWritability);
+            waitingForWritability.clear();
+            return futures;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.data.Row;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.operation.user.ExceptionAuthorizedValidator;
+import io.crate.protocols.ChannelWritabilityHandler;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ResultReceiver of {@code COPY TO STDOUT} which sends each row as CopyData message.
+ * <p>
+ * Like in {@link ResultSetReceiver} the messages are encoded into a shared buffer which is written
+ * once it exceeds {@code writeChunkSize} bytes, and consuming the result pauses while the channel isn't writable.
+ */
+class CopyOutReceiver extends BaseResultReceiver {
+
+    enum Format {
+        /**
+         * The text format of PostgreSQL: NULL is written as {@code \N}, and backslashes, line breaks
+         * and the delimiter are escaped with a backslash.
+         */
+        TEXT,
+
+        /**
+         * Comma separated values with a header line. Values containing the delimiter, quotes or line breaks are quoted.
+         * NULL is written as empty field, an empty string as {@code ""}.
+         */
+        CSV
+    }
+
+    private static final byte QUOTE = (byte) '"';
+    private static final byte ESCAPE = (byte) '\\';
+    private static final byte[] TEXT_NULL = new byte[]{ESCAPE, 'N'};
+
+    private final String query;
+    private final Channel channel;
+    private final ChannelWritabilityHandler writabilityHandler;
+    private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final List<? extends DataType> columnTypes;
+    private final Format format;
+    private final byte delimiter;
+    private final int writeChunkSize;
+
+    @Nullable
+    private ByteBuf pendingData;
+    private long rowCount = 0;
+
+    CopyOutReceiver(String query,
+                    Channel channel,
+                    ChannelWritabilityHandler writabilityHandler,
+                    ExceptionAuthorizedValidator exceptionAuthorizedValidator,
+                    List<String> columnNames,
+                    List<? extends DataType> columnTypes,
+                    Format format,
+                    byte delimiter,
+                    int writeChunkSize) {
+        this.query = query;
+        this.channel = channel;
+        this.writabilityHandler = writabilityHandler;
+        this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
+        this.columnTypes = columnTypes;
+        this.format = format;
+        this.delimiter = delimiter;
+        this.writeChunkSize = writeChunkSize;
+        if (format == Format.CSV) {
+            ByteBuf buffer = buffer();
+            int startIdx = startCopyData(buffer);
+            for (int i = 0; i < columnNames.size(); i++) {
+                if (i > 0) {
+                    buffer.writeByte(delimiter);
+                }
+                writeCsvField(buffer, columnNames.get(i).getBytes(StandardCharsets.UTF_8));
+            }
+            endCopyData(buffer, startIdx);
+        }
+    }
+
+    private ByteBuf buffer() {
+        if (pendingData == null) {
+            pendingData = channel.alloc().buffer(writeChunkSize);
+        }
+        return pendingData;
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data |
+     */
+    private static int startCopyData(ByteBuf buffer) {
+        int startIdx = buffer.writerIndex();
+        buffer.writeByte('d');
+        buffer.writeInt(0); // will be set at the end
+        return startIdx;
+    }
+
+    private static void endCopyData(ByteBuf buffer, int startIdx) {
+        buffer.writeByte('\n');
+        buffer.setInt(startIdx + 1, buffer.writerIndex() - startIdx - 1);
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        rowCount++;
+        ByteBuf buffer = buffer();
+        int startIdx = startCopyData(buffer);
+        for (int i = 0; i < row.numColumns(); i++) {
+            if (i > 0) {
+                buffer.writeByte(delimiter);
+            }
+            Object value = row.get(i);
+            if (value == null) {
+                if (format == Format.TEXT) {
+                    buffer.writeBytes(TEXT_NULL);
+                }
+                continue;
+            }
+            PGType pgType = PGTypes.get(columnTypes.get(i));
+            byte[] bytes = pgType.encodeAsText(value);
+            if (format == Format.TEXT) {
+                writeTextField(buffer, bytes);
+            } else {
+                writeCsvField(buffer, bytes);
+            }
+        }
+        endCopyData(buffer, startIdx);
+        if (buffer.readableBytes() >= writeChunkSize) {
+            writePendingData();
+        }
+    }
+
+    private void writeTextField(ByteBuf buffer, byte[] bytes) {
+        for (byte b : bytes) {
+            switch (b) {
+                case ESCAPE:
+                    buffer.writeByte(ESCAPE).writeByte(ESCAPE);
+                    break;
+                case '\n':
+                    buffer.writeByte(ESCAPE).writeByte('n');
+                    break;
+                case '\r':
+                    buffer.writeByte(ESCAPE).writeByte('r');
+                    break;
+                case '\t':
+                    buffer.writeByte(ESCAPE).writeByte('t');
+                    break;
+                default:
+                    if (b == delimiter) {
+                        buffer.writeByte(ESCAPE);
+                    }
+                    buffer.writeByte(b);
+            }
+        }
+    }
+
+    private void writeCsvField(ByteBuf buffer, byte[] bytes) {
+        boolean needsQuotes = bytes.length == 0;
+        for (int i = 0; i < bytes.length && !needsQuotes; i++) {
+            byte b = bytes[i];
+            needsQuotes = b == delimiter || b == QUOTE || b == '\n' || b == '\r';
+        }
+        if (!needsQuotes) {
+            buffer.writeBytes(bytes);
+            return;
+        }
+        buffer.writeByte(QUOTE);
+        for (byte b : bytes) {
+            if (b == QUOTE) {
+                buffer.writeByte(QUOTE);
+            }
+            buffer.writeByte(b);
+        }
+        buffer.writeByte(QUOTE);
+    }
+
+    private void writePendingData() {
+        if (pendingData != null) {
+            channel.write(pendingData);
+            pendingData = null;
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> whenWritable() {
+        if (channel.isWritable()) {
+            return null;
+        }
+        writePendingData();
+        return writabilityHandler.whenWritable(channel);
+    }
+
+    @Override
+    public void batchFinished() {
+        throw new IllegalStateException("COPY TO STDOUT is executed without row limit and can't be suspended");
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        writePendingData();
+        if (interrupted) {
+            super.allFinished(true);
+        } else {
+            Messages.sendCopyDone(channel);
+            Messages.sendCommandComplete(channel, query, rowCount).addListener(f -> super.allFinished(false));
+        }
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable throwable) {
+        writePendingData();
+        Messages.sendErrorResponse(channel, SQLExceptions.createSQLActionException(throwable, exceptionAuthorizedValidator))
+            .addListener(f -> super.fail(throwable));
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.crate.action.sql.ResultReceiver;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.Analyzer;
+import io.crate.analyze.copy.NodeFilters;
+import io.crate.analyze.expressions.ExpressionToStringVisitor;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.executor.Executor;
+import io.crate.operation.collect.files.PipeInputStream;
+import io.crate.operation.collect.files.Pipes;
+import io.crate.operation.collect.stats.JobsLogs;
+import io.crate.planner.Planner;
+import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
+import io.crate.sql.tree.CopyToStdout;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.GenericProperties;
+import io.crate.sql.tree.GenericProperty;
+import io.crate.sql.tree.ObjectLiteral;
+import io.crate.sql.tree.Statement;
+import io.crate.sql.tree.StringLiteral;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Portal for {@code COPY table FROM STDIN} and {@code COPY (query) TO STDOUT}.
+ * <p>
+ * {@code COPY FROM STDIN} is executed as {@code COPY FROM} of a {@link PipeInputStream} which is read on this node
+ * and fed with the CopyData messages of the client, so that the data takes the same path into the shards as the
+ * content of a file. {@code COPY TO STDOUT} executes the query and sends the rows as CopyData messages.
+ * <p>
+ * The protocol handler has to announce the copy to the client using {@link #startCopyIn()} or
+ * {@link #startCopyOut()} before the portal is synced; clients without the COPY sub-protocol can't execute it.
+ */
+public class CopyPortal extends AbstractPortal {
+
+    private final Pipes pipes;
+    private final String localNodeId;
+
+    private String query;
+    private Statement statement;
+    private Portal delegate;
+    private ResultReceiver resultReceiver;
+    private boolean started = false;
+
+    @Nullable
+    private PipeInputStream pipe;
+
+    private CopyOutReceiver.Format format = CopyOutReceiver.Format.TEXT;
+    private byte delimiter;
+
+    public CopyPortal(String name,
+                      Analyzer analyzer,
+                      Executor executor,
+                      boolean isReadOnly,
+                      SessionContext sessionContext,
+                      Pipes pipes,
+                      String localNodeId) {
+        super(name, analyzer, executor, isReadOnly, sessionContext);
+        this.pipes = pipes;
+        this.localNodeId = localNodeId;
+    }
+
+    public static boolean isCopyStatement(Statement statement) {
+        return statement instanceof CopyFromStdin || statement instanceof CopyToStdout;
+    }
+
+    @Override
+    @Nullable
+    public FormatCodes.FormatCode[] getLastResultFormatCodes() {
+        return null;
+    }
+
+    @Override
+    public List<? extends DataType> getLastOutputTypes() {
+        return null;
+    }
+
+    @Override
+    public String getLastQuery() {
+        return query;
+    }
+
+    @Override
+    public Portal bind(String statementName,
+                       String query,
+                       Statement statement,
+                       List<Object> params,
+                       @Nullable FormatCodes.FormatCode[] resultFormatCodes) {
+        close();
+        if (!isCopyStatement(statement)) {
+            Portal portal = new SimplePortal(name, portalContext.getAnalyzer(), portalContext.getExecutor(),
+                portalContext.isReadOnly(), sessionContext);
+            return portal.bind(statementName, query, statement, params, resultFormatCodes);
+        }
+        this.query = query;
+        this.statement = statement;
+        this.started = false;
+        Statement delegateStatement;
+        if (statement instanceof CopyFromStdin) {
+            CopyFromStdin copyFromStdin = (CopyFromStdin) statement;
+            pipe = pipes.create();
+            delegateStatement = new CopyFrom(
+                copyFromStdin.table(),
+                new StringLiteral(pipe.uri().toString()),
+                Optional.of(readOnLocalNode(copyFromStdin.genericProperties())));
+        } else {
+            CopyToStdout copyToStdout = (CopyToStdout) statement;
+            applyOutputProperties(copyToStdout.genericProperties(), new RowN(params.toArray()));
+            delegateStatement = copyToStdout.query();
+        }
+        try {
+            delegate = new SimplePortal(name, portalContext.getAnalyzer(), portalContext.getExecutor(),
+                portalContext.isReadOnly(), sessionContext)
+                .bind(statementName, query, delegateStatement, params, null);
+        } catch (Throwable t) {
+            close();
+            throw t;
+        }
+        return this;
+    }
+
+    /**
+     * The data is only available on this node, so the generated COPY FROM must only read on this node
+     */
+    private GenericProperties readOnLocalNode(Optional<GenericProperties> genericProperties) {
+        GenericProperties properties = new GenericProperties();
+        for (Map.Entry<String, Expression> entry : genericProperties.orElse(GenericProperties.EMPTY).properties().entrySet()) {
+            if (entry.getKey().equals(NodeFilters.NAME)) {
+                throw new IllegalArgumentException(NodeFilters.NAME + " is not supported for COPY FROM STDIN");
+            }
+            properties.add(new GenericProperty(entry.getKey(), entry.getValue()));
+        }
+        properties.add(new GenericProperty(NodeFilters.NAME,
+            new ObjectLiteral(ImmutableMultimap.of("id", new StringLiteral(Pattern.quote(localNodeId))))));
+        return properties;
+    }
+
+    private void applyOutputProperties(Optional<GenericProperties> genericProperties, Row params) {
+        format = CopyOutReceiver.Format.TEXT;
+        String delimiterValue = null;
+        for (Map.Entry<String, Expression> entry : genericProperties.orElse(GenericProperties.EMPTY).properties().entrySet()) {
+            String value = ExpressionToStringVisitor.convert(entry.getValue(), params);
+            switch (entry.getKey()) {
+                case "format":
+                    try {
+                        format = CopyOutReceiver.Format.valueOf(value.toUpperCase(Locale.ENGLISH));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                            "Invalid format '%s' for COPY TO STDOUT, supported formats are 'text' and 'csv'", value));
+                    }
+                    break;
+                case "delimiter":
+                    if (value.length() != 1 || value.charAt(0) > 127) {
+                        throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                            "Setting \"delimiter\" must be a single ASCII character, got '%s'", value));
+                    }
+                    delimiterValue = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "Setting '%s' is not supported for COPY TO STDOUT", entry.getKey()));
+            }
+        }
+        if (delimiterValue == null) {
+            delimiter = (byte) (format == CopyOutReceiver.Format.CSV ? ',' : '\t');
+        } else {
+            delimiter = (byte) delimiterValue.charAt(0);
+        }
+    }
+
+    public boolean isCopyIn() {
+        return statement instanceof CopyFromStdin;
+    }
+
+    /**
+     * Called once the client was told to start sending data.
+     *
+     * @return the pipe which must be fed with the data of the client
+     */
+    public PipeInputStream startCopyIn() {
+        assert pipe != null : "startCopyIn must only be called for COPY FROM STDIN";
+        started = true;
+        return pipe;
+    }
+
+    /**
+     * Called once the client was told that it will receive the rows of the query.
+     */
+    public void startCopyOut() {
+        assert !isCopyIn() : "startCopyOut must only be called for COPY TO STDOUT";
+        started = true;
+    }
+
+    /**
+     * @return the columns of the rows sent by {@code COPY TO STDOUT}
+     */
+    public List<Field> outputFields() {
+        return delegate.describe();
+    }
+
+    public CopyOutReceiver.Format format() {
+        return format;
+    }
+
+    public byte delimiter() {
+        return delimiter;
+    }
+
+    @Override
+    public List<Field> describe() {
+        // the columns of COPY TO STDOUT are announced by the CopyOutResponse instead of a RowDescription
+        return null;
+    }
+
+    @Override
+    public void execute(ResultReceiver resultReceiver, int maxRows) {
+        this.resultReceiver = resultReceiver;
+    }
+
+    @Override
+    public CompletableFuture<?> sync(Planner planner, JobsLogs jobsLogs) {
+        synced = true;
+        if (!started) {
+            close();
+            resultReceiver.fail(new UnsupportedFeatureException(
+                "COPY FROM STDIN and COPY TO STDOUT are only supported by the simple query flow of the " +
+                "PostgreSQL wire protocol"));
+            return resultReceiver.completionFuture();
+        }
+        delegate.execute(resultReceiver, 0);
+        CompletableFuture<?> future;
+        try {
+            future = delegate.sync(planner, jobsLogs);
+        } catch (Throwable t) {
+            closePipe();
+            throw t;
+        }
+        PipeInputStream pipe = this.pipe;
+        if (pipe == null) {
+            return future;
+        }
+        // data which the client sends after a failure is dropped by the closed pipe
+        return future.whenComplete((r, t) -> pipes.remove(pipe));
+    }
+
+    private void closePipe() {
+        if (pipe != null) {
+            pipes.remove(pipe);
+            pipe = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        closePipe();
+        if (delegate != null) {
+            delegate.close();
+            delegate = null;
+        }
+    }
+}
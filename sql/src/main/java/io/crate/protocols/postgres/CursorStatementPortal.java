@@ -0,0 +1,242 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.action.sql.ResultReceiver;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.Analyzer;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.Row;
+import io.crate.executor.Executor;
+import io.crate.operation.collect.stats.JobsLogs;
+import io.crate.planner.Planner;
+import io.crate.sql.tree.CloseCursor;
+import io.crate.sql.tree.DeclareCursor;
+import io.crate.sql.tree.FetchFromCursor;
+import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Portal for the cursor statements {@code DECLARE}, {@code FETCH} and {@code CLOSE}. See {@link Cursors}.
+ */
+public class CursorStatementPortal extends AbstractPortal {
+
+    private final Cursors cursors;
+
+    private String query;
+    private Statement statement;
+    @Nullable
+    private FormatCodes.FormatCode[] resultFormatCodes;
+    private ResultReceiver resultReceiver;
+
+    /**
+     * The portal of the cursor which is declared by this portal
+     */
+    private Portal declaredPortal;
+
+    public CursorStatementPortal(String name,
+                                 Analyzer analyzer,
+                                 Executor executor,
+                                 boolean isReadOnly,
+                                 SessionContext sessionContext,
+                                 Cursors cursors) {
+        super(name, analyzer, executor, isReadOnly, sessionContext);
+        this.cursors = cursors;
+    }
+
+    public static boolean isCursorStatement(Statement statement) {
+        return statement instanceof DeclareCursor
+               || statement instanceof FetchFromCursor
+               || statement instanceof CloseCursor;
+    }
+
+    /**
+     * @return the fields of a cursor statement; only {@code FETCH} returns a result set.
+     */
+    @Nullable
+    public static List<Field> describe(Statement statement, Cursors cursors) {
+        if (statement instanceof FetchFromCursor) {
+            return cursors.get(((FetchFromCursor) statement).name()).portal().describe();
+        }
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public FormatCodes.FormatCode[] getLastResultFormatCodes() {
+        return resultFormatCodes;
+    }
+
+    @Override
+    public List<? extends DataType> getLastOutputTypes() {
+        if (statement instanceof FetchFromCursor) {
+            return cursors.get(((FetchFromCursor) statement).name()).portal().getLastOutputTypes();
+        }
+        return null;
+    }
+
+    @Override
+    public String getLastQuery() {
+        return query;
+    }
+
+    @Override
+    public Portal bind(String statementName,
+                       String query,
+                       Statement statement,
+                       List<Object> params,
+                       @Nullable FormatCodes.FormatCode[] resultFormatCodes) {
+        if (!isCursorStatement(statement)) {
+            Portal portal = new SimplePortal(name, portalContext.getAnalyzer(), portalContext.getExecutor(),
+                portalContext.isReadOnly(), sessionContext);
+            return portal.bind(statementName, query, statement, params, resultFormatCodes);
+        }
+        this.query = query;
+        this.statement = statement;
+        this.resultFormatCodes = resultFormatCodes;
+        this.declaredPortal = null;
+        if (statement instanceof DeclareCursor) {
+            // analyze the query right away so that errors surface on DECLARE and not on the first FETCH
+            DeclareCursor declareCursor = (DeclareCursor) statement;
+            declaredPortal = new SimplePortal(declareCursor.name(), portalContext.getAnalyzer(),
+                portalContext.getExecutor(), portalContext.isReadOnly(), sessionContext)
+                .bind(statementName, query, declareCursor.query(), params, null);
+            if (declaredPortal.describe() == null) {
+                throw new IllegalArgumentException("Cursors can only be declared for queries");
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public List<Field> describe() {
+        return describe(statement, cursors);
+    }
+
+    @Override
+    public void execute(ResultReceiver resultReceiver, int maxRows) {
+        this.resultReceiver = resultReceiver;
+    }
+
+    @Override
+    public CompletableFuture<?> sync(Planner planner, JobsLogs jobsLogs) {
+        synced = true;
+        if (statement instanceof FetchFromCursor) {
+            FetchFromCursor fetch = (FetchFromCursor) statement;
+            Cursors.Cursor cursor = cursors.startFetch(fetch.name());
+            if (cursor.exhausted()) {
+                cursor.finishFetch();
+                resultReceiver.allFinished(false);
+                return resultReceiver.completionFuture();
+            }
+            Portal portal = cursor.portal();
+            portal.execute(new FetchResultReceiver(resultReceiver, cursor), fetch.count());
+            return portal.sync(planner, jobsLogs);
+        }
+        if (statement instanceof DeclareCursor) {
+            cursors.declare(((DeclareCursor) statement).name(), declaredPortal);
+            declaredPortal = null;
+        } else {
+            String cursorName = ((CloseCursor) statement).name();
+            if (cursorName == null) {
+                cursors.closeAll();
+            } else {
+                cursors.close(cursorName);
+            }
+        }
+        resultReceiver.allFinished(false);
+        return resultReceiver.completionFuture();
+    }
+
+    @Override
+    public void close() {
+        if (declaredPortal != null) {
+            declaredPortal.close();
+            declaredPortal = null;
+        }
+    }
+
+    /**
+     * Finishes the receiver of a FETCH once {@code count} rows have been received; the cursor itself stays
+     * suspended until the next FETCH.
+     */
+    private static class FetchResultReceiver implements ResultReceiver {
+
+        private final ResultReceiver delegate;
+        private final Cursors.Cursor cursor;
+        private boolean finished = false;
+
+        FetchResultReceiver(ResultReceiver delegate, Cursors.Cursor cursor) {
+            this.delegate = delegate;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void setNextRow(Row row) {
+            delegate.setNextRow(row);
+        }
+
+        @Override
+        public void batchFinished() {
+            finished = true;
+            cursor.finishFetch();
+            delegate.allFinished(false);
+        }
+
+        @Override
+        public void allFinished(boolean interrupted) {
+            cursor.markExhausted();
+            cursor.finishFetch();
+            if (!finished) {
+                // if the cursor is closed while suspended, the receiver of the last FETCH is already finished
+                finished = true;
+                delegate.allFinished(interrupted);
+            }
+        }
+
+        @Override
+        public void fail(@Nonnull Throwable t) {
+            cursor.markExhausted();
+            cursor.finishFetch();
+            if (!finished) {
+                finished = true;
+                delegate.fail(t);
+            }
+        }
+
+        @Override
+        public CompletableFuture<?> whenWritable() {
+            return delegate.whenWritable();
+        }
+
+        @Override
+        public CompletableFuture<?> completionFuture() {
+            return delegate.completionFuture();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The cursors declared within a session using {@code DECLARE name CURSOR FOR query}.
+ * <p>
+ * A cursor is backed by a {@link SimplePortal} which is executed with {@code maxRows} set to the count of each
+ * {@code FETCH}. Between fetches the portal is suspended, so the underlying BatchIterator and job stay open and
+ * only the current batch of the result is held in memory.
+ * <p>
+ * Cursors that haven't been used for longer than the idle timeout are closed by a check which is scheduled while
+ * cursors are open, and also the next time the session is used. All others are closed together with the session.
+ * A cursor which is being fetched from is never considered idle.
+ * <p>
+ * Memory used by the operations of a cursor's query (e.g. to sort the rows) is accounted by the job of the query
+ * and stays accounted until the cursor is closed. The rows of the current batch which are kept between fetches
+ * are not accounted, nor is the number of cursors per session limited.
+ */
+public class Cursors {
+
+    private static final long MIN_IDLE_CHECK_INTERVAL_MS = 1000L;
+
+    private final Map<String, Cursor> cursors = new HashMap<>();
+    private final ThreadPool threadPool;
+    private final TimeValue idleCheckInterval;
+    private final long idleTimeoutNanos;
+
+    @Nullable
+    private ThreadPool.Cancellable idleCheck;
+
+    public Cursors(ThreadPool threadPool, TimeValue idleTimeout) {
+        this.threadPool = threadPool;
+        this.idleTimeoutNanos = idleTimeout.nanos();
+        this.idleCheckInterval = TimeValue.timeValueMillis(Math.max(idleTimeout.millis(), MIN_IDLE_CHECK_INTERVAL_MS));
+    }
+
+    static class Cursor {
+
+        private final Portal portal;
+        private volatile boolean exhausted = false;
+        private volatile boolean fetching = false;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Cursor(Portal portal) {
+            this.portal = portal;
+        }
+
+        Portal portal() {
+            lastUsed = System.nanoTime();
+            return portal;
+        }
+
+        private void startFetch() {
+            fetching = true;
+            lastUsed = System.nanoTime();
+        }
+
+        void finishFetch() {
+            lastUsed = System.nanoTime();
+            fetching = false;
+        }
+
+        boolean exhausted() {
+            return exhausted;
+        }
+
+        void markExhausted() {
+            exhausted = true;
+        }
+    }
+
+    synchronized void declare(String name, Portal portal) {
+        if (cursors.containsKey(name)) {
+            throw new IllegalArgumentException("Cursor \"" + name + "\" already exists");
+        }
+        cursors.put(name, new Cursor(portal));
+        if (idleCheck == null) {
+            idleCheck = threadPool.scheduleWithFixedDelay(this::closeIdle, idleCheckInterval, ThreadPool.Names.GENERIC);
+        }
+    }
+
+    synchronized Cursor get(String name) {
+        Cursor cursor = cursors.get(name);
+        if (cursor == null) {
+            throw new IllegalArgumentException("Cursor \"" + name + "\" does not exist");
+        }
+        return cursor;
+    }
+
+    /**
+     * Looks up the cursor and marks it as being fetched from, so that it isn't closed by the idle check
+     * until {@link Cursor#finishFetch()} is called.
+     */
+    synchronized Cursor startFetch(String name) {
+        Cursor cursor = get(name);
+        cursor.startFetch();
+        return cursor;
+    }
+
+    synchronized void close(String name) {
+        Cursor cursor = cursors.remove(name);
+        if (cursor == null) {
+            throw new IllegalArgumentException("Cursor \"" + name + "\" does not exist");
+        }
+        cursor.portal.close();
+        cancelIdleCheckIfEmpty();
+    }
+
+    public synchronized void closeAll() {
+        for (Cursor cursor : cursors.values()) {
+            cursor.portal.close();
+        }
+        cursors.clear();
+        cancelIdleCheckIfEmpty();
+    }
+
+    /**
+     * Close all cursors which haven't been used for longer than the idle timeout
+     */
+    public synchronized void closeIdle() {
+        if (cursors.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Iterator<Cursor> it = cursors.values().iterator();
+        while (it.hasNext()) {
+            Cursor cursor = it.next();
+            if (!cursor.fetching && now - cursor.lastUsed > idleTimeoutNanos) {
+                it.remove();
+                cursor.portal.close();
+            }
+        }
+        cancelIdleCheckIfEmpty();
+    }
+
+    private void cancelIdleCheckIfEmpty() {
+        if (cursors.isEmpty() && idleCheck != null) {
+            idleCheck.cancel();
+            idleCheck = null;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.where.DocKeys;
+import io.crate.data.Row;
+import io.crate.metadata.ColumnIdent;
+import io.crate.planner.Plan;
+import io.crate.planner.node.dql.ESGet;
+import io.crate.sql.tree.AliasedRelation;
+import io.crate.sql.tree.AllColumns;
+import io.crate.sql.tree.ComparisonExpression;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.LogicalBinaryExpression;
+import io.crate.sql.tree.LongLiteral;
+import io.crate.sql.tree.ParameterExpression;
+import io.crate.sql.tree.QualifiedNameReference;
+import io.crate.sql.tree.Query;
+import io.crate.sql.tree.QuerySpecification;
+import io.crate.sql.tree.Relation;
+import io.crate.sql.tree.SelectItem;
+import io.crate.sql.tree.SingleColumn;
+import io.crate.sql.tree.Statement;
+import io.crate.sql.tree.StringLiteral;
+import io.crate.sql.tree.SubscriptExpression;
+import io.crate.sql.tree.Table;
+import io.crate.types.DataType;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The generic plans of the statements executed within a session.
+ * <p>
+ * A generic plan is re-used for other parameter values by binding them late, when the plan is executed,
+ * so that executing the statement again doesn't require to analyze and plan it.
+ * This is supported for primary key lookups like {@code select a, b from t where pk = $1}: the key of the
+ * resulting {@link ESGet} plan is the only part which depends on the parameters, and its routing is only resolved
+ * when the plan is executed. Other statements, including lookups in partitioned tables whose partition
+ * depends on the key, are analyzed and planned for each execution.
+ * <p>
+ * Bulk operations, be it a batch of the {@code BulkPortal} or the {@code bulk_args} of a HTTP request, don't use
+ * generic plans: they're analyzed and planned once for all of their parameter rows, so the cost is already shared
+ * by the rows. Neither do single row {@code INSERT}s; their plan contains the id, routing and partition of each row
+ * as well as the values normalized to the column types, with generated columns and not-null constraints applied,
+ * so binding other values would mean to repeat most of the analysis.
+ * <p>
+ * A plan is only used with the default schema it was created for. All plans are dropped once the cluster metadata
+ * changed, so that changed tables or privileges are taken into account by analyzing the statements again.
+ */
+public class GenericPlans {
+
+    private static final int MAX_PLANS = 64;
+
+    private final ClusterService clusterService;
+    private final Cache<Statement, GenericPlan> plans = CacheBuilder.newBuilder()
+        .weakKeys() // statements are compared by identity, the parsed statements are cached per node
+        .maximumSize(MAX_PLANS)
+        .build();
+
+    private MetaData metaData;
+
+    public GenericPlans(ClusterService clusterService) {
+        this.clusterService = clusterService;
+    }
+
+    @Nullable
+    GenericPlan get(Statement statement, String defaultSchema) {
+        MetaData currentMetaData = clusterService.state().metaData();
+        if (currentMetaData != metaData) {
+            plans.invalidateAll();
+            metaData = currentMetaData;
+            return null;
+        }
+        GenericPlan plan = plans.getIfPresent(statement);
+        if (plan == null || !plan.defaultSchema.equals(defaultSchema)) {
+            return null;
+        }
+        return plan;
+    }
+
+    /**
+     * Registers the plan of a statement as generic plan, if it fits for other parameter values as well.
+     */
+    void register(Statement statement,
+                  Plan plan,
+                  List<Field> fields,
+                  List<? extends DataType> outputTypes,
+                  int maxRows,
+                  String defaultSchema) {
+        if (metaData != clusterService.state().metaData()) {
+            // the plan might have been analyzed with a newer metadata than the one of the cached plans
+            return;
+        }
+        GenericPlan genericPlan = GenericPlan.of(statement, plan, fields, outputTypes, maxRows, defaultSchema);
+        if (genericPlan != null) {
+            plans.put(statement, genericPlan);
+        }
+    }
+
+    static class GenericPlan {
+
+        private final ESGet template;
+        private final int[] paramIdxByKeyIdx;
+        private final List<DataType> keyTypes;
+        private final List<Field> fields;
+        private final List<? extends DataType> outputTypes;
+        private final int maxRows;
+        private final String defaultSchema;
+
+        private GenericPlan(ESGet template,
+                            int[] paramIdxByKeyIdx,
+                            List<DataType> keyTypes,
+                            List<Field> fields,
+                            List<? extends DataType> outputTypes,
+                            int maxRows,
+                            String defaultSchema) {
+            this.template = template;
+            this.paramIdxByKeyIdx = paramIdxByKeyIdx;
+            this.keyTypes = keyTypes;
+            this.fields = fields;
+            this.outputTypes = outputTypes;
+            this.maxRows = maxRows;
+            this.defaultSchema = defaultSchema;
+        }
+
+        @Nullable
+        static GenericPlan of(Statement statement,
+                              Plan plan,
+                              List<Field> fields,
+                              List<? extends DataType> outputTypes,
+                              int maxRows,
+                              String defaultSchema) {
+            if (!(plan instanceof ESGet)) {
+                return null;
+            }
+            ESGet esGet = (ESGet) plan;
+            DocKeys docKeys = esGet.docKeys();
+            if (esGet.tableInfo().isPartitioned() || docKeys.size() != 1 || docKeys.withVersions()) {
+                return null;
+            }
+            Map<String, Integer> paramIdxByColumn = keyParameters(statement);
+            List<ColumnIdent> primaryKey = esGet.tableInfo().primaryKey();
+            if (paramIdxByColumn == null || paramIdxByColumn.size() != primaryKey.size()) {
+                return null;
+            }
+            List<Symbol> keyValues = docKeys.getOnlyKey().values();
+            int[] paramIdxByKeyIdx = new int[primaryKey.size()];
+            List<DataType> keyTypes = new ArrayList<>(primaryKey.size());
+            for (int i = 0; i < primaryKey.size(); i++) {
+                ColumnIdent pkColumn = primaryKey.get(i);
+                Integer paramIdx = pkColumn.isColumn() ? paramIdxByColumn.get(pkColumn.name()) : null;
+                Symbol keyValue = keyValues.get(i);
+                if (paramIdx == null || !(keyValue instanceof Literal)) {
+                    return null;
+                }
+                paramIdxByKeyIdx[i] = paramIdx;
+                keyTypes.add(keyValue.valueType());
+            }
+            return new GenericPlan(esGet, paramIdxByKeyIdx, keyTypes, fields, outputTypes, maxRows, defaultSchema);
+        }
+
+        /**
+         * @return the plan for the parameters or null if they can't be bound to the generic plan,
+         *         e.g. because a value is null or can't be converted to the type of the key column.
+         */
+        @Nullable
+        ESGet bind(Row params, int maxRows, UUID jobId) {
+            if (maxRows != this.maxRows) {
+                return null;
+            }
+            List<Symbol> key = new ArrayList<>(paramIdxByKeyIdx.length);
+            for (int i = 0; i < paramIdxByKeyIdx.length; i++) {
+                int paramIdx = paramIdxByKeyIdx[i];
+                if (paramIdx >= params.numColumns()) {
+                    return null;
+                }
+                Object value = params.get(paramIdx);
+                if (value == null) {
+                    return null;
+                }
+                DataType type = keyTypes.get(i);
+                try {
+                    key.add(Literal.of(type, type.value(value)));
+                } catch (Exception e) {
+                    // the regular analysis raises the appropriate error
+                    return null;
+                }
+            }
+            return template.withDocKeys(template.docKeys().withValues(Collections.singletonList(key)), jobId);
+        }
+
+        List<Field> fields() {
+            return fields;
+        }
+
+        List<? extends DataType> outputTypes() {
+            return outputTypes;
+        }
+    }
+
+    /**
+     * @return the parameter index by column name if the statement is a simple lookup of one row by a conjunction
+     *         of {@code column = $n} and doesn't use parameters anywhere else. Otherwise null.
+     */
+    @Nullable
+    private static Map<String, Integer> keyParameters(Statement statement) {
+        if (!(statement instanceof Query)) {
+            return null;
+        }
+        Query query = (Query) statement;
+        if (query.getWith().isPresent() || !query.getOrderBy().isEmpty() ||
+            !isConstant(query.getLimit()) || !isConstant(query.getOffset()) ||
+            !(query.getQueryBody() instanceof QuerySpecification)) {
+            return null;
+        }
+        QuerySpecification querySpec = (QuerySpecification) query.getQueryBody();
+        if (!querySpec.getGroupBy().isEmpty() || querySpec.getHaving().isPresent() ||
+            !querySpec.getOrderBy().isEmpty() || !isConstant(querySpec.getLimit()) ||
+            !isConstant(querySpec.getOffset()) || !querySpec.getWhere().isPresent() ||
+            querySpec.getFrom().size() != 1 || !isTable(querySpec.getFrom().get(0))) {
+            return null;
+        }
+        for (SelectItem selectItem : querySpec.getSelect().getSelectItems()) {
+            if (!(selectItem instanceof AllColumns) &&
+                !(selectItem instanceof SingleColumn && isColumn(((SingleColumn) selectItem).getExpression()))) {
+                return null;
+            }
+        }
+        Map<String, Integer> paramIdxByColumn = new HashMap<>();
+        if (!collectKeyParameters(querySpec.getWhere().get(), paramIdxByColumn)) {
+            return null;
+        }
+        return paramIdxByColumn;
+    }
+
+    private static boolean collectKeyParameters(Expression expression, Map<String, Integer> paramIdxByColumn) {
+        if (expression instanceof LogicalBinaryExpression) {
+            LogicalBinaryExpression and = (LogicalBinaryExpression) expression;
+            return and.getType() == LogicalBinaryExpression.Type.AND &&
+                   collectKeyParameters(and.getLeft(), paramIdxByColumn) &&
+                   collectKeyParameters(and.getRight(), paramIdxByColumn);
+        }
+        if (!(expression instanceof ComparisonExpression)) {
+            return false;
+        }
+        ComparisonExpression comparison = (ComparisonExpression) expression;
+        if (comparison.getType() != ComparisonExpression.Type.EQUAL) {
+            return false;
+        }
+        Expression column = comparison.getLeft();
+        Expression param = comparison.getRight();
+        if (column instanceof ParameterExpression) {
+            column = comparison.getRight();
+            param = comparison.getLeft();
+        }
+        if (!(column instanceof QualifiedNameReference) || !(param instanceof ParameterExpression)) {
+            return false;
+        }
+        String columnName = ((QualifiedNameReference) column).getName().getSuffix();
+        int paramIdx = ((ParameterExpression) param).index();
+        if (paramIdxByColumn.containsValue(paramIdx)) {
+            return false;
+        }
+        return paramIdxByColumn.put(columnName, paramIdx) == null;
+    }
+
+    private static boolean isTable(Relation relation) {
+        if (relation instanceof AliasedRelation) {
+            relation = ((AliasedRelation) relation).getRelation();
+        }
+        return relation instanceof Table;
+    }
+
+    private static boolean isColumn(Expression expression) {
+        if (expression instanceof SubscriptExpression) {
+            SubscriptExpression subscript = (SubscriptExpression) expression;
+            return isColumn(subscript.name()) &&
+                   (subscript.index() instanceof StringLiteral || subscript.index() instanceof LongLiteral);
+        }
+        return expression instanceof QualifiedNameReference;
+    }
+
+    private static boolean isConstant(Optional<Expression> expression) {
+        return !expression.isPresent() || expression.get() instanceof LongLiteral;
+    }
+}
@@ -93,6 +93,8 @@ public class Messages {
          */
         if ("BEGIN".equals(query)) {
             commandTag = "BEGIN";
+        } else if ("DECLARE".equals(query) || "CLOSE".equals(query)) {
+            commandTag = query + " CURSOR";
         } else if ("INSERT".equals(query)) {
             commandTag = "INSERT 0 " + rowCount;
         } else {
@@ -286,11 +288,23 @@ public class Messages {
      * The value of the column, in the format indicated by the associated format code. n is the above length.
      */
     static void sendDataRow(Channel channel, Row row, List<? extends DataType> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
+        ByteBuf buffer = channel.alloc().buffer();
+        writeDataRow(buffer, row, columnTypes, formatCodes);
+        channel.write(buffer);
+    }
+
+    /**
+     * Appends a DataRow message to the given buffer.
+     * This allows to encode multiple rows into the same buffer which is written to the channel at once.
+     *
+     * @see #sendDataRow(Channel, Row, List, FormatCodes.FormatCode[])
+     */
+    static void writeDataRow(ByteBuf buffer, Row row, List<? extends DataType> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
         int length = 4 + 2;
         assert columnTypes.size() == row.numColumns()
             : "Number of columns in the row must match number of columnTypes. Row: " + row + " types: " + columnTypes;
 
-        ByteBuf buffer = channel.alloc().buffer();
+        int startIdx = buffer.writerIndex();
         buffer.writeByte('D');
         buffer.writeInt(0); // will be set at the end
         buffer.writeShort(row.numColumns());
@@ -318,8 +332,7 @@ public class Messages {
             }
         }
 
-        buffer.setInt(1, length);
-        channel.write(buffer);
+        buffer.setInt(startIdx + 1, length);
     }
 
     static void writeCString(ByteBuf buffer, byte[] valBytes) {
@@ -431,4 +444,47 @@ public class Messages {
     static void sendCloseComplete(Channel channel) {
         sendShortMsg(channel, '3', "sentCloseComplete");
     }
+
+    /**
+     * CopyInResponse
+     * | 'G' | int32 len | int8 format | int16 numColumns | int16 columnFormat ... |
+     * <p>
+     * The data is accepted in text format (0) for any number of columns.
+     */
+    static void sendCopyInResponse(Channel channel) {
+        sendCopyResponse(channel, 'G', 0, "sentCopyInResponse");
+    }
+
+    /**
+     * CopyOutResponse
+     * | 'H' | int32 len | int8 format | int16 numColumns | int16 columnFormat ... |
+     */
+    static void sendCopyOutResponse(Channel channel, int numColumns) {
+        sendCopyResponse(channel, 'H', numColumns, "sentCopyOutResponse");
+    }
+
+    private static void sendCopyResponse(Channel channel, char msgType, int numColumns, final String traceLogMsg) {
+        int length = 4 + 1 + 2 + 2 * numColumns;
+        ByteBuf buffer = channel.alloc().buffer(length + 1);
+        buffer.writeByte(msgType);
+        buffer.writeInt(length);
+        buffer.writeByte(0);
+        buffer.writeShort(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            buffer.writeShort(0);
+        }
+        // the client waits for this message before it starts to send or receive data
+        ChannelFuture channelFuture = channel.writeAndFlush(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace(traceLogMsg));
+        }
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    static void sendCopyDone(Channel channel) {
+        sendShortMsg(channel, 'c', "sentCopyDone");
+    }
 }
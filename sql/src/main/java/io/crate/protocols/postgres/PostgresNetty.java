@@ -52,6 +52,8 @@ import org.elasticsearch.common.transport.BoundTransportAddress;
 import org.elasticsearch.common.transport.InetSocketTransportAddress;
 import org.elasticsearch.common.transport.PortsRange;
 import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.http.BindHttpException;
 import org.elasticsearch.transport.BindTransportException;
 
@@ -76,12 +78,17 @@ public class PostgresNetty extends AbstractLifecycleComponent {
     public static final CrateSetting<String> PSQL_PORT_SETTING = CrateSetting.of(new Setting<>(
         "psql.port", "5432-5532",
         Function.identity(), Setting.Property.NodeScope), DataTypes.STRING);
+    public static final CrateSetting<ByteSizeValue> PSQL_WRITE_CHUNK_SIZE_SETTING = CrateSetting.of(Setting.byteSizeSetting(
+        "psql.write_chunk_size", new ByteSizeValue(32, ByteSizeUnit.KB),
+        new ByteSizeValue(1, ByteSizeUnit.KB), new ByteSizeValue(8, ByteSizeUnit.MB),
+        Setting.Property.NodeScope), DataTypes.STRING);
 
     private final SQLOperations sqlOperations;
     private final NetworkService networkService;
 
     private final boolean enabled;
     private final String port;
+    private final int writeChunkSize;
     private final Authentication authentication;
     private final SslContextProvider sslContextProvider;
     private final Logger namedLogger;
@@ -108,6 +115,7 @@ public class PostgresNetty extends AbstractLifecycleComponent {
 
         enabled = PSQL_ENABLED_SETTING.setting().get(settings);
         port = PSQL_PORT_SETTING.setting().get(settings);
+        writeChunkSize = (int) PSQL_WRITE_CHUNK_SIZE_SETTING.setting().get(settings).getBytes();
     }
 
     @Nullable
@@ -133,8 +141,9 @@ public class PostgresNetty extends AbstractLifecycleComponent {
             protected void initChannel(Channel ch) throws Exception {
                 ChannelPipeline pipeline = ch.pipeline();
                 PostgresWireProtocol postgresWireProtocol =
-                    new PostgresWireProtocol(sqlOperations, authentication, sslContext);
+                    new PostgresWireProtocol(sqlOperations, authentication, sslContext, writeChunkSize);
                 pipeline.addLast("frame-decoder", postgresWireProtocol.decoder);
+                pipeline.addLast("writability", postgresWireProtocol.writabilityHandler);
                 pipeline.addLast("handler", postgresWireProtocol.handler);
             }
         });
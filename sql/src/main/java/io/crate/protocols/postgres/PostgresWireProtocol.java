@@ -30,7 +30,9 @@ import io.crate.collections.Lists2;
 import io.crate.operation.auth.Authentication;
 import io.crate.operation.auth.AuthenticationMethod;
 import io.crate.operation.auth.Protocol;
+import io.crate.operation.collect.files.PipeInputStream;
 import io.crate.operation.user.User;
+import io.crate.protocols.ChannelWritabilityHandler;
 import io.crate.protocols.http.CrateNettyHttpServerTransport;
 import io.crate.protocols.postgres.types.PGType;
 import io.crate.protocols.postgres.types.PGTypes;
@@ -120,6 +122,38 @@ import static io.crate.protocols.postgres.PostgresWireProtocol.State.STARTUP_HEA
  *          |     ReadyForQuery                |
  *          |<---------------------------------|
  *
+ * COPY FROM STDIN / COPY TO STDOUT (simple query only):
+ *
+ *          +                                  +
+ *          |   Q (query)                      |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |     CopyInResponse               |
+ *          |<---------------------------------|
+ *          |                                  |
+ *          |   CopyData                       |
+ *          |--------------------------------->|
+ *          |   CopyDone | CopyFail            |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |     CommandComplete              |
+ *          |<---------------------------------|
+ *          |     ReadyForQuery                |
+ *          |<---------------------------------|
+ *
+ *          or
+ *
+ *          |     CopyOutResponse              |
+ *          |<---------------------------------|
+ *          |     CopyData                     |
+ *          |<---------------------------------|
+ *          |     CopyDone                     |
+ *          |<---------------------------------|
+ *          |     CommandComplete              |
+ *          |<---------------------------------|
+ *          |     ReadyForQuery                |
+ *          |<---------------------------------|
+ *
  * Extended Query
  *
  *          +                                  +
@@ -168,15 +202,23 @@ class PostgresWireProtocol {
 
     final MessageDecoder decoder;
     final MessageHandler handler;
+    final ChannelWritabilityHandler writabilityHandler;
     private final SQLOperations sqlOperations;
     private final Authentication authService;
     private final SslReqHandler sslReqHandler;
+    private final int writeChunkSize;
 
     private int msgLength;
     private byte msgType;
     private SQLOperations.Session session;
     private boolean ignoreTillSync = false;
 
+    /**
+     * The pipe of a running {@code COPY FROM STDIN} which is fed with the CopyData messages of the client
+     */
+    @Nullable
+    private PipeInputStream copyIn;
+
     enum State {
         PRE_STARTUP,
         STARTUP_HEADER,
@@ -187,12 +229,23 @@ class PostgresWireProtocol {
 
     private State state = PRE_STARTUP;
 
+    @VisibleForTesting
     PostgresWireProtocol(SQLOperations sqlOperations, Authentication authService, @Nullable SslContext sslContext) {
+        this(sqlOperations, authService, sslContext,
+            (int) PostgresNetty.PSQL_WRITE_CHUNK_SIZE_SETTING.getDefault().getBytes());
+    }
+
+    PostgresWireProtocol(SQLOperations sqlOperations,
+                         Authentication authService,
+                         @Nullable SslContext sslContext,
+                         int writeChunkSize) {
         this.sqlOperations = sqlOperations;
+        this.writeChunkSize = writeChunkSize;
         this.authService = authService;
         this.sslReqHandler = new SslReqHandler(sslContext);
         this.decoder = new MessageDecoder();
         this.handler = new MessageHandler();
+        this.writabilityHandler = new ChannelWritabilityHandler();
     }
 
     private static void traceLogProtocol(int protocol) {
@@ -315,6 +368,15 @@ class PostgresWireProtocol {
                 case 'C':
                     handleClose(buffer, channel);
                     return;
+                case 'd':
+                    handleCopyData(buffer, channel);
+                    return;
+                case 'c':
+                    handleCopyDone();
+                    return;
+                case 'f':
+                    handleCopyFail(buffer);
+                    return;
                 case 'X': // Terminate (called when jdbc connection is closed)
                     closeSession();
                     channel.close();
@@ -340,6 +402,10 @@ class PostgresWireProtocol {
         @Override
         public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
             LOGGER.trace("channelDisconnected");
+            if (copyIn != null) {
+                copyIn.fail(new IllegalStateException("Connection closed during COPY FROM STDIN"));
+                copyIn = null;
+            }
             closeSession();
             super.channelUnregistered(ctx);
         }
@@ -551,8 +617,15 @@ class PostgresWireProtocol {
             resultReceiver = new RowCountReceiver(query, channel, session.sessionContext());
         } else {
             // query with resultSet
-            resultReceiver = new ResultSetReceiver(query, channel, session.sessionContext(), outputTypes,
-                session.getResultFormatCodes(portalName));
+            resultReceiver = new ResultSetReceiver(
+                query,
+                channel,
+                writabilityHandler,
+                session.sessionContext(),
+                outputTypes,
+                session.getResultFormatCodes(portalName),
+                writeChunkSize
+            );
         }
         session.execute(portalName, maxRows, resultReceiver);
     }
@@ -593,11 +666,15 @@ class PostgresWireProtocol {
             Messages.sendReadyForQuery(channel);
             return;
         }
+        copyIn = null;
         try {
             session.parse("", query, Collections.<DataType>emptyList());
             session.bind("", "", Collections.emptyList(), null);
+            CopyPortal copyPortal = session.getCopyPortal("");
             List<Field> fields = session.describe('P', "");
-            if (fields == null) {
+            if (copyPortal != null) {
+                startCopy(copyPortal, query, channel);
+            } else if (fields == null) {
                 RowCountReceiver rowCountReceiver = new RowCountReceiver(query, channel, session.sessionContext());
                 session.execute("", 0, rowCountReceiver);
             } else {
@@ -605,21 +682,87 @@ class PostgresWireProtocol {
                 ResultSetReceiver resultSetReceiver = new ResultSetReceiver(
                     query,
                     channel,
+                    writabilityHandler,
                     session.sessionContext(),
                     Lists2.copyAndReplace(fields, Field::valueType),
-                    null
+                    null,
+                    writeChunkSize
                 );
                 session.execute("", 0, resultSetReceiver);
             }
             ReadyForQueryCallback readyForQueryCallback = new ReadyForQueryCallback(channel);
             session.sync().whenComplete(readyForQueryCallback);
         } catch (Throwable t) {
+            copyIn = null;
             session.clearState();
             Messages.sendErrorResponse(channel, t);
             Messages.sendReadyForQuery(channel);
         }
     }
 
+    private void startCopy(CopyPortal copyPortal, String query, Channel channel) {
+        if (copyPortal.isCopyIn()) {
+            copyIn = copyPortal.startCopyIn();
+            Messages.sendCopyInResponse(channel);
+            session.execute("", 0, new RowCountReceiver(query, channel, session.sessionContext()));
+        } else {
+            copyPortal.startCopyOut();
+            List<Field> fields = copyPortal.outputFields();
+            Messages.sendCopyOutResponse(channel, fields.size());
+            CopyOutReceiver copyOutReceiver = new CopyOutReceiver(
+                query,
+                channel,
+                writabilityHandler,
+                session.sessionContext(),
+                Lists2.copyAndReplace(fields, f -> f.path().outputName()),
+                Lists2.copyAndReplace(fields, Field::valueType),
+                copyPortal.format(),
+                copyPortal.delimiter(),
+                writeChunkSize
+            );
+            session.execute("", 0, copyOutReceiver);
+        }
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data |
+     * <p>
+     * Data which is sent without a running COPY FROM STDIN, e.g. after it failed, is ignored.
+     */
+    private void handleCopyData(ByteBuf buffer, Channel channel) {
+        if (copyIn == null) {
+            buffer.skipBytes(msgLength);
+            return;
+        }
+        byte[] data = new byte[msgLength];
+        buffer.readBytes(data);
+        copyIn.write(data, producing -> channel.config().setAutoRead(producing));
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    private void handleCopyDone() {
+        if (copyIn != null) {
+            copyIn.finish();
+            copyIn = null;
+        }
+    }
+
+    /**
+     * CopyFail
+     * | 'f' | int32 len | string errorMessage |
+     */
+    private void handleCopyFail(ByteBuf buffer) {
+        String message = readCString(buffer);
+        if (copyIn != null) {
+            copyIn.fail(new IllegalStateException("COPY FROM STDIN failed: " + message));
+            copyIn = null;
+        }
+    }
+
 
     /**
      * FrameDecoder that makes sure that a full message is in the buffer before delegating work to the MessageHandler
@@ -26,51 +26,93 @@ import io.crate.action.sql.BaseResultReceiver;
 import io.crate.data.Row;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.operation.user.ExceptionAuthorizedValidator;
+import io.crate.protocols.ChannelWritabilityHandler;
 import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * ResultReceiver which sends the rows as DataRow messages to the client.
+ * <p>
+ * Rows are encoded into a shared buffer which is written to the channel once it exceeds {@code writeChunkSize} bytes.
+ * The channel is only flushed once a batch or the whole result is finished, or if it becomes unwritable
+ * because the client doesn't keep up. In that case consuming the result is paused until the channel is writable again.
+ */
 class ResultSetReceiver extends BaseResultReceiver {
 
     private final String query;
     private final Channel channel;
+    private final ChannelWritabilityHandler writabilityHandler;
     private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
     private final List<? extends DataType> columnTypes;
+    private final int writeChunkSize;
 
     @Nullable
     private final FormatCodes.FormatCode[] formatCodes;
 
+    @Nullable
+    private ByteBuf pendingRows;
     private long rowCount = 0;
 
     ResultSetReceiver(String query,
                       Channel channel,
+                      ChannelWritabilityHandler writabilityHandler,
                       ExceptionAuthorizedValidator exceptionAuthorizedValidator,
                       List<? extends DataType> columnTypes,
-                      @Nullable FormatCodes.FormatCode[] formatCodes) {
+                      @Nullable FormatCodes.FormatCode[] formatCodes,
+                      int writeChunkSize) {
         this.query = query;
         this.channel = channel;
+        this.writabilityHandler = writabilityHandler;
         this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
         this.columnTypes = columnTypes;
         this.formatCodes = formatCodes;
+        this.writeChunkSize = writeChunkSize;
     }
 
     @Override
     public void setNextRow(Row row) {
         rowCount++;
-        Messages.sendDataRow(channel, row, columnTypes, formatCodes);
+        if (pendingRows == null) {
+            pendingRows = channel.alloc().buffer(writeChunkSize);
+        }
+        Messages.writeDataRow(pendingRows, row, columnTypes, formatCodes);
+        if (pendingRows.readableBytes() >= writeChunkSize) {
+            writePendingRows();
+        }
+    }
+
+    private void writePendingRows() {
+        if (pendingRows != null) {
+            channel.write(pendingRows);
+            pendingRows = null;
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> whenWritable() {
+        if (channel.isWritable()) {
+            return null;
+        }
+        writePendingRows();
+        return writabilityHandler.whenWritable(channel);
     }
 
     @Override
     public void batchFinished() {
+        writePendingRows();
         Messages.sendPortalSuspended(channel);
         Messages.sendReadyForQuery(channel);
     }
 
     @Override
     public void allFinished(boolean interrupted) {
+        writePendingRows();
         if (interrupted) {
             super.allFinished(true);
         } else {
@@ -80,6 +122,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void fail(@Nonnull Throwable throwable) {
+        writePendingRows();
         Messages.sendErrorResponse(channel, SQLExceptions.createSQLActionException(throwable, exceptionAuthorizedValidator))
             .addListener(f -> super.fail(throwable));
     }
@@ -65,6 +65,11 @@ class RetryOnFailureResultReceiver implements ResultReceiver {
         delegate.allFinished(interrupted);
     }
 
+    @Override
+    public CompletableFuture<?> whenWritable() {
+        return delegate.whenWritable();
+    }
+
     @Override
     public void fail(@Nonnull Throwable t) {
         t = SQLExceptions.unwrap(t);
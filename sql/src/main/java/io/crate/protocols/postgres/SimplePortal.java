@@ -66,14 +66,34 @@ public class SimplePortal extends AbstractPortal {
     private int maxRows = 0;
     private int defaultLimit;
     private Row rowParams;
+    private List<Field> fields;
+
+    @Nullable
+    private final GenericPlans genericPlans;
+    @Nullable
+    private GenericPlans.GenericPlan genericPlan;
 
     public SimplePortal(String name,
                         Analyzer analyzer,
                         Executor executor,
                         boolean isReadOnly,
                         SessionContext sessionContext) {
+        this(name, analyzer, executor, isReadOnly, sessionContext, null);
+    }
+
+    /**
+     * @param genericPlans if not null, statements are executed using their generic plan if there is one
+     *                     instead of analyzing and planning them again
+     */
+    public SimplePortal(String name,
+                        Analyzer analyzer,
+                        Executor executor,
+                        boolean isReadOnly,
+                        SessionContext sessionContext,
+                        @Nullable GenericPlans genericPlans) {
         super(name, analyzer, executor, isReadOnly, sessionContext);
         this.defaultLimit = sessionContext.defaultLimit();
+        this.genericPlans = genericPlans;
     }
 
     @Override
@@ -112,13 +132,13 @@ public class SimplePortal extends AbstractPortal {
                 fields(),
                 resultReceiver, maxRows, this.params, sessionContext, portalContext);
             return portal.bind(statementName, query, statement, params, resultFormatCodes);
-        } else if (this.statement != null && this.analysis != null) {
+        } else if (this.statement != null && (this.analysis != null || this.genericPlan != null)) {
             assert consumer == null : "Existing portal must not have a consumer";
             if (portalContext.isReadOnly()) { // Cannot have a batch operation in read only mode
                 throw new ReadOnlyException();
             }
             BatchPortal portal = new BatchPortal(
-                name, this.query, analysis, outputTypes, resultReceiver, this.params, sessionContext, portalContext);
+                name, this.query, analysis(), outputTypes, resultReceiver, this.params, sessionContext, portalContext);
             return portal.bind(statementName, query, statement, params, resultFormatCodes);
         }
 
@@ -127,6 +147,21 @@ public class SimplePortal extends AbstractPortal {
         this.params = params;
         this.rowParams = new RowN(params.toArray());
         this.resultFormatCodes = resultFormatCodes;
+        if (analysis == null) {
+            if (genericPlans != null) {
+                genericPlan = genericPlans.get(statement, sessionContext.defaultSchema());
+            }
+            if (genericPlan == null) {
+                analysis();
+            } else {
+                fields = genericPlan.fields();
+                outputTypes = genericPlan.outputTypes();
+            }
+        }
+        return this;
+    }
+
+    private Analysis analysis() {
         if (analysis == null) {
             analysis = portalContext.getAnalyzer().boundAnalyze(
                 statement,
@@ -134,10 +169,11 @@ public class SimplePortal extends AbstractPortal {
                 new ParameterContext(this.rowParams, Collections.emptyList()));
             AnalyzedRelation rootRelation = analysis.rootRelation();
             if (rootRelation != null) {
-                this.outputTypes = Lists2.copyAndReplace(rootRelation.fields(), Field::valueType);
+                this.fields = rootRelation.fields();
+                this.outputTypes = Lists2.copyAndReplace(fields, Field::valueType);
             }
         }
-        return this;
+        return analysis;
     }
 
     @Override
@@ -155,15 +191,20 @@ public class SimplePortal extends AbstractPortal {
     @Override
     public CompletableFuture<?> sync(Planner planner, JobsLogs jobsLogs) {
         UUID jobId = UUID.randomUUID();
-        Plan plan;
-        try {
-            plan = planner.plan(analysis, jobId, defaultLimit, maxRows);
-        } catch (Throwable t) {
-            jobsLogs.logPreExecutionFailure(jobId, query, SQLExceptions.messageOf(t), sessionContext.user());
-            throw t;
+        Plan plan = genericPlan == null ? null : genericPlan.bind(rowParams, maxRows, jobId);
+        if (plan == null) {
+            try {
+                plan = planner.plan(analysis(), jobId, defaultLimit, maxRows);
+            } catch (Throwable t) {
+                jobsLogs.logPreExecutionFailure(jobId, query, SQLExceptions.messageOf(t), sessionContext.user());
+                throw t;
+            }
+            if (genericPlans != null && consumer == null) {
+                genericPlans.register(statement, plan, fields, outputTypes, maxRows, sessionContext.defaultSchema());
+            }
         }
 
-        if (!analysis.analyzedStatement().isWriteOperation()) {
+        if (analysis == null || !analysis.analyzedStatement().isWriteOperation()) {
             resultReceiver = new RetryOnFailureResultReceiver(
                 resultReceiver, jobId, newJobId -> retryQuery(planner, newJobId));
         }
@@ -220,10 +261,7 @@ public class SimplePortal extends AbstractPortal {
     }
 
     private List<Field> fields() {
-        if (analysis.rootRelation() == null) {
-            return null;
-        }
-        return analysis.rootRelation().fields();
+        return fields;
     }
 
 }
@@ -116,6 +116,14 @@ public abstract class PGType {
     public abstract Object readBinaryValue(ByteBuf buffer, int valueLength);
 
 
+    /**
+     * Return the UTF8 encoded text representation of the value without a length prefix,
+     * e.g. to be used as field of the text format of COPY.
+     */
+    public byte[] encodeAsText(@Nonnull Object value) {
+        return encodeAsUTF8Text(value);
+    }
+
     /**
      * Return the UTF8 encoded text representation of the value
      */
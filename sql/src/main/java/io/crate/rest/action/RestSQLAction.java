@@ -56,6 +56,7 @@ import org.elasticsearch.rest.RestController;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -71,9 +72,11 @@ import static io.crate.action.sql.SQLOperations.Session.UNNAMED;
 @Singleton
 public class RestSQLAction extends BaseRestHandler {
 
-    private static final String REQUEST_HEADER_USER = "User";
-    private static final String REQUEST_HEADER_SCHEMA = "Default-Schema";
-    private static final int DEFAULT_SOFT_LIMIT = 10_000;
+    static final String REQUEST_HEADER_USER = "User";
+    static final String REQUEST_HEADER_SCHEMA = "Default-Schema";
+    static final int DEFAULT_SOFT_LIMIT = 10_000;
+    static final String PARAM_FORMAT = "format";
+    static final String FORMAT_BINARY = "binary";
 
     private final SQLOperations sqlOperations;
     private final UserManager userManager;
@@ -135,17 +138,31 @@ public class RestSQLAction extends BaseRestHandler {
 
     @Override
     protected Set<String> responseParams() {
-        return ImmutableSet.of("types");
+        return ImmutableSet.of("types", PARAM_FORMAT, SqlHttpStreamHandler.PARAM_STREAM);
     }
 
     private static Set<Option> toOptions(RestRequest request) {
-        String user = request.header(REQUEST_HEADER_USER);
+        return toOptions(request.header(REQUEST_HEADER_USER));
+    }
+
+    static Set<Option> toOptions(@Nullable String user) {
         if (user != null && !user.isEmpty() && user.toLowerCase(Locale.ENGLISH).contains("odbc")) {
             return EnumSet.of(Option.ALLOW_QUOTED_SUBSCRIPT);
         }
         return Option.NONE;
     }
 
+    /**
+     * The binary result format is used if requested using either {@code ?format=binary} or the Accept header.
+     */
+    static boolean wantsBinaryResult(RestRequest request) {
+        if (FORMAT_BINARY.equals(request.param(PARAM_FORMAT))) {
+            return true;
+        }
+        String accept = request.header("Accept");
+        return accept != null && accept.contains(ResultToBinaryBuilder.CONTENT_TYPE);
+    }
+
     @VisibleForTesting
     User userFromRequest(RestRequest request) {
         String user = request.header(AuthSettings.HTTP_HEADER_USER);
@@ -180,17 +197,25 @@ public class RestSQLAction extends BaseRestHandler {
                     }
                 };
             }
+            boolean binaryResult = wantsBinaryResult(request);
             return channel -> {
                 try {
-                    ResultReceiver resultReceiver = new RestResultSetReceiver(
-                        channel,
-                        session.sessionContext(),
-                        outputFields,
-                        startTime,
-                        new RowAccounting(
-                            Symbols.typeView(outputFields),
-                            new RamAccountingContext("http-result", circuitBreaker)),
-                        request.paramAsBoolean("types", false));
+                    RowAccounting rowAccounting = new RowAccounting(
+                        Symbols.typeView(outputFields),
+                        new RamAccountingContext("http-result", circuitBreaker));
+                    ResultReceiver resultReceiver;
+                    if (binaryResult) {
+                        resultReceiver = new RestBinaryResultSetReceiver(
+                            channel, session.sessionContext(), outputFields, startTime, rowAccounting);
+                    } else {
+                        resultReceiver = new RestResultSetReceiver(
+                            channel,
+                            session.sessionContext(),
+                            outputFields,
+                            startTime,
+                            rowAccounting,
+                            request.paramAsBoolean("types", false));
+                    }
                     session.execute(UNNAMED, 0, resultReceiver);
                     session.sync();
                 } catch (Throwable t) {
@@ -0,0 +1,257 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import io.crate.Streamer;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.Row;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.IpType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Column oriented binary alternative to {@link ResultToXContentBuilder}.
+ * <p>
+ * Layout of the result (numbers are big-endian, vint/vlong and strings are encoded as done by {@link StreamOutput}):
+ * <pre>
+ *  vint    number of columns
+ *          per column: name (string), type (see {@link DataTypes#toStream(DataType, StreamOutput)})
+ *  vlong   number of rows
+ *          per column: encoding (byte) followed by the column values
+ *  float   duration in ms
+ * </pre>
+ * Encodings:
+ * <ul>
+ *  <li>{@link #ENCODING_FIXED}: used for numeric, boolean and timestamp columns. A bitmap of ceil(rows / 8) bytes
+ *  in which a set bit marks a null value, followed by one fixed width value per row (1 byte for byte/boolean,
+ *  2 for short, 4 for integer/float and 8 for long/timestamp/double; nulls are written as 0).</li>
+ *  <li>{@link #ENCODING_DICTIONARY}: used for string and ip columns. vint number of distinct values followed by
+ *  the values (vint length + utf-8 bytes), followed by one int per row containing the index into the
+ *  dictionary or -1 for null.</li>
+ *  <li>{@link #ENCODING_STREAMER}: used for all other types. One value per row written by the
+ *  {@link Streamer} of the column type.</li>
+ * </ul>
+ */
+class ResultToBinaryBuilder {
+
+    static final String CONTENT_TYPE = "application/vnd.crate.binary";
+
+    static final byte ENCODING_FIXED = 0;
+    static final byte ENCODING_DICTIONARY = 1;
+    static final byte ENCODING_STREAMER = 2;
+
+    private final List<Field> fields;
+    private final Column[] columns;
+    private int numRows = 0;
+
+    ResultToBinaryBuilder(List<Field> fields) {
+        this.fields = fields;
+        this.columns = new Column[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = newColumn(fields.get(i).valueType());
+        }
+    }
+
+    private static Column newColumn(DataType type) {
+        switch (type.id()) {
+            case ByteType.ID:
+            case BooleanType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case TimestampType.ID:
+            case FloatType.ID:
+            case DoubleType.ID:
+                return new FixedColumn(type.id());
+
+            case StringType.ID:
+            case IpType.ID:
+                return new DictionaryColumn();
+
+            default:
+                return new StreamerColumn(type.streamer());
+        }
+    }
+
+    ResultToBinaryBuilder addRow(Row row) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].add(numRows, row.get(i));
+        }
+        numRows++;
+        return this;
+    }
+
+    BytesReference build(long startTime) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.writeVInt(fields.size());
+        for (Field field : fields) {
+            out.writeString(field.path().outputName());
+            DataTypes.toStream(field.valueType(), out);
+        }
+        out.writeVLong(numRows);
+        for (Column column : columns) {
+            column.writeTo(out, numRows);
+        }
+        out.writeFloat((float) ((System.nanoTime() - startTime) / 1_000_000.0));
+        return out.bytes();
+    }
+
+    private abstract static class Column {
+
+        final BytesStreamOutput values = new BytesStreamOutput();
+
+        abstract void add(int rowIdx, Object value) throws IOException;
+
+        abstract void writeTo(StreamOutput out, int numRows) throws IOException;
+    }
+
+    private static class FixedColumn extends Column {
+
+        private final int typeId;
+        private final BitSet nulls = new BitSet();
+
+        FixedColumn(int typeId) {
+            this.typeId = typeId;
+        }
+
+        @Override
+        void add(int rowIdx, Object value) throws IOException {
+            if (value == null) {
+                nulls.set(rowIdx);
+            }
+            switch (typeId) {
+                case BooleanType.ID:
+                    values.writeByte(value != null && (Boolean) value ? (byte) 1 : (byte) 0);
+                    break;
+
+                case ByteType.ID:
+                    values.writeByte(value == null ? 0 : ((Number) value).byteValue());
+                    break;
+
+                case ShortType.ID:
+                    values.writeShort(value == null ? 0 : ((Number) value).shortValue());
+                    break;
+
+                case IntegerType.ID:
+                    values.writeInt(value == null ? 0 : ((Number) value).intValue());
+                    break;
+
+                case FloatType.ID:
+                    values.writeFloat(value == null ? 0f : ((Number) value).floatValue());
+                    break;
+
+                case DoubleType.ID:
+                    values.writeDouble(value == null ? 0d : ((Number) value).doubleValue());
+                    break;
+
+                default:
+                    values.writeLong(value == null ? 0L : ((Number) value).longValue());
+            }
+        }
+
+        @Override
+        void writeTo(StreamOutput out, int numRows) throws IOException {
+            out.writeByte(ENCODING_FIXED);
+            byte[] bitmap = new byte[(numRows + 7) / 8];
+            for (int i = nulls.nextSetBit(0); i >= 0; i = nulls.nextSetBit(i + 1)) {
+                bitmap[i >> 3] |= 1 << (i & 7);
+            }
+            out.writeBytes(bitmap);
+            values.bytes().writeTo(out);
+        }
+    }
+
+    private static class DictionaryColumn extends Column {
+
+        private final ObjectIntHashMap<BytesRef> indexByValue = new ObjectIntHashMap<>();
+        private final List<BytesRef> dictionary = new ArrayList<>();
+
+        @Override
+        void add(int rowIdx, Object value) throws IOException {
+            if (value == null) {
+                values.writeInt(-1);
+                return;
+            }
+            BytesRef bytesRef = value instanceof BytesRef ? (BytesRef) value : new BytesRef(value.toString());
+            int idx = indexByValue.getOrDefault(bytesRef, -1);
+            if (idx == -1) {
+                idx = dictionary.size();
+                // row values may be backed by re-used buffers
+                BytesRef copy = BytesRef.deepCopyOf(bytesRef);
+                dictionary.add(copy);
+                indexByValue.put(copy, idx);
+            }
+            values.writeInt(idx);
+        }
+
+        @Override
+        void writeTo(StreamOutput out, int numRows) throws IOException {
+            out.writeByte(ENCODING_DICTIONARY);
+            out.writeVInt(dictionary.size());
+            for (BytesRef value : dictionary) {
+                out.writeVInt(value.length);
+                out.writeBytes(value.bytes, value.offset, value.length);
+            }
+            values.bytes().writeTo(out);
+        }
+    }
+
+    private static class StreamerColumn extends Column {
+
+        private final Streamer<?> streamer;
+
+        StreamerColumn(Streamer<?> streamer) {
+            this.streamer = streamer;
+        }
+
+        @Override
+        void add(int rowIdx, Object value) throws IOException {
+            streamer.writeValueTo(values, value);
+        }
+
+        @Override
+        void writeTo(StreamOutput out, int numRows) throws IOException {
+            out.writeByte(ENCODING_STREAMER);
+            values.bytes().writeTo(out);
+        }
+    }
+}
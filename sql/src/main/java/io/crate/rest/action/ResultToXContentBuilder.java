@@ -22,6 +22,7 @@
 
 package io.crate.rest.action;
 
+import io.crate.action.sql.SQLActionException;
 import io.crate.analyze.symbol.Field;
 import io.crate.data.Row;
 import io.crate.types.CollectionType;
@@ -32,6 +33,8 @@ import org.elasticsearch.rest.RestChannel;
 import java.io.IOException;
 import java.util.List;
 
+import static io.crate.exceptions.Exceptions.userFriendlyMessage;
+
 class ResultToXContentBuilder {
 
 
@@ -43,17 +46,24 @@ class ResultToXContentBuilder {
         static final String ROW_COUNT = "rowcount";
         static final String DURATION = "duration";
         static final String ERROR_MESSAGE = "error_message";
+        static final String ERROR = "error";
+        static final String ERROR_MESSAGE_SHORT = "message";
+        static final String ERROR_CODE = "code";
     }
 
     private final XContentBuilder builder;
 
-    private ResultToXContentBuilder(RestChannel channel) throws IOException {
-        builder = channel.newBuilder();
+    private ResultToXContentBuilder(XContentBuilder builder) throws IOException {
+        this.builder = builder;
         builder.startObject();
     }
 
     static ResultToXContentBuilder builder(RestChannel channel) throws IOException {
-        return new ResultToXContentBuilder(channel);
+        return new ResultToXContentBuilder(channel.newBuilder());
+    }
+
+    static ResultToXContentBuilder builder(XContentBuilder builder) throws IOException {
+        return new ResultToXContentBuilder(builder);
     }
 
     ResultToXContentBuilder cols(List<Field> fields) throws IOException {
@@ -144,6 +154,14 @@ class ResultToXContentBuilder {
         return this;
     }
 
+    ResultToXContentBuilder error(SQLActionException e) throws IOException {
+        builder.startObject(FIELDS.ERROR)
+            .field(FIELDS.ERROR_MESSAGE_SHORT, userFriendlyMessage(e))
+            .field(FIELDS.ERROR_CODE, e.errorCode())
+            .endObject();
+        return this;
+    }
+
     XContentBuilder build() throws IOException {
         builder.endObject();
         return builder;
@@ -0,0 +1,264 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.SQLActionException;
+import io.crate.action.sql.SQLOperations;
+import io.crate.action.sql.parser.SQLXContentSourceContext;
+import io.crate.action.sql.parser.SQLXContentSourceParser;
+import io.crate.analyze.symbol.Field;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.operation.auth.AuthSettings;
+import io.crate.operation.user.User;
+import io.crate.operation.user.UserManager;
+import io.crate.protocols.ChannelWritabilityHandler;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.http.HttpTransportSettings;
+import org.elasticsearch.rest.RestStatus;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.crate.action.sql.SQLOperations.Session.UNNAMED;
+
+/**
+ * Handler for {@code POST /_sql?stream=true} requests.
+ * <p>
+ * The regular {@link RestSQLAction} has to build the whole response before it can be sent, because the
+ * {@link org.elasticsearch.rest.RestChannel} only accepts complete responses.
+ * This handler is added to the HTTP pipeline in front of the aggregator and instead writes the result as chunked
+ * response using a {@link StreamingResultSetReceiver}. Result consumption is paused while the channel is not
+ * writable, so the memory used per request stays bounded independent of the result size.
+ * <p>
+ * As the request body is collected here instead of in the aggregator, {@code http.max_content_length} is enforced
+ * by this handler: larger requests are answered with {@code 413 Request Entity Too Large} and the connection is closed.
+ * <p>
+ * All other requests are passed on unchanged.
+ */
+class SqlHttpStreamHandler extends ChannelWritabilityHandler {
+
+    static final String PARAM_STREAM = "stream";
+    private static final String SQL_ENDPOINT = "/_sql";
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final Logger LOGGER = Loggers.getLogger(SqlHttpStreamHandler.class);
+
+    private final Settings settings;
+    private final SQLOperations sqlOperations;
+    private final UserManager userManager;
+    private final int maxContentLength;
+
+    private HttpRequest currentRequest;
+    private CompositeByteBuf body;
+
+    SqlHttpStreamHandler(Settings settings, SQLOperations sqlOperations, UserManager userManager) {
+        this.settings = settings;
+        this.sqlOperations = sqlOperations;
+        this.userManager = userManager;
+        this.maxContentLength = (int) Math.min(
+            Integer.MAX_VALUE, HttpTransportSettings.SETTING_HTTP_MAX_CONTENT_LENGTH.get(settings).getBytes());
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            if (!isStreamRequest(request)) {
+                ctx.fireChannelRead(msg);
+                return;
+            }
+            if (HttpUtil.getContentLength(request, -1L) > maxContentLength) {
+                // keep the request to discard its remaining content
+                currentRequest = msg instanceof LastHttpContent ? null : request;
+                ReferenceCountUtil.release(msg);
+                sendRequestTooLarge(ctx);
+                return;
+            }
+            currentRequest = request;
+            body = ctx.alloc().compositeBuffer();
+        }
+        if (currentRequest == null) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        if (msg instanceof HttpContent) {
+            try {
+                // body is null if the request has been rejected; the remaining content is discarded
+                if (body != null) {
+                    ByteBuf content = ((HttpContent) msg).content();
+                    if (body.readableBytes() + content.readableBytes() > maxContentLength) {
+                        body.release();
+                        body = null;
+                        sendRequestTooLarge(ctx);
+                    } else {
+                        body.addComponent(true, content.retain());
+                    }
+                }
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+            if (msg instanceof LastHttpContent) {
+                if (body == null) {
+                    reset();
+                    return;
+                }
+                HttpRequest request = currentRequest;
+                byte[] source = ByteBufUtil.getBytes(body);
+                reset();
+                handleRequest(ctx, request, source);
+            }
+        } else {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    private static boolean isStreamRequest(HttpRequest request) {
+        if (!request.method().equals(HttpMethod.POST)) {
+            return false;
+        }
+        return new QueryStringDecoder(request.uri()).path().equals(SQL_ENDPOINT) && paramAsBoolean(request, PARAM_STREAM);
+    }
+
+    private static boolean paramAsBoolean(HttpRequest request, String param) {
+        List<String> values = new QueryStringDecoder(request.uri()).parameters().get(param);
+        if (values == null || values.isEmpty()) {
+            return false;
+        }
+        // same semantics as RestRequest#paramAsBoolean: a parameter without value (e.g. `?types`) is true
+        String value = values.get(values.size() - 1);
+        return !(value.equals("false") || value.equals("0") || value.equals("off") || value.equals("no"));
+    }
+
+    private void handleRequest(ChannelHandlerContext ctx, HttpRequest request, byte[] source) throws Exception {
+        boolean keepAlive = HttpUtil.isKeepAlive(request);
+        if (source.length == 0) {
+            sendBadRequest(ctx, "missing request body", keepAlive);
+            return;
+        }
+        SQLXContentSourceContext context = new SQLXContentSourceContext();
+        try {
+            new SQLXContentSourceParser(context).parseSource(new BytesArray(source));
+        } catch (Exception e) {
+            sendBadRequest(ctx, e.getMessage(), keepAlive);
+            return;
+        }
+        if (context.bulkArgs() != null && context.bulkArgs().length > 0) {
+            sendBadRequest(ctx, "bulk_args are not supported for streamed requests", keepAlive);
+            return;
+        }
+
+        SQLOperations.Session session = sqlOperations.createSession(
+            request.headers().get(RestSQLAction.REQUEST_HEADER_SCHEMA),
+            userFromRequest(request),
+            RestSQLAction.toOptions(request.headers().get(RestSQLAction.REQUEST_HEADER_USER)),
+            RestSQLAction.DEFAULT_SOFT_LIMIT);
+        try {
+            long startTime = System.nanoTime();
+            session.parse(UNNAMED, context.stmt(), Collections.emptyList());
+            List<Object> args = context.args() == null ? Collections.emptyList() : Arrays.asList(context.args());
+            session.bind(UNNAMED, UNNAMED, args, null);
+            List<Field> outputFields = session.describe('P', UNNAMED);
+            if (outputFields == null) {
+                sendBadRequest(ctx, "Only statements which return a result set can be streamed", keepAlive);
+                return;
+            }
+            StreamingResultSetReceiver receiver = new StreamingResultSetReceiver(
+                ctx.channel(),
+                this,
+                session.sessionContext(),
+                outputFields,
+                startTime,
+                paramAsBoolean(request, "types"),
+                keepAlive,
+                CHUNK_SIZE);
+            session.execute(UNNAMED, 0, receiver);
+            session.sync();
+        } catch (Throwable t) {
+            StreamingResultSetReceiver.sendErrorResponse(
+                ctx.channel(), SQLExceptions.createSQLActionException(t, session.sessionContext()), keepAlive);
+        }
+    }
+
+    private User userFromRequest(HttpRequest request) {
+        String user = request.headers().get(AuthSettings.HTTP_HEADER_USER);
+        if (user == null) {
+            user = AuthSettings.AUTH_TRUST_HTTP_DEFAULT_HEADER.setting().get(settings);
+        }
+        return userManager.findUser(user);
+    }
+
+    private static void sendBadRequest(ChannelHandlerContext ctx, String errorMsg, boolean keepAlive) throws Exception {
+        StreamingResultSetReceiver.sendErrorResponse(
+            ctx.channel(), new SQLActionException(errorMsg, 4000, RestStatus.BAD_REQUEST), keepAlive);
+    }
+
+    private void sendRequestTooLarge(ChannelHandlerContext ctx) throws Exception {
+        // the connection is closed as the client may still be sending the rest of the body
+        StreamingResultSetReceiver.sendErrorResponse(
+            ctx.channel(),
+            new SQLActionException(
+                "request body exceeds the maximum content length of " + maxContentLength + " bytes",
+                4130,
+                RestStatus.REQUEST_ENTITY_TOO_LARGE),
+            false);
+    }
+
+    private void reset() {
+        currentRequest = null;
+        if (body != null) {
+            body.release();
+            body = null;
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        reset();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        if (currentRequest == null) {
+            super.exceptionCaught(ctx, cause);
+            return;
+        }
+        LOGGER.warn("failure while reading streamed sql request", cause);
+        reset();
+        ctx.close();
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.SQLOperations;
+import io.crate.operation.user.UserManager;
+import io.crate.plugin.PipelineRegistry;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Provider;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+
+/**
+ * Class that if instantiated causes the {@link SqlHttpStreamHandler} to be registered in the {@link PipelineRegistry}
+ * <p>
+ * The handler is added in front of the {@code blob_handler} so that handlers which have to see every request (like
+ * the {@code auth_handler}) can be placed in front of it.
+ */
+@Singleton
+public class SqlHttpStreamHandlerRegistry {
+
+    @Inject
+    public SqlHttpStreamHandlerRegistry(Settings settings,
+                                        PipelineRegistry pipelineRegistry,
+                                        SQLOperations sqlOperations,
+                                        Provider<UserManager> userManagerProvider) {
+        pipelineRegistry.addBefore(new PipelineRegistry.ChannelPipelineItem(
+            "blob_handler",
+            "sql_stream_handler",
+            () -> new SqlHttpStreamHandler(settings, sqlOperations, userManagerProvider.get())
+        ));
+    }
+}
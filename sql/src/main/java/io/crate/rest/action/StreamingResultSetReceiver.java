@@ -0,0 +1,268 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLActionException;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.Row;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.operation.user.ExceptionAuthorizedValidator;
+import io.crate.protocols.ChannelWritabilityHandler;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ResultReceiver which streams the result to the client using chunked transfer encoding.
+ * <p>
+ * The response has the same structure as the one produced by {@link RestResultSetReceiver}, but the rows are
+ * written to the channel in chunks of roughly {@code chunkSize} bytes while they're received:
+ * <pre>
+ *     {"cols": [...], "rows": [ ...chunks... ], "rowcount": n, "duration": d}
+ * </pre>
+ * If the execution fails before anything has been sent a regular error response is sent.
+ * Otherwise the status can no longer be changed and an {@code "error"} object is added after the rows instead.
+ */
+class StreamingResultSetReceiver extends BaseResultReceiver {
+
+    private static final Logger LOGGER = Loggers.getLogger(StreamingResultSetReceiver.class);
+
+    private final Channel channel;
+    private final ChannelWritabilityHandler writabilityHandler;
+    private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final List<Field> outputFields;
+    private final long startTime;
+    private final boolean includeTypes;
+    private final boolean keepAlive;
+    private final int chunkSize;
+    private final ChunkOutputStream out;
+
+    private XContentBuilder xContentBuilder;
+    private ResultToXContentBuilder builder;
+    private long rowCount;
+
+    StreamingResultSetReceiver(Channel channel,
+                               ChannelWritabilityHandler writabilityHandler,
+                               ExceptionAuthorizedValidator exceptionAuthorizedValidator,
+                               List<Field> outputFields,
+                               long startTime,
+                               boolean includeTypes,
+                               boolean keepAlive,
+                               int chunkSize) {
+        this.channel = channel;
+        this.writabilityHandler = writabilityHandler;
+        this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
+        this.outputFields = outputFields;
+        this.startTime = startTime;
+        this.includeTypes = includeTypes;
+        this.keepAlive = keepAlive;
+        this.chunkSize = chunkSize;
+        this.out = new ChunkOutputStream(channel);
+    }
+
+    private boolean started() {
+        return builder != null;
+    }
+
+    private void start() throws IOException {
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json; charset=UTF-8");
+        HttpUtil.setTransferEncodingChunked(response, true);
+        HttpUtil.setKeepAlive(response, keepAlive);
+        channel.write(response);
+
+        xContentBuilder = XContentFactory.jsonBuilder(out);
+        builder = ResultToXContentBuilder.builder(xContentBuilder);
+        builder.cols(outputFields);
+        if (includeTypes) {
+            builder.colTypes(outputFields);
+        }
+        builder.startRows();
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        try {
+            if (!started()) {
+                start();
+            }
+            builder.addRow(row, outputFields.size());
+            rowCount++;
+            if (out.size() >= chunkSize) {
+                out.writeChunk();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> whenWritable() {
+        if (channel.isWritable()) {
+            return null;
+        }
+        if (started()) {
+            try {
+                xContentBuilder.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            out.writeChunk();
+        }
+        return writabilityHandler.whenWritable(channel);
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        try {
+            if (!started()) {
+                start();
+            }
+            builder
+                .finishRows()
+                .rowCount(rowCount)
+                .duration(startTime)
+                .build()
+                .close();
+            finish();
+            super.allFinished(interrupted);
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        SQLActionException sqlActionException =
+            SQLExceptions.createSQLActionException(t, exceptionAuthorizedValidator);
+        try {
+            if (started()) {
+                builder
+                    .finishRows()
+                    .rowCount(rowCount)
+                    .error(sqlActionException)
+                    .build()
+                    .close();
+                finish();
+            } else {
+                sendErrorResponse(channel, sqlActionException, keepAlive);
+            }
+        } catch (Throwable e) {
+            LOGGER.error("failed to send failure response", e);
+            channel.close();
+        } finally {
+            super.fail(t);
+        }
+    }
+
+    private void finish() {
+        out.writeChunk();
+        ChannelFuture future = channel.writeAndFlush(new DefaultLastHttpContent());
+        if (!keepAlive) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    static void sendErrorResponse(Channel channel, SQLActionException e, boolean keepAlive) throws IOException {
+        XContentBuilder builder = ResultToXContentBuilder.builder(XContentFactory.jsonBuilder())
+            .error(e)
+            .build();
+        FullHttpResponse response = new DefaultFullHttpResponse(
+            HttpVersion.HTTP_1_1,
+            HttpResponseStatus.valueOf(e.status().getStatus()),
+            Unpooled.wrappedBuffer(BytesReference.toBytes(builder.bytes())));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json; charset=UTF-8");
+        HttpUtil.setContentLength(response, response.content().readableBytes());
+        HttpUtil.setKeepAlive(response, keepAlive);
+        ChannelFuture future = channel.writeAndFlush(response);
+        if (!keepAlive) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * OutputStream which collects the generated JSON into a buffer that is written to the channel as a chunk
+     * on {@link #writeChunk()}.
+     */
+    private static class ChunkOutputStream extends OutputStream {
+
+        private final Channel channel;
+        private ByteBuf buffer;
+
+        ChunkOutputStream(Channel channel) {
+            this.channel = channel;
+        }
+
+        private ByteBuf buffer() {
+            if (buffer == null) {
+                buffer = channel.alloc().buffer();
+            }
+            return buffer;
+        }
+
+        int size() {
+            return buffer == null ? 0 : buffer.readableBytes();
+        }
+
+        @Override
+        public void write(int b) {
+            buffer().writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer().writeBytes(b, off, len);
+        }
+
+        void writeChunk() {
+            if (buffer != null && buffer.isReadable()) {
+                channel.write(new DefaultHttpContent(buffer));
+                buffer = null;
+            }
+        }
+    }
+}
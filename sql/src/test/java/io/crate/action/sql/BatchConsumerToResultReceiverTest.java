@@ -31,6 +31,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -78,4 +79,78 @@ public class BatchConsumerToResultReceiverTest {
         consumer.accept(FailingBatchIterator.failOnAllLoaded(), null);
         assertThat(resultReceiver.completionFuture().isCompletedExceptionally(), is(true));
     }
+
+    @Test
+    public void testConsumptionIsPausedUntilReceiverIsWritable() throws Exception {
+        CompletableFuture<Void> writable = new CompletableFuture<>();
+        final List<Object[]> collectedRows = new ArrayList<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public void setNextRow(Row row) {
+                super.setNextRow(row);
+                collectedRows.add(row.materialize());
+            }
+
+            @Override
+            public CompletableFuture<?> whenWritable() {
+                return writable.isDone() ? null : writable;
+            }
+        };
+        BatchConsumerToResultReceiver consumer = new BatchConsumerToResultReceiver(resultReceiver, 0);
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        assertThat(collectedRows.size(), is(1));
+        assertThat(resultReceiver.completionFuture().isDone(), is(false));
+
+        writable.complete(null);
+        resultReceiver.completionFuture().get(10, TimeUnit.SECONDS);
+        assertThat(collectedRows.size(), is(10));
+    }
+
+    @Test
+    public void testCompletedWritableFuturesDoNotNestConsumption() throws Exception {
+        final List<Object[]> collectedRows = new ArrayList<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public void setNextRow(Row row) {
+                super.setNextRow(row);
+                collectedRows.add(row.materialize());
+            }
+
+            @Override
+            public CompletableFuture<?> whenWritable() {
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        BatchConsumerToResultReceiver consumer = new BatchConsumerToResultReceiver(resultReceiver, 0);
+
+        // would run into a StackOverflowError if every row was consumed by a nested call
+        consumer.accept(TestingBatchIterators.range(0, 100_000), null);
+        resultReceiver.completionFuture().get(10, TimeUnit.SECONDS);
+        assertThat(collectedRows.size(), is(100_000));
+    }
+
+    @Test
+    public void testFailedWritableFutureStopsConsumption() throws Exception {
+        final List<Object[]> collectedRows = new ArrayList<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public void setNextRow(Row row) {
+                super.setNextRow(row);
+                collectedRows.add(row.materialize());
+            }
+
+            @Override
+            public CompletableFuture<?> whenWritable() {
+                CompletableFuture<Void> closed = new CompletableFuture<>();
+                closed.completeExceptionally(new IllegalStateException("Connection closed"));
+                return closed;
+            }
+        };
+        BatchConsumerToResultReceiver consumer = new BatchConsumerToResultReceiver(resultReceiver, 0);
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        assertThat(resultReceiver.completionFuture().isCompletedExceptionally(), is(true));
+        assertThat(collectedRows.size(), is(1));
+    }
 }
@@ -75,6 +75,28 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(analysis.uri(), isLiteral("/some/distant/file.ext"));
     }
 
+    @Test
+    public void testCopyFromCsvWithDelimiter() throws Exception {
+        CopyFromAnalyzedStatement analysis = e.analyze(
+            "copy users from '/some/distant/file.csv' with (format='csv', delimiter=';')");
+        assertThat(analysis.settings().get("format"), is("csv"));
+        assertThat(analysis.settings().get("delimiter"), is(";"));
+    }
+
+    @Test
+    public void testCopyFromWithUnsupportedFormat() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("'xml' is not an allowed value. Allowed values are: json, csv");
+        e.analyze("copy users from '/some/distant/file.xml' with (format='xml')");
+    }
+
+    @Test
+    public void testCopyFromCsvWithInvalidDelimiter() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Setting \"delimiter\" must be a single ASCII character, got ';;'");
+        e.analyze("copy users from '/some/distant/file.csv' with (format='csv', delimiter=';;')");
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testCopyFromPartitionedTablePARTITIONKeywordTooManyArgs() throws Exception {
         e.analyze("copy parted partition (a=1, b=2, c=3) from '/some/distant/file.ext'");
@@ -262,6 +284,40 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         e.analyze("copy users to directory '/blah' with (format='json_array')");
     }
 
+    @Test
+    public void testCopyToFileWithCsvFormatRequiresColumns() throws Exception {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("Output format not supported without specifying columns.");
+        e.analyze("copy users to directory '/blah' with (format='csv')");
+    }
+
+    @Test
+    public void testCopyToFileWithCompressionAndFileSizeParams() throws Exception {
+        int compressionThreads = Runtime.getRuntime().availableProcessors();
+        CopyToAnalyzedStatement analysis = e.analyze(
+            "copy users (id, name) to directory '/blah' with (format='csv', compression='gzip', " +
+            "compression_level=1, compression_threads=" + compressionThreads + ", max_file_size='1mb')");
+        assertThat(analysis.outputFormat(), is(WriterProjection.OutputFormat.CSV));
+        assertThat(analysis.settings().getAsInt("compression_level", null), is(1));
+        assertThat(analysis.settings().getAsInt("compression_threads", null), is(compressionThreads));
+        assertThat(analysis.settings().getAsBytesSize("max_file_size", null).getBytes(), is(1024L * 1024L));
+    }
+
+    @Test
+    public void testCopyToFileWithInvalidCompressionLevel() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid value for argument 'compression_level'");
+        e.analyze("copy users (id, name) to directory '/blah' with (compression='gzip', compression_level=10)");
+    }
+
+    @Test
+    public void testCopyToFileWithMoreCompressionThreadsThanProcessors() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid value for argument 'compression_threads'");
+        e.analyze("copy users (id, name) to directory '/blah' with (compression='gzip', compression_threads=" +
+                  (Runtime.getRuntime().availableProcessors() + 1) + ")");
+    }
+
     @Test
     public void testCopyFromWithReferenceAssignedToProperty() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
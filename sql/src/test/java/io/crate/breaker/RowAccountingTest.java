@@ -22,11 +22,13 @@
 
 package io.crate.breaker;
 
+import io.crate.data.Row1;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.RowGenerator;
 import io.crate.types.DataTypes;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
@@ -36,6 +38,9 @@ import org.junit.Test;
 
 import java.util.Collections;
 
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
 public class RowAccountingTest extends CrateUnitTest {
 
     private long originalBufferSize;
@@ -63,4 +68,15 @@ public class RowAccountingTest extends CrateUnitTest {
         expectedException.expect(CircuitBreakingException.class);
         RowGenerator.range(0, 3).forEach(rowAccounting::accountForAndMaybeBreak);
     }
+
+    @Test
+    public void testAccountedBytesAreReturned() throws Exception {
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("test", new NoopCircuitBreaker("dummy"));
+        RowAccounting rowAccounting = new RowAccounting(Collections.singletonList(DataTypes.INTEGER), ramAccountingContext);
+
+        long accounted = rowAccounting.accountForAndMaybeBreak(new Row1(1));
+
+        assertThat(accounted, greaterThan(0L));
+        assertThat(ramAccountingContext.totalBytes(), is(accounted));
+    }
 }
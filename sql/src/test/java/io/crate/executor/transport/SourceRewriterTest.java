@@ -0,0 +1,100 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import com.google.common.collect.ImmutableSet;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SourceRewriterTest extends CrateUnitTest {
+
+    private static final BytesArray SOURCE = new BytesArray(
+        "{\"x\":1,\"o\":{\"a\":\"foo\",\"b\":[1,2]},\"n\":null,\"s\":\"bar\"}");
+
+    private static String rewrite(Map<String, Object> changes) throws Exception {
+        BytesReference updatedSource = SourceRewriter.rewrite(SOURCE, changes);
+        return updatedSource == null ? null : updatedSource.utf8ToString();
+    }
+
+    @Test
+    public void testReadTopLevelFields() throws Exception {
+        Map<String, Object> values = SourceRewriter.readTopLevelFields(SOURCE, ImmutableSet.of("x", "o", "n", "missing"));
+
+        assertThat(values.size(), is(3));
+        assertThat(values.get("x"), is(1));
+        Map<String, Object> o = new HashMap<>();
+        o.put("a", "foo");
+        o.put("b", Arrays.asList(1, 2));
+        assertThat(values.get("o"), is(o));
+        assertThat(values.get("n"), nullValue());
+    }
+
+    @Test
+    public void testRewriteTopLevelField() throws Exception {
+        assertThat(rewrite(Collections.singletonMap("x", 2)),
+            is("{\"x\":2,\"o\":{\"a\":\"foo\",\"b\":[1,2]},\"n\":null,\"s\":\"bar\"}"));
+    }
+
+    @Test
+    public void testRewriteNestedFieldAndAddNewFields() throws Exception {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("o.b", Arrays.asList(3, 4));
+        changes.put("o.c", true);
+        changes.put("y", "new");
+        changes.put("p.q", 1);
+        assertThat(rewrite(changes),
+            is("{\"x\":1,\"o\":{\"a\":\"foo\",\"b\":[3,4],\"c\":true},\"n\":null,\"s\":\"bar\",\"y\":\"new\",\"p\":{\"q\":1}}"));
+    }
+
+    @Test
+    public void testRewriteReplacesObject() throws Exception {
+        assertThat(rewrite(Collections.singletonMap("o", Collections.singletonMap("z", 1))),
+            is("{\"x\":1,\"o\":{\"z\":1},\"n\":null,\"s\":\"bar\"}"));
+    }
+
+    @Test
+    public void testRewriteChangesOfPathAndParentAreNotHandled() throws Exception {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("o", Collections.singletonMap("z", 1));
+        changes.put("o.a", "baz");
+        assertThat(rewrite(changes), nullValue());
+    }
+
+    @Test
+    public void testRewriteNullObject() throws Exception {
+        expectedException.expect(NullPointerException.class);
+        expectedException.expectMessage("Object n is null, cannot write {x=5} onto it");
+        rewrite(Collections.singletonMap("n.x", 5));
+    }
+}
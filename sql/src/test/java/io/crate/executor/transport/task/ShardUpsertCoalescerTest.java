@@ -0,0 +1,159 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport.task;
+
+import io.crate.executor.transport.ShardResponse;
+import io.crate.executor.transport.ShardUpsertRequest;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class ShardUpsertCoalescerTest extends CrateUnitTest {
+
+    private static final Reference ID_REF = new Reference(
+        new ReferenceIdent(new TableIdent(Schemas.DOC_SCHEMA_NAME, "t"), "id"), RowGranularity.DOC, DataTypes.INTEGER);
+
+    private final ShardId shardId = new ShardId("t", UUIDs.randomBase64UUID(), 0);
+    private final List<ShardUpsertRequest> sentRequests = new ArrayList<>();
+    private final List<ActionListener<ShardResponse>> sentListeners = new ArrayList<>();
+    private ShardUpsertCoalescer coalescer;
+
+    @Before
+    public void setUpCoalescer() {
+        coalescer = new ShardUpsertCoalescer((request, listener) -> {
+            sentRequests.add(request);
+            sentListeners.add(listener);
+        });
+    }
+
+    private ShardUpsertRequest newRequest(int id) {
+        ShardUpsertRequest request = new ShardUpsertRequest.Builder(
+            false,
+            false,
+            null,
+            new Reference[]{ID_REF},
+            UUID.randomUUID(),
+            false
+        ).newRequest(shardId, null);
+        request.add(0, new ShardUpsertRequest.Item(String.valueOf(id), null, new Object[]{id}, null));
+        return request;
+    }
+
+    private static BitSet written(CompletableFuture<ShardResponse> response) throws Exception {
+        BitSet bitSet = new BitSet();
+        ShardResponse.markResponseItemsAndFailures(response.get(), bitSet);
+        return bitSet;
+    }
+
+    private static ActionListener<ShardResponse> listener(CompletableFuture<ShardResponse> future) {
+        return ActionListener.wrap(future::complete, future::completeExceptionally);
+    }
+
+    @Test
+    public void testConcurrentUpsertsAreMergedWhileARequestIsInFlight() throws Exception {
+        CompletableFuture<ShardResponse> first = new CompletableFuture<>();
+        CompletableFuture<ShardResponse> second = new CompletableFuture<>();
+        CompletableFuture<ShardResponse> third = new CompletableFuture<>();
+        coalescer.execute(newRequest(1), listener(first));
+        coalescer.execute(newRequest(2), listener(second));
+        coalescer.execute(newRequest(3), listener(third));
+
+        assertThat(sentRequests.size(), is(1));
+        assertThat(sentRequests.get(0).continueOnError(), is(true));
+
+        ShardResponse firstResponse = new ShardResponse();
+        firstResponse.add(0);
+        sentListeners.get(0).onResponse(firstResponse);
+
+        assertThat(first.isDone(), is(true));
+        assertThat(sentRequests.size(), is(2));
+        ShardUpsertRequest mergedRequest = sentRequests.get(1);
+        assertThat(mergedRequest.items().size(), is(2));
+        assertThat(mergedRequest.items().get(0).id(), is("2"));
+        assertThat(mergedRequest.items().get(1).id(), is("3"));
+
+        ShardResponse mergedResponse = new ShardResponse();
+        mergedResponse.add(0);
+        mergedResponse.add(1);
+        sentListeners.get(1).onResponse(mergedResponse);
+
+        assertThat(written(second).get(0), is(true));
+        assertThat(written(third).get(0), is(true));
+    }
+
+    @Test
+    public void testFailedRowIsSentAgainInItsOriginalRequest() throws Exception {
+        ShardUpsertRequest request = newRequest(1);
+        CompletableFuture<ShardResponse> response = new CompletableFuture<>();
+        coalescer.execute(request, listener(response));
+
+        ShardResponse mergedResponse = new ShardResponse();
+        mergedResponse.add(0, mock(ShardResponse.Failure.class));
+        sentListeners.get(0).onResponse(mergedResponse);
+
+        assertThat(response.isDone(), is(false));
+        assertThat(sentRequests.size(), is(2));
+        assertThat(sentRequests.get(1), sameInstance(request));
+    }
+
+    @Test
+    public void testFailureOfMergedRequestIsPassedToAllListeners() throws Exception {
+        CompletableFuture<ShardResponse> first = new CompletableFuture<>();
+        coalescer.execute(newRequest(1), listener(first));
+
+        sentListeners.get(0).onFailure(new IllegalStateException("dummy"));
+
+        expectedException.expectCause(instanceOf(IllegalStateException.class));
+        first.get();
+    }
+
+    @Test
+    public void testRequestsWithMultipleRowsArePassedThrough() throws Exception {
+        ShardUpsertRequest request = newRequest(1);
+        request.add(1, new ShardUpsertRequest.Item("2", null, new Object[]{2}, null));
+        coalescer.execute(request, listener(new CompletableFuture<>()));
+
+        assertThat(sentRequests.size(), is(1));
+        assertThat(sentRequests.get(0), sameInstance(request));
+    }
+}
@@ -23,7 +23,9 @@
 package io.crate.integrationtests;
 
 import io.crate.action.sql.SQLOperations;
+import io.crate.shade.org.postgresql.PGConnection;
 import io.crate.shade.org.postgresql.PGProperty;
+import io.crate.shade.org.postgresql.copy.CopyManager;
 import io.crate.shade.org.postgresql.jdbc.PreferQueryMode;
 import io.crate.shade.org.postgresql.util.PSQLException;
 import io.crate.shade.org.postgresql.util.PSQLState;
@@ -33,6 +35,8 @@ import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -167,6 +171,36 @@ public class PostgresITest extends SQLTransportIntegrationTest {
         }
     }
 
+    @Test
+    public void testFetchFromCursor() throws Exception {
+        try (Connection conn = DriverManager.getConnection(JDBC_CRATE_URL, properties)) {
+            conn.setAutoCommit(true);
+            Statement statement = conn.createStatement();
+            statement.executeUpdate("create table t (x int) with (number_of_replicas = 0)");
+            statement.executeUpdate("insert into t (x) values (1), (2), (3)");
+            statement.executeUpdate("refresh table t");
+
+            statement.execute("declare c cursor for select x from t order by x");
+
+            ResultSet resultSet = statement.executeQuery("fetch 2 from c");
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(1));
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(2));
+            assertThat(resultSet.next(), is(false));
+
+            resultSet = statement.executeQuery("fetch all from c");
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(3));
+            assertThat(resultSet.next(), is(false));
+
+            resultSet = statement.executeQuery("fetch from c");
+            assertThat(resultSet.next(), is(false));
+
+            statement.execute("close c");
+        }
+    }
+
     @Test
     public void testPreparedStatementHandling() throws Exception {
         Properties properties = new Properties();
@@ -672,6 +706,52 @@ public class PostgresITest extends SQLTransportIntegrationTest {
         }
     }
 
+    @Test
+    public void testCopyFromStdin() throws Exception {
+        try (Connection conn = DriverManager.getConnection(JDBC_CRATE_URL, properties)) {
+            conn.createStatement().executeUpdate(
+                "create table t (id int primary key, name string) with (number_of_replicas=0)");
+            ensureYellow();
+
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            long rowCount = copyManager.copyIn(
+                "copy t from stdin",
+                new StringReader("{\"id\": 1, \"name\": \"foo\"}\n{\"id\": 2, \"name\": \"bar\"}\n"));
+            assertThat(rowCount, is(2L));
+
+            conn.createStatement().executeUpdate("refresh table t");
+            ResultSet resultSet = conn.createStatement().executeQuery("select id, name from t order by id");
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(1));
+            assertThat(resultSet.getString(2), is("foo"));
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(2));
+            assertThat(resultSet.getString(2), is("bar"));
+            assertThat(resultSet.next(), is(false));
+        }
+    }
+
+    @Test
+    public void testCopyToStdout() throws Exception {
+        try (Connection conn = DriverManager.getConnection(JDBC_CRATE_URL, properties)) {
+            conn.createStatement().executeUpdate(
+                "create table t (id int primary key, name string) with (number_of_replicas=0)");
+            ensureYellow();
+            conn.createStatement().executeUpdate("insert into t (id, name) values (1, 'foo'), (2, null)");
+            conn.createStatement().executeUpdate("refresh table t");
+
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            StringWriter writer = new StringWriter();
+            long rowCount = copyManager.copyOut("copy (select id, name from t order by id) to stdout", writer);
+            assertThat(rowCount, is(2L));
+            assertThat(writer.toString(), is("1\tfoo\n2\t\\N\n"));
+
+            writer = new StringWriter();
+            copyManager.copyOut("copy (select id, name from t order by id) to stdout with (format = 'csv')", writer);
+            assertThat(writer.toString(), is("id,name\n1,foo\n2,\n"));
+        }
+    }
+
     private void assertSelectNameFromSysClusterWorks(Connection conn) throws SQLException {
         PreparedStatement stmt;// verify that queries can be made after an error occurred
         stmt = conn.prepareStatement("select name from sys.cluster");
@@ -111,7 +111,7 @@ public class TestingTableInfo extends DocTableInfo {
         private final ImmutableMap.Builder<ColumnIdent, IndexReference> indexColumns = ImmutableMap.builder();
         private ColumnIdent clusteredBy;
 
-        private final int numberOfShards = 1;
+        private int numberOfShards = 1;
         private final BytesRef numberOfReplicas = new BytesRef("0");
 
         private final TableIdent ident;
@@ -274,6 +274,11 @@ public class TestingTableInfo extends DocTableInfo {
             return this;
         }
 
+        public Builder numberOfShards(int numberOfShards) {
+            this.numberOfShards = numberOfShards;
+            return this;
+        }
+
         public Builder isAlias(boolean isAlias) {
             this.isAlias = isAlias;
             return this;
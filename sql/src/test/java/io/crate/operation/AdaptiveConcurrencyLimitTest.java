@@ -0,0 +1,95 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.core.Is.is;
+
+public class AdaptiveConcurrencyLimitTest extends CrateUnitTest {
+
+    private long nanoTime = 0L;
+    private AdaptiveConcurrencyLimit limit;
+
+    @Before
+    public void setupLimit() {
+        limit = new AdaptiveConcurrencyLimit("n1", () -> nanoTime);
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    public void testInitialLimit() {
+        assertThat(limit.get(), is(NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS));
+    }
+
+    @Test
+    public void testLimitGrowsAdditivelyWithStableLatency() {
+        // about limit (5) successful operations increase the limit by one
+        for (int i = 0; i < 6; i++) {
+            limit.onSuccess(millis(10));
+        }
+        assertThat(limit.get(), is(6L));
+    }
+
+    @Test
+    public void testLimitIsCapped() {
+        for (int i = 0; i < 10_000; i++) {
+            limit.onSuccess(millis(10));
+        }
+        assertThat(limit.get(), is((long) AdaptiveConcurrencyLimit.MAX_LIMIT));
+    }
+
+    @Test
+    public void testRejectionHalvesLimit() {
+        nanoTime = millis(100);
+        limit.onRejection();
+        assertThat(limit.get(), is(2L));
+    }
+
+    @Test
+    public void testHighLatencyHalvesLimitOncePerAverageLatency() {
+        limit.onSuccess(millis(10));
+        nanoTime = millis(100);
+        limit.onSuccess(millis(50));
+        assertThat(limit.get(), is(2L));
+
+        // responses of requests which were in-flight at the same time don't decrease the limit again
+        limit.onSuccess(millis(50));
+        assertThat(limit.get(), is(2L));
+
+        nanoTime = millis(200);
+        limit.onRejection();
+        assertThat(limit.get(), is(1L));
+
+        nanoTime = millis(300);
+        limit.onRejection();
+        assertThat(limit.get(), is((long) AdaptiveConcurrencyLimit.MIN_LIMIT));
+    }
+}
@@ -74,4 +74,16 @@ public class NodeJobsCounterTest extends CrateUnitTest {
             fail("Did not expect unregistering a job for a null node to fail but got: " + e.getMessage());
         }
     }
+
+    @Test
+    public void testConcurrencyLimitIsAdjustedPerNode() {
+        assertThat(nodeJobsCounter.getConcurrencyLimitForNode("node1"), is(NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS));
+
+        nodeJobsCounter.onOperationRejected("node1");
+        nodeJobsCounter.onOperationRejected(null);
+
+        assertThat(nodeJobsCounter.getConcurrencyLimitForNode("node1"), is(2L));
+        assertThat(nodeJobsCounter.getConcurrencyLimitForNode("node2"), is(NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS));
+        assertThat(nodeJobsCounter.getConcurrencyLimitForNode(null), is(NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS));
+    }
 }
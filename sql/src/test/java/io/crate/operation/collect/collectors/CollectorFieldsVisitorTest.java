@@ -0,0 +1,83 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
+import org.elasticsearch.index.mapper.UidFieldMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CollectorFieldsVisitorTest extends CrateUnitTest {
+
+    private DirectoryReader reader;
+
+    @Before
+    public void prepareReader() throws Exception {
+        IndexWriter iw = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        Document doc = new Document();
+        doc.add(new StoredField(UidFieldMapper.NAME, "default#1"));
+        doc.add(new StoredField(SourceFieldMapper.NAME, new BytesRef("{\"x\": 1}")));
+        iw.addDocument(doc);
+        iw.commit();
+        reader = DirectoryReader.open(iw);
+    }
+
+    @After
+    public void closeReader() throws Exception {
+        reader.close();
+    }
+
+    @Test
+    public void testSourceIsNotLoadedIfOnlyUidIsRequired() throws Exception {
+        CollectorFieldsVisitor visitor = new CollectorFieldsVisitor(1);
+        visitor.addField(UidFieldMapper.NAME);
+        reader.document(0, visitor);
+
+        assertThat(visitor.uid().id(), is("1"));
+        assertThat(visitor.source(), nullValue());
+    }
+
+    @Test
+    public void testSourceIsLoadedIfRequired() throws Exception {
+        CollectorFieldsVisitor visitor = new CollectorFieldsVisitor(1);
+        visitor.addField(SourceFieldMapper.NAME);
+        reader.document(0, visitor);
+
+        assertThat(visitor.source(), notNullValue());
+        assertThat(visitor.source().utf8ToString(), is("{\"x\": 1}"));
+    }
+}
@@ -22,6 +22,7 @@
 
 package io.crate.operation.collect.files;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import io.crate.data.BatchIterator;
 import io.crate.data.Input;
@@ -31,26 +32,34 @@ import io.crate.metadata.FunctionResolver;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Reference;
 import io.crate.operation.InputFactory;
+import io.crate.operation.reference.file.CSVLineParser;
 import io.crate.operation.reference.file.FileLineReferenceResolver;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.TestingBatchConsumer;
+import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
 
 public class FileReadingIteratorTest extends CrateUnitTest {
 
@@ -90,7 +99,72 @@ public class FileReadingIteratorTest extends CrateUnitTest {
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
 
+    @Test
+    public void testLargeFilesOnSharedStorageAreSplitIntoRanges() throws Exception {
+        Path path = createTempFile();
+        List<String> lines = new ArrayList<>();
+        try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(path.toFile()), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 100; i++) {
+                String line = "{\"id\": " + i + ", \"name\": \"" + Strings.repeat("x", i % 13) + "\"}";
+                lines.add(line);
+                writer.write(line);
+                writer.write(i % 2 == 0 ? "\n" : "\r\n");
+            }
+        }
+
+        int numReaders = 3;
+        List<String> readLines = new ArrayList<>();
+        for (int readerNumber = 0; readerNumber < numReaders; readerNumber++) {
+            TestingBatchConsumer consumer = new TestingBatchConsumer();
+            consumer.accept(createBatchIterator(
+                Collections.singletonList(path.toUri().toString()), null, true, numReaders, readerNumber, null, 1L), null);
+            List<Object[]> result = consumer.getResult();
+            assertThat(result.size(), greaterThan(0));
+            for (Object[] row : result) {
+                readLines.add(((BytesRef) row[0]).utf8ToString());
+            }
+        }
+        assertThat(readLines, is(lines));
+    }
+
+    @Test
+    public void testCsvFileSplitIntoRangesIsConvertedToJson() throws Exception {
+        Path path = createTempFile();
+        List<String> expectedSources = new ArrayList<>();
+        try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(path.toFile()), StandardCharsets.UTF_8)) {
+            writer.write("id,name,details\n");
+            for (int i = 0; i < 50; i++) {
+                writer.write(i + ",\"Arthur, \"\"" + i + "\"\"\",\"{\"\"age\"\": " + i + "}\"\n");
+                expectedSources.add("{\"id\":" + i + ",\"name\":\"Arthur, \\\"" + i + "\\\"\",\"details\":{\"age\":" + i + "}}");
+            }
+        }
+
+        Map<String, DataType> columnTypes = ImmutableMap.of("id", DataTypes.INTEGER, "details", DataTypes.OBJECT);
+        int numReaders = 2;
+        List<String> sources = new ArrayList<>();
+        for (int readerNumber = 0; readerNumber < numReaders; readerNumber++) {
+            TestingBatchConsumer consumer = new TestingBatchConsumer();
+            consumer.accept(createBatchIterator(
+                Collections.singletonList(path.toUri().toString()), null, true, numReaders, readerNumber,
+                new CSVLineParser(',', '"', columnTypes), 1L), null);
+            for (Object[] row : consumer.getResult()) {
+                sources.add(((BytesRef) row[0]).utf8ToString());
+            }
+        }
+        assertThat(sources, is(expectedSources));
+    }
+
     private BatchIterator createBatchIterator(Collection<String> fileUris, String compression) {
+        return createBatchIterator(fileUris, compression, false, 1, 0, null, Long.MAX_VALUE);
+    }
+
+    private BatchIterator createBatchIterator(Collection<String> fileUris,
+                                              String compression,
+                                              boolean shared,
+                                              int numReaders,
+                                              int readerNumber,
+                                              @Nullable CSVLineParser csvParser,
+                                              long minSplitSizeBytes) {
         Reference raw = createReference("_raw", DataTypes.STRING);
         InputFactory.Context<LineCollectorExpression<?>> ctx =
             inputFactory.ctxForRefs(FileLineReferenceResolver::getImplementation);
@@ -102,9 +176,11 @@ public class FileReadingIteratorTest extends CrateUnitTest {
             compression,
             ImmutableMap.of(
                 LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
-            false,
-            1,
-            0
+            shared,
+            numReaders,
+            readerNumber,
+            csvParser,
+            minSplitSizeBytes
         );
     }
 }
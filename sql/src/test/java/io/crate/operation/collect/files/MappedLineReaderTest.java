@@ -0,0 +1,71 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+
+public class MappedLineReaderTest extends CrateUnitTest {
+
+    private static List<String> readLines(Path path, long position, long maxRegionSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (LineReader reader = new MappedLineReader(FileChannel.open(path, StandardOpenOption.READ), position, maxRegionSize)) {
+            while (reader.readLine()) {
+                lines.add(new String(reader.line(), StandardCharsets.UTF_8));
+            }
+            assertThat(reader.position(), is(Files.size(path)));
+        }
+        return lines;
+    }
+
+    @Test
+    public void testLinesSpanningRegionsAreRemapped() throws Exception {
+        Path path = createTempFile();
+        Files.write(path, "foo\r\nbarbaz\n\nqux".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(readLines(path, 0, 7), is(Arrays.asList("foo", "barbaz", "", "qux")));
+        assertThat(readLines(path, 5, 7), is(Arrays.asList("barbaz", "", "qux")));
+    }
+
+    @Test
+    public void testLineLongerThanRegionFails() throws Exception {
+        Path path = createTempFile();
+        Files.write(path, "foo\nbarbaz\n".getBytes(StandardCharsets.UTF_8));
+
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Line at position 4 is longer than 4 bytes");
+        readLines(path, 0, 4);
+    }
+}
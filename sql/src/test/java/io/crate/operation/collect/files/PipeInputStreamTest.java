@@ -0,0 +1,136 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import com.google.common.io.ByteStreams;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PipeInputStreamTest extends CrateUnitTest {
+
+    private static final URI URI = java.net.URI.create("pipe:///test");
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testReadReturnsChunksUntilFinished() throws Exception {
+        PipeInputStream pipe = new PipeInputStream(URI, 1024, 10_000);
+        CompletableFuture<String> content = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new String(ByteStreams.toByteArray(pipe), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        pipe.write(bytes("{\"x\": 1}\n{\"x\""), b -> {});
+        pipe.write(bytes(": 2}\n"), b -> {});
+        pipe.finish();
+
+        assertThat(content.get(), is("{\"x\": 1}\n{\"x\": 2}\n"));
+    }
+
+    @Test
+    public void testReadFailsIfPipeFailed() throws Exception {
+        PipeInputStream pipe = new PipeInputStream(URI, 1024, 10_000);
+        pipe.write(bytes("foo"), b -> {});
+        pipe.fail(new IllegalStateException("client aborted"));
+
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("client aborted");
+        pipe.read();
+    }
+
+    @Test
+    public void testReadFailsIfProducerStalls() throws Exception {
+        PipeInputStream pipe = new PipeInputStream(URI, 1024, 50);
+        pipe.write(bytes("foo"), b -> {});
+        assertThat(pipe.read(new byte[3], 0, 3), is(3));
+
+        try {
+            pipe.read();
+            fail("read should fail if no data is received within the idle timeout");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("No data received for pipe:///test within 50ms"));
+            assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        }
+
+        // the pipe stays failed, data which arrives late is dropped
+        pipe.write(bytes("bar"), b -> {});
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("No data received for pipe:///test within 50ms");
+        pipe.read();
+    }
+
+    @Test
+    public void testProducerIsPausedWhileBufferIsFull() throws Exception {
+        PipeInputStream pipe = new PipeInputStream(URI, 4, 10_000);
+        List<Boolean> producing = new ArrayList<>();
+        pipe.write(bytes("ab"), producing::add);
+        assertThat(producing.isEmpty(), is(true));
+        pipe.write(bytes("cd"), producing::add);
+        assertThat(producing, contains(false));
+
+        assertThat(pipe.read(new byte[2], 0, 2), is(2));
+        assertThat(producing, contains(false, true));
+    }
+
+    @Test
+    public void testWritesAfterCloseAreDroppedAndResumeProducer() throws Exception {
+        PipeInputStream pipe = new PipeInputStream(URI, 4, 10_000);
+        List<Boolean> producing = new ArrayList<>();
+        pipe.write(bytes("abcd"), producing::add);
+        assertThat(producing, contains(false));
+
+        pipe.close();
+        assertThat(producing, contains(false, true));
+
+        pipe.write(bytes("abcd"), producing::add);
+        assertThat(producing, contains(false, true));
+    }
+
+    @Test
+    public void testRemovedPipeIsUnregistered() throws Exception {
+        Pipes pipes = new Pipes();
+        PipeInputStream pipe = pipes.create();
+        assertThat(pipe.uri().getScheme(), is(Pipes.SCHEME));
+        assertThat(pipes.get(pipe.uri()), is(pipe));
+
+        pipes.remove(pipe);
+        assertThat(pipes.get(pipe.uri()), nullValue());
+    }
+}
@@ -37,7 +37,10 @@ import java.util.function.Predicate;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -92,6 +95,19 @@ public class S3FileInputTest extends CrateUnitTest {
         assertThat(uris.get(1).toString(), is("s3://fakeBucket/prefix/test2.json.gz"));
     }
 
+    @Test
+    public void testSizeOfListedObjectsIsTakenFromTheListing() throws Exception {
+        List<S3ObjectSummary> summaries = objectSummaries();
+        summaries.get(0).setSize(10L);
+        summaries.get(1).setSize(20L);
+        when(objectListing.getObjectSummaries()).thenReturn(summaries);
+
+        List<URI> uris = s3FileInput.listUris(uri, uriPredicate);
+        assertThat(s3FileInput.size(uris.get(0)), is(10L));
+        assertThat(s3FileInput.size(uris.get(1)), is(20L));
+        verify(amazonS3, never()).getObjectMetadata(anyString(), anyString());
+    }
+
     private List<S3ObjectSummary> objectSummaries() {
         listObjectSummaries = new LinkedList<>();
 
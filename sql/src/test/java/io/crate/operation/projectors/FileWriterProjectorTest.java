@@ -23,10 +23,13 @@
 package io.crate.operation.projectors;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
 import io.crate.data.BatchIterator;
 import io.crate.data.RowsBatchIterator;
+import io.crate.data.Input;
 import io.crate.exceptions.UnhandledServerException;
 import io.crate.metadata.ColumnIdent;
+import io.crate.operation.collect.InputCollectExpression;
 import io.crate.planner.projection.WriterProjection;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.RowGenerator;
@@ -37,9 +40,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.FileInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -48,6 +55,7 @@ import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.core.Is.is;
 
@@ -118,4 +126,74 @@ public class FileWriterProjectorTest extends CrateUnitTest {
 
         new TestingBatchConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
     }
+
+    @Test
+    public void testPartUri() throws Exception {
+        assertThat(FileWriterCountCollector.partUri(URI.create("file:///tmp/doc_0_.json.gz"), 0).toString(),
+            is("file:///tmp/doc_0_.json.gz"));
+        assertThat(FileWriterCountCollector.partUri(URI.create("file:///tmp/doc_0_.json.gz"), 2).toString(),
+            is("file:///tmp/doc_0_.2.json.gz"));
+        assertThat(FileWriterCountCollector.partUri(URI.create("s3://bucket/dir.d/out"), 1).toString(),
+            is("s3://bucket/dir.d/out.1"));
+    }
+
+    @Test
+    public void testOutputIsSplitIntoFilesOfMaxFileSize() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        String uri = directory.resolve("out.json").toUri().toString();
+
+        // each line has 14 bytes, so two lines fit into one file
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, uri,
+            null, -1, 1, 28L, null, ImmutableSet.of(), new HashMap<>(),
+            null, WriterProjection.OutputFormat.JSON_OBJECT);
+
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(fileWriterProjector.apply(sourceSupplier.get()), null);
+        assertThat(TestingHelpers.printedTable(consumer.getBucket()), is("5\n"));
+
+        assertEquals("input line 00\n" +
+                     "input line 01\n", TestingHelpers.readFile(directory.resolve("out.json").toString()));
+        assertEquals("input line 02\n" +
+                     "input line 03\n", TestingHelpers.readFile(directory.resolve("out.1.json").toString()));
+        assertEquals("input line 04\n", TestingHelpers.readFile(directory.resolve("out.2.json").toString()));
+    }
+
+    @Test
+    public void testWriteGzipCompressedWithMultipleThreads() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("out.json.gz");
+
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, file.toUri().toString(),
+            WriterProjection.CompressionType.GZIP, 1, 2, -1L, null, ImmutableSet.of(), new HashMap<>(),
+            null, WriterProjection.OutputFormat.JSON_OBJECT);
+
+        new TestingBatchConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
+
+        try (GZIPInputStream in = new GZIPInputStream(new FileInputStream(file.toFile()))) {
+            assertEquals("input line 00\n" +
+                         "input line 01\n" +
+                         "input line 02\n" +
+                         "input line 03\n" +
+                         "input line 04\n", new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testWriteCsv() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("out.csv");
+        InputCollectExpression input = new InputCollectExpression(0);
+
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, file.toUri().toString(),
+            null, Collections.<Input<?>>singletonList(input), ImmutableSet.of(input), new HashMap<>(),
+            Collections.singletonList("name"), WriterProjection.OutputFormat.CSV);
+
+        Supplier<BatchIterator> source = () -> RowsBatchIterator.newInstance(RowGenerator.fromSingleColValues(
+            Arrays.asList(new BytesRef("foo"), new BytesRef("a, \"b\""), new BytesRef(""), null)), 1);
+        new TestingBatchConsumer().accept(fileWriterProjector.apply(source.get()), null);
+
+        assertEquals("name\n" +
+                     "foo\n" +
+                     "\"a, \"\"b\"\"\"\n" +
+                     "\"\"\n" +
+                     "\n", TestingHelpers.readFile(file.toAbsolutePath().toString()));
+    }
 }
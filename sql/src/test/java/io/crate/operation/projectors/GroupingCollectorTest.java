@@ -0,0 +1,93 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.metadata.Functions;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.impl.SumAggregation;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.is;
+
+public class GroupingCollectorTest extends CrateUnitTest {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+
+    @Test
+    public void testCombinerMergesPartialGroupStates() throws Exception {
+        Functions functions = getFunctions();
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        AggregationFunction sumAgg =
+            (AggregationFunction) functions.getBuiltin(SumAggregation.NAME, Collections.singletonList(DataTypes.LONG));
+        GroupingCollector<Object> collector = GroupingCollector.singleKey(
+            new CollectExpression[]{keyInput},
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[]{sumAgg},
+            new Input[][]{new Input[]{keyInput}},
+            RAM_ACCOUNTING_CONTEXT,
+            keyInput,
+            DataTypes.LONG
+        );
+
+        BiConsumer<Map<Object, Object[]>, Row> accumulator = collector.accumulator();
+        Map<Object, Object[]> shard1 = collector.supplier().get();
+        for (long key : Arrays.asList(1L, 2L, 2L)) {
+            accumulator.accept(shard1, new Row1(key));
+        }
+        Map<Object, Object[]> shard2 = collector.supplier().get();
+        for (long key : Arrays.asList(2L, 3L)) {
+            accumulator.accept(shard2, new Row1(key));
+        }
+
+        Map<Object, Object[]> merged = collector.combiner().apply(shard1, shard2);
+        assertThat(merged.size(), is(3));
+
+        long total = 0;
+        for (Row row : collector.finisher().apply(merged)) {
+            assertThat(row.numColumns(), is(2));
+            if (row.get(0).equals(2L)) {
+                assertThat(row.get(1), is(6L));
+            }
+            total += (long) row.get(1);
+        }
+        assertThat(total, is(10L));
+    }
+}
@@ -32,8 +32,10 @@ import io.crate.analyze.symbol.Symbol;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
+import io.crate.data.CollectingBatchIterator;
 import io.crate.data.CollectionBucket;
 import io.crate.data.Projector;
+import io.crate.data.Row;
 import io.crate.data.RowsBatchIterator;
 import io.crate.executor.transport.TransportActionProvider;
 import io.crate.metadata.FunctionIdent;
@@ -49,6 +51,7 @@ import io.crate.planner.projection.AggregationProjection;
 import io.crate.planner.projection.FilterProjection;
 import io.crate.planner.projection.GroupProjection;
 import io.crate.planner.projection.OrderedTopNProjection;
+import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.TopNProjection;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingBatchConsumer;
@@ -73,6 +76,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collector;
 
 import static com.carrotsearch.randomizedtesting.RandomizedTest.$;
 import static io.crate.testing.TestingHelpers.getFunctions;
@@ -252,6 +256,92 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
         ));
     }
 
+    @Test
+    public void testAggregationProjectorsOfShardsAreMerged() throws Exception {
+        AggregationProjection projection = new AggregationProjection(Arrays.asList(
+            new Aggregation(
+                avgInfo,
+                avgInfo.returnType(),
+                Collections.singletonList(new InputColumn(1))),
+            new Aggregation(
+                countInfo,
+                countInfo.returnType(),
+                Collections.singletonList(new InputColumn(0)))
+        ), RowGranularity.SHARD, AggregateMode.ITER_FINAL);
+
+        BatchIterator batchIterator = mergedShardsIterator(
+            projection,
+            Arrays.asList($("foo", 10), $("bar", 20)),
+            Collections.singletonList($("baz", 60)));
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(batchIterator, null);
+
+        assertThat(consumer.getBucket(), contains(isRow(30.0, 3L)));
+    }
+
+    @Test
+    public void testGroupProjectorsOfShardsAreMerged() throws Exception {
+        List<Symbol> keys = Collections.singletonList(new InputColumn(0, DataTypes.STRING));
+        List<Aggregation> aggregations = Arrays.asList(
+            new Aggregation(
+                avgInfo,
+                avgInfo.returnType(),
+                Collections.singletonList(new InputColumn(1))),
+            new Aggregation(
+                countInfo,
+                countInfo.returnType(),
+                Collections.singletonList(new InputColumn(0)))
+        );
+        GroupProjection projection = new GroupProjection(
+            keys, aggregations, AggregateMode.ITER_FINAL, RowGranularity.SHARD);
+
+        BytesRef human = new BytesRef("human");
+        BytesRef vogon = new BytesRef("vogon");
+        BatchIterator batchIterator = mergedShardsIterator(
+            projection,
+            Arrays.asList($(human, 34), $(vogon, 40), $(human, 22)),
+            Arrays.asList($(vogon, 48), $(human, 32)));
+
+        List<Symbol> outputs = Arrays.asList(
+            new InputColumn(0, DataTypes.STRING),
+            new InputColumn(1, DataTypes.DOUBLE),
+            new InputColumn(2, DataTypes.LONG));
+        OrderedTopNProjection topNProjection = new OrderedTopNProjection(10, 0, outputs,
+            ImmutableList.of(new InputColumn(1, DataTypes.DOUBLE)),
+            new boolean[]{false},
+            new Boolean[]{null});
+        Projector topNProjector = visitor.create(topNProjection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(topNProjector.apply(batchIterator), null);
+
+        assertThat(consumer.getBucket(), contains(
+            isRow(human, 29.333333333333332, 3L),
+            isRow(vogon, 44.0, 2L)
+        ));
+    }
+
+    /**
+     * Consumes the rows of each shard concurrently using its own projector of the projection, like the
+     * ShardCollectSource does if the projection is the only shard projection.
+     */
+    @SafeVarargs
+    private final BatchIterator mergedShardsIterator(Projection projection, List<Object[]>... shardRows) {
+        BatchIterator[] shardIterators = new BatchIterator[shardRows.length];
+        List<Collector<Row, Object, ? extends Iterable<Row>>> collectors = new ArrayList<>(shardRows.length);
+        int numOutputs = 0;
+        for (int i = 0; i < shardRows.length; i++) {
+            shardIterators[i] = RowsBatchIterator.newInstance(new CollectionBucket(shardRows[i]), 2);
+            Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+            assertThat(projector, instanceOf(CollectingProjector.class));
+            CollectingProjector collectingProjector = (CollectingProjector) projector;
+            //noinspection unchecked
+            collectors.add((Collector<Row, Object, ? extends Iterable<Row>>) collectingProjector.collector());
+            numOutputs = collectingProjector.numOutputs();
+        }
+        return CollectingBatchIterator.newInstance(
+            threadPool.executor(ThreadPool.Names.SEARCH), shardIterators, collectors, numOutputs);
+    }
+
     @Test
     public void testFilterProjection() throws Exception {
         EqOperator op =
@@ -0,0 +1,84 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors.writer;
+
+import com.google.common.io.ByteStreams;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.is;
+
+public class ParallelGZIPOutputStreamTest extends CrateUnitTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @After
+    public void shutdownExecutor() throws Exception {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testOutputSpanningMultipleBlocksCanBeDecompressedWithGZIPInputStream() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelGZIPOutputStream(compressed, executor, 1, 3)) {
+            for (int i = 0; i < 200_000; i++) {
+                String line = "{\"id\": " + i + ", \"name\": \"" + randomAsciiOfLength(10) + "\"}\n";
+                expected.append(line);
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                if (i % 2 == 0) {
+                    out.write(bytes);
+                } else {
+                    for (byte b : bytes) {
+                        out.write(b);
+                    }
+                }
+            }
+        }
+
+        byte[] decompressed = ByteStreams.toByteArray(
+            new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())));
+        assertThat(new String(decompressed, StandardCharsets.UTF_8), is(expected.toString()));
+    }
+
+    @Test
+    public void testEmptyOutputIsAValidGZIPFile() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new ParallelGZIPOutputStream(compressed, executor, 6, 2).close();
+
+        byte[] decompressed = ByteStreams.toByteArray(
+            new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())));
+        assertThat(decompressed.length, is(0));
+    }
+}
@@ -22,6 +22,7 @@
 
 package io.crate.operation.reference.doc.lucene;
 
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.ReferenceIdent;
 import io.crate.metadata.RowGranularity;
@@ -30,9 +31,12 @@ import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
 import io.crate.types.SetType;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
 import org.junit.Test;
 
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class LuceneReferenceResolverTest extends CrateUnitTest {
 
@@ -56,4 +60,45 @@ public class LuceneReferenceResolverTest extends CrateUnitTest {
         assertThat(luceneReferenceResolver.getImplementation(setRef),
             instanceOf(DocCollectorExpression.ChildDocCollectorExpression.class));
     }
+
+    @Test
+    public void testPreferDocValuesRewritesSourceLookupIfColumnHasDocValues() {
+        MappedFieldType fieldType = KeywordFieldMapper.Defaults.FIELD_TYPE.clone();
+        fieldType.setHasDocValues(true);
+        LuceneReferenceResolver resolver = new LuceneReferenceResolver(i -> fieldType, null);
+
+        Reference sourceRef = new Reference(new ReferenceIdent(
+            new TableIdent("s", "t"), new ColumnIdent("_doc", "a")),
+            RowGranularity.DOC,
+            DataTypes.STRING);
+        Reference reference = resolver.preferDocValues(sourceRef);
+        assertThat(reference.ident().columnIdent().fqn(), is("a"));
+        assertThat(resolver.getImplementation(reference), instanceOf(BytesRefColumnReference.class));
+    }
+
+    @Test
+    public void testPreferDocValuesKeepsSourceLookupWithoutDocValues() {
+        MappedFieldType fieldType = KeywordFieldMapper.Defaults.FIELD_TYPE.clone();
+        fieldType.setHasDocValues(false);
+        LuceneReferenceResolver resolver = new LuceneReferenceResolver(i -> fieldType, null);
+
+        Reference sourceRef = new Reference(new ReferenceIdent(
+            new TableIdent("s", "t"), new ColumnIdent("_doc", "a")),
+            RowGranularity.DOC,
+            DataTypes.STRING);
+        assertThat(resolver.preferDocValues(sourceRef), sameInstance(sourceRef));
+    }
+
+    @Test
+    public void testPreferDocValuesKeepsSourceLookupForArrays() {
+        MappedFieldType fieldType = KeywordFieldMapper.Defaults.FIELD_TYPE.clone();
+        fieldType.setHasDocValues(true);
+        LuceneReferenceResolver resolver = new LuceneReferenceResolver(i -> fieldType, null);
+
+        Reference sourceRef = new Reference(new ReferenceIdent(
+            new TableIdent("s", "t"), new ColumnIdent("_doc", "a")),
+            RowGranularity.DOC,
+            DataTypes.DOUBLE_ARRAY);
+        assertThat(resolver.preferDocValues(sourceRef), sameInstance(sourceRef));
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.reference.file;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticsearchParseException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CSVLineParserTest extends CrateUnitTest {
+
+    private CSVLineParser parser;
+
+    @Before
+    public void prepare() throws Exception {
+        parser = new CSVLineParser(';', '\'', ImmutableMap.of(
+            "id", DataTypes.LONG,
+            "age", DataTypes.SHORT,
+            "tags", new ArrayType(DataTypes.STRING)));
+        parser.parseHeader(bytes("id;name;age;tags"));
+    }
+
+    private static byte[] bytes(String line) {
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testValuesAreConvertedToColumnTypes() throws Exception {
+        Object[] values = parser.parse(bytes("-9223372036854775808;'Ford; ''Prefect''';42;'[\"a\", \"b\"]'"));
+        assertThat(values, arrayContaining(
+            Long.MIN_VALUE, new BytesRef("Ford; 'Prefect'"), (short) 42, new BytesRef[]{new BytesRef("a"), new BytesRef("b")}));
+        assertThat(parser.toJson(values).utf8ToString(),
+            is("{\"id\":-9223372036854775808,\"name\":\"Ford; 'Prefect'\",\"age\":42,\"tags\":[\"a\",\"b\"]}"));
+    }
+
+    @Test
+    public void testEmptyUnquotedValueIsNull() throws Exception {
+        Object[] values = parser.parse(bytes("1;'';;"));
+        assertThat(values, arrayContaining(1L, new BytesRef(""), null, null));
+        assertThat(parser.toJson(values).utf8ToString(), is("{\"id\":1,\"name\":\"\"}"));
+        assertThat(parser.columnIndex("age"), is(2));
+        assertThat(parser.columnIndex("unknown"), nullValue());
+    }
+
+    @Test
+    public void testNumberOfValuesMustMatchHeader() throws Exception {
+        expectedException.expect(ElasticsearchParseException.class);
+        expectedException.expectMessage("Number of values (2) doesn't match the number of columns in the CSV header (4)");
+        parser.parse(bytes("1;foo"));
+    }
+
+    @Test
+    public void testInvalidNumber() throws Exception {
+        expectedException.expect(ElasticsearchParseException.class);
+        expectedException.expectMessage("Cannot convert value \"9223372036854775808\" of column \"id\" to type long");
+        parser.parse(bytes("9223372036854775808;foo;1;"));
+    }
+
+    @Test
+    public void testUnterminatedQuote() throws Exception {
+        expectedException.expect(ElasticsearchParseException.class);
+        expectedException.expectMessage("Quoted value in column 2 is not terminated");
+        parser.parse(bytes("1;'foo;1;"));
+    }
+
+    @Test
+    public void testQuotedValueWithLineBreakIsNotSupported() throws Exception {
+        // the file is read line by line, so the parser receives the lines of the record separately
+        String[] lines = "1;'Ford\nPrefect';42;".split("\n");
+        assertThat(lines.length, is(2));
+
+        expectedException.expect(ElasticsearchParseException.class);
+        expectedException.expectMessage(
+            "Quoted value in column 2 is not terminated, quoted values must not contain line breaks");
+        parser.parse(bytes(lines[0]));
+    }
+}
@@ -21,8 +21,11 @@
 
 package io.crate.operation.reference.file;
 
+import com.google.common.collect.ImmutableMap;
 import io.crate.metadata.ColumnIdent;
 import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
 import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
@@ -39,4 +42,18 @@ public class LineContextTest extends CrateUnitTest {
         assertNull(context.get(new ColumnIdent("details", "invalid")));
         assertEquals(43, context.get(new ColumnIdent("details", "age")));
     }
+
+    @Test
+    public void testGetFromCsv() throws Exception {
+        CSVLineParser parser = new CSVLineParser(',', '"', ImmutableMap.of("details", DataTypes.OBJECT));
+        parser.parseHeader("name,details".getBytes(StandardCharsets.UTF_8));
+        LineContext context = new LineContext(parser);
+        context.rawSource("foo,\"{\"\"age\"\": 43}\"".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(context.get(new ColumnIdent("invalid")));
+        assertNull(context.get(new ColumnIdent("details", "invalid")));
+        assertEquals(new BytesRef("foo"), context.get(new ColumnIdent("name")));
+        assertEquals(43, context.get(new ColumnIdent("details", "age")));
+        assertEquals("foo", context.sourceAsMap().get("name"));
+    }
 }
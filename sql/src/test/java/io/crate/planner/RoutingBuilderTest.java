@@ -107,4 +107,27 @@ public class RoutingBuilderTest {
         ReaderAllocations readerAllocations2 = routingBuilder.buildReaderAllocations();
         assertThat(readerAllocations, is(readerAllocations2));
     }
+
+    @Test
+    public void testAllocateRoutingWithPreferredNodes() throws Exception {
+        TableIdent custom = new TableIdent("custom", "t1");
+        TableInfo tableInfo = TestingTableInfo.builder(
+            custom, shardRouting("t1")).add("id", DataTypes.INTEGER, null).build();
+        RoutingBuilder routingBuilder = new RoutingBuilder();
+        routingBuilder.preferNodes(custom, (index, shardId) -> {
+            if (shardId == 1) {
+                return "nodeTwo";
+            }
+            if (shardId == 4) {
+                return "nodeOne";
+            }
+            return null;
+        });
+
+        Routing routing = routingBuilder.allocateRouting(tableInfo, WhereClause.MATCH_ALL, null, null);
+
+        assertThat(routing.locations().size(), is(2));
+        assertThat(routing.locations().get("nodeOne").get("t1"), is(Arrays.asList(2, 4)));
+        assertThat(routing.locations().get("nodeTwo").get("t1"), is(Arrays.asList(1, 3)));
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.consumer;
+
+import io.crate.analyze.InsertFromSubQueryAnalyzedStatement;
+import io.crate.analyze.TableDefinitions;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.TestingTableInfo;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+
+public class InsertFromSubQueryPlannerTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void prepare() {
+        e = SQLExecutor.builder(clusterService)
+            .addDocTable(table("source", 4))
+            .addDocTable(table("target", 4))
+            .addDocTable(table("target_more_shards", 5))
+            .addDocTable(TestingTableInfo.builder(new TableIdent(Schemas.DOC_SCHEMA_NAME, "parted_target"),
+                TableDefinitions.shardRouting("parted_target"))
+                .add("id", DataTypes.LONG, null)
+                .add("name", DataTypes.STRING, null)
+                .add("p", DataTypes.STRING, null, true)
+                .clusteredBy("id")
+                .numberOfShards(4)
+                .build())
+            .build();
+    }
+
+    private static DocTableInfo table(String name, int numberOfShards) {
+        return TestingTableInfo.builder(new TableIdent(Schemas.DOC_SCHEMA_NAME, name), TableDefinitions.shardRouting(name))
+            .add("id", DataTypes.LONG, null)
+            .add("other_id", DataTypes.LONG, null)
+            .add("name", DataTypes.STRING, null)
+            .addPrimaryKey("id")
+            .clusteredBy("id")
+            .numberOfShards(numberOfShards)
+            .build();
+    }
+
+    private boolean isColocated(String stmt) {
+        InsertFromSubQueryAnalyzedStatement statement = e.analyze(stmt);
+        return InsertFromSubQueryPlanner.isColocated(statement, statement.subQueryRelation());
+    }
+
+    @Test
+    public void testSameClusteringAndNumberOfShardsIsColocated() throws Exception {
+        assertThat(isColocated("insert into target (id, name) (select id, name from source)"), is(true));
+    }
+
+    @Test
+    public void testDifferentNumberOfShardsIsNotColocated() throws Exception {
+        assertThat(isColocated("insert into target_more_shards (id, name) (select id, name from source)"), is(false));
+    }
+
+    @Test
+    public void testPartitionedTargetIsNotColocated() throws Exception {
+        assertThat(isColocated("insert into parted_target (id, name, p) (select id, name, 'x' from source)"), is(false));
+    }
+
+    @Test
+    public void testClusteredByFromFunctionIsNotColocated() throws Exception {
+        assertThat(isColocated("insert into target (id, name) (select id + 1, name from source)"), is(false));
+    }
+
+    @Test
+    public void testClusteredByFromOtherColumnIsNotColocated() throws Exception {
+        assertThat(isColocated("insert into target (id, name) (select other_id, name from source)"), is(false));
+    }
+
+    @Test
+    public void testGroupBySubQueryIsNotColocated() throws Exception {
+        assertThat(isColocated("insert into target (id, name) (select id, name from source group by id, name)"), is(false));
+    }
+
+    @Test
+    public void testAggregateSubQueryIsNotColocated() throws Exception {
+        assertThat(isColocated("insert into target (id) (select max(id) from source)"), is(false));
+    }
+}
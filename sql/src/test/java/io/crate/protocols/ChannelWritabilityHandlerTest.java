@@ -0,0 +1,66 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols;
+
+import io.crate.test.integration.CrateUnitTest;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ChannelWritabilityHandlerTest extends CrateUnitTest {
+
+    @Test
+    public void testWritableChannelNeedsNoWaiting() throws Exception {
+        ChannelWritabilityHandler handler = new ChannelWritabilityHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+
+        assertThat(handler.whenWritable(channel), nullValue());
+    }
+
+    @Test
+    public void testClosedChannelFailsFuture() throws Exception {
+        ChannelWritabilityHandler handler = new ChannelWritabilityHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        channel.close();
+
+        CompletableFuture<?> future = handler.whenWritable(channel);
+        assertThat(future.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    public void testClosingChannelFailsWaitingFutures() throws Exception {
+        ChannelWritabilityHandler handler = new ChannelWritabilityHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+
+        CompletableFuture<?> future = handler.whenWritable(channel);
+        assertThat(future.isDone(), is(false));
+
+        channel.close();
+        assertThat(future.isCompletedExceptionally(), is(true));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class CursorsTest extends CrateUnitTest {
+
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() throws Exception {
+        threadPool = new TestThreadPool(Thread.currentThread().getName());
+    }
+
+    @After
+    public void shutdownThreadPool() throws Exception {
+        threadPool.shutdown();
+        threadPool.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testIdleCursorIsClosedWithoutFurtherUseOfTheSession() throws Exception {
+        Cursors cursors = new Cursors(threadPool, TimeValue.timeValueMillis(10));
+        Portal portal = mock(Portal.class);
+        cursors.declare("c1", portal);
+
+        assertBusy(() -> verify(portal).close());
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Cursor \"c1\" does not exist");
+        cursors.get("c1");
+    }
+
+    @Test
+    public void testCursorIsNotClosedWhileFetching() throws Exception {
+        Cursors cursors = new Cursors(threadPool, TimeValue.timeValueMillis(10));
+        Portal portal = mock(Portal.class);
+        cursors.declare("c1", portal);
+        cursors.startFetch("c1");
+
+        Thread.sleep(50);
+        cursors.closeIdle();
+        verify(portal, never()).close();
+
+        cursors.get("c1").finishFetch();
+        assertBusy(() -> verify(portal).close());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.Analysis;
+import io.crate.analyze.ParameterContext;
+import io.crate.analyze.symbol.Field;
+import io.crate.collections.Lists2;
+import io.crate.data.RowN;
+import io.crate.planner.Plan;
+import io.crate.planner.node.dql.ESGet;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static io.crate.testing.SymbolMatchers.isLiteral;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class GenericPlansTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private GenericPlans genericPlans;
+
+    @Before
+    public void prepare() {
+        e = SQLExecutor.builder(clusterService).enableDefaultTables().build();
+        genericPlans = new GenericPlans(clusterService);
+    }
+
+    private Statement registerPlan(String stmt, Object... args) {
+        Statement statement = SqlParser.createStatement(stmt);
+        assertThat(genericPlans.get(statement, "doc"), nullValue());
+        Analysis analysis = e.analyzer.boundAnalyze(
+            statement, SessionContext.create(), new ParameterContext(new RowN(args), Collections.emptyList()));
+        Plan plan = e.planner.plan(analysis, UUID.randomUUID(), 0, 0);
+        List<Field> fields = analysis.rootRelation().fields();
+        genericPlans.register(statement, plan, fields, Lists2.copyAndReplace(fields, Field::valueType), 0, "doc");
+        return statement;
+    }
+
+    @Test
+    public void testPrimaryKeyLookupIsBoundToOtherParameters() throws Exception {
+        Statement statement = registerPlan("select name from users where id = ?", 1L);
+        GenericPlans.GenericPlan genericPlan = genericPlans.get(statement, "doc");
+        assertThat(genericPlan, notNullValue());
+
+        UUID jobId = UUID.randomUUID();
+        ESGet esGet = genericPlan.bind(new RowN(new Object[]{2}), 0, jobId);
+        assertThat(esGet.jobId(), is(jobId));
+        assertThat(esGet.docKeys().getOnlyKey().values(), contains(isLiteral(2L)));
+        assertThat(esGet.docKeys().getOnlyKey().id(), is("2"));
+    }
+
+    @Test
+    public void testGenericPlanIsNotUsedForOtherSchemaOrMaxRows() throws Exception {
+        Statement statement = registerPlan("select name from users where id = ?", 1L);
+        assertThat(genericPlans.get(statement, "custom"), nullValue());
+        assertThat(genericPlans.get(statement, "doc").bind(new RowN(new Object[]{2L}), 10, UUID.randomUUID()), nullValue());
+    }
+
+    @Test
+    public void testParametersWhichCanNotBeBoundAreRejected() throws Exception {
+        Statement statement = registerPlan("select name from users where id = ?", 1L);
+        GenericPlans.GenericPlan genericPlan = genericPlans.get(statement, "doc");
+
+        assertThat(genericPlan.bind(new RowN(new Object[]{null}), 0, UUID.randomUUID()), nullValue());
+        assertThat(genericPlan.bind(new RowN(new Object[]{"foo"}), 0, UUID.randomUUID()), nullValue());
+    }
+
+    @Test
+    public void testStatementWithParametersOutsideOfKeyHasNoGenericPlan() throws Exception {
+        Statement statement = registerPlan("select name, ? from users where id = ?", "foo", 1L);
+        assertThat(genericPlans.get(statement, "doc"), nullValue());
+    }
+
+    @Test
+    public void testStatementWithoutPrimaryKeyLookupHasNoGenericPlan() throws Exception {
+        Statement statement = registerPlan("select name from users where name = ?", "Arthur");
+        assertThat(genericPlans.get(statement, "doc"), nullValue());
+    }
+}
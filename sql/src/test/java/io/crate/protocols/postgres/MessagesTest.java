@@ -25,6 +25,7 @@ package io.crate.protocols.postgres;
 import io.crate.data.RowN;
 import io.crate.types.DataTypes;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.Test;
 
@@ -56,6 +57,24 @@ public class MessagesTest {
         assertThat(buffer.readableBytes(), is(12)); // 16 - INT4 because the size was already read
     }
 
+    @Test
+    public void testMultipleDataRowsCanBeWrittenIntoTheSameBuffer() throws Exception {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            Messages.writeDataRow(buffer, new RowN($(10, null)), Arrays.asList(DataTypes.INTEGER, DataTypes.STRING), null);
+            Messages.writeDataRow(buffer, new RowN($(20, null)), Arrays.asList(DataTypes.INTEGER, DataTypes.STRING), null);
+
+            for (int i = 0; i < 2; i++) {
+                assertThat((char) buffer.readByte(), is('D'));
+                assertThat(buffer.readInt(), is(16));
+                buffer.skipBytes(12);
+            }
+            assertThat(buffer.readableBytes(), is(0));
+        } finally {
+            buffer.release();
+        }
+    }
+
     @Test
     public void testCommandCompleteWithWhitespace() throws Exception {
         final EmbeddedChannel channel = new EmbeddedChannel();
@@ -0,0 +1,92 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.RowN;
+import io.crate.metadata.ColumnIdent;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.DummyRelation;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+
+public class ResultToBinaryBuilderTest extends CrateUnitTest {
+
+    private final List<Field> fields = ImmutableList.of(
+        new Field(new DummyRelation(), ColumnIdent.fromPath("doc.col_a"), DataTypes.STRING),
+        new Field(new DummyRelation(), ColumnIdent.fromPath("doc.col_b"), DataTypes.LONG),
+        new Field(new DummyRelation(), ColumnIdent.fromPath("doc.col_c"), DataTypes.DOUBLE_ARRAY)
+    );
+
+    @Test
+    public void testColumnsAreEncodedByType() throws Exception {
+        ResultToBinaryBuilder builder = new ResultToBinaryBuilder(fields);
+        builder.addRow(new RowN(new Object[]{new BytesRef("foo"), 1L, new Double[]{1.0}}));
+        builder.addRow(new RowN(new Object[]{null, null, null}));
+        builder.addRow(new RowN(new Object[]{new BytesRef("foo"), 3L, new Double[]{2.0, 3.0}}));
+
+        StreamInput in = builder.build(System.nanoTime()).streamInput();
+        assertThat(in.readVInt(), is(3));
+        assertThat(in.readString(), is("col_a"));
+        assertThat(DataTypes.fromStream(in), is(DataTypes.STRING));
+        assertThat(in.readString(), is("col_b"));
+        assertThat(DataTypes.fromStream(in), is(DataTypes.LONG));
+        assertThat(in.readString(), is("col_c"));
+        assertThat(DataTypes.fromStream(in), is(DataTypes.DOUBLE_ARRAY));
+        assertThat(in.readVLong(), is(3L));
+
+        // col_a: dictionary with a single entry
+        assertThat(in.readByte(), is(ResultToBinaryBuilder.ENCODING_DICTIONARY));
+        assertThat(in.readVInt(), is(1));
+        assertThat(in.readVInt(), is(3));
+        byte[] value = new byte[3];
+        in.readBytes(value, 0, 3);
+        assertThat(new BytesRef(value).utf8ToString(), is("foo"));
+        assertThat(in.readInt(), is(0));
+        assertThat(in.readInt(), is(-1));
+        assertThat(in.readInt(), is(0));
+
+        // col_b: null bitmap followed by fixed width longs
+        assertThat(in.readByte(), is(ResultToBinaryBuilder.ENCODING_FIXED));
+        assertThat(in.readByte(), is((byte) 0b010));
+        assertThat(in.readLong(), is(1L));
+        assertThat(in.readLong(), is(0L));
+        assertThat(in.readLong(), is(3L));
+
+        // col_c: values written by the streamer of the column type
+        assertThat(in.readByte(), is(ResultToBinaryBuilder.ENCODING_STREAMER));
+        assertThat(DataTypes.DOUBLE_ARRAY.streamer().readValueFrom(in), is(new Object[]{1.0}));
+        assertThat(DataTypes.DOUBLE_ARRAY.streamer().readValueFrom(in), is((Object) null));
+        assertThat(DataTypes.DOUBLE_ARRAY.streamer().readValueFrom(in), is(new Object[]{2.0, 3.0}));
+
+        assertThat(in.readFloat() >= 0f, is(true));
+        assertThat(in.available(), is(0));
+    }
+}
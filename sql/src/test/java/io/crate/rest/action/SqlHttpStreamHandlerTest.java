@@ -0,0 +1,122 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.SQLOperations;
+import io.crate.operation.user.UserManager;
+import io.crate.test.integration.CrateUnitTest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class SqlHttpStreamHandlerTest extends CrateUnitTest {
+
+    private static final String STREAM_URI = "/_sql?stream=true";
+
+    private SQLOperations sqlOperations;
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUpChannel() throws Exception {
+        sqlOperations = mock(SQLOperations.class);
+        Settings settings = Settings.builder()
+            .put("http.max_content_length", "16b")
+            .build();
+        channel = new EmbeddedChannel(new SqlHttpStreamHandler(settings, sqlOperations, mock(UserManager.class)));
+    }
+
+    private static ByteBuf content(String content) {
+        return Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
+    }
+
+    private void assertRequestTooLarge() {
+        FullHttpResponse response = channel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE));
+        assertThat(response.content().toString(StandardCharsets.UTF_8),
+            containsString("request body exceeds the maximum content length of 16 bytes"));
+        response.release();
+        assertThat(channel.isOpen(), is(false));
+        verifyZeroInteractions(sqlOperations);
+    }
+
+    @Test
+    public void testOtherRequestsArePassedOn() throws Exception {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_sql");
+        channel.writeInbound(request);
+
+        assertThat(channel.readInbound(), sameInstance(request));
+        assertThat(channel.readOutbound(), nullValue());
+    }
+
+    @Test
+    public void testRequestWithContentLengthAboveLimitIsRejected() throws Exception {
+        ByteBuf body = content("{\"stmt\": \"select * from sys.cluster\"}");
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(
+            HttpVersion.HTTP_1_1, HttpMethod.POST, STREAM_URI, body);
+        HttpUtil.setContentLength(request, body.readableBytes());
+        channel.writeInbound(request);
+
+        assertRequestTooLarge();
+        assertThat(body.refCnt(), is(0));
+    }
+
+    @Test
+    public void testChunkedRequestAboveLimitIsRejected() throws Exception {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, STREAM_URI);
+        HttpUtil.setTransferEncodingChunked(request, true);
+        channel.writeInbound(request);
+
+        ByteBuf firstChunk = content("{\"stmt\": ");
+        channel.writeInbound(new DefaultHttpContent(firstChunk));
+        assertThat(channel.readOutbound(), nullValue());
+
+        ByteBuf secondChunk = content("\"select * from sys.cluster\"}");
+        channel.writeInbound(new DefaultLastHttpContent(secondChunk));
+
+        assertRequestTooLarge();
+        assertThat(firstChunk.refCnt(), is(0));
+        assertThat(secondChunk.refCnt(), is(0));
+    }
+}
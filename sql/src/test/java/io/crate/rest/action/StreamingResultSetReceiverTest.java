@@ -0,0 +1,180 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.metadata.ColumnIdent;
+import io.crate.protocols.ChannelWritabilityHandler;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.DummyRelation;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class StreamingResultSetReceiverTest extends CrateUnitTest {
+
+    private final List<Row> rows = ImmutableList.of(
+        new RowN(new Object[]{new BytesRef("foo"), 1, true}),
+        new RowN(new Object[]{new BytesRef("bar"), 2, false}),
+        new RowN(new Object[]{new BytesRef("foobar"), 3, null})
+    );
+    private final List<Field> fields = ImmutableList.of(
+        new Field(new DummyRelation(), new ColumnIdent("col_a"), DataTypes.STRING),
+        new Field(new DummyRelation(), new ColumnIdent("col_b"), DataTypes.INTEGER),
+        new Field(new DummyRelation(), new ColumnIdent("col_c"), DataTypes.BOOLEAN)
+    );
+
+    private ChannelWritabilityHandler writabilityHandler;
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUpChannel() throws Exception {
+        writabilityHandler = new ChannelWritabilityHandler();
+        channel = new EmbeddedChannel(writabilityHandler);
+    }
+
+    private StreamingResultSetReceiver newReceiver(int chunkSize) {
+        return new StreamingResultSetReceiver(channel, writabilityHandler, t -> {}, fields, 0L, false, true, chunkSize);
+    }
+
+    /**
+     * Reads the chunks written to the channel until the last chunk and returns the concatenated content
+     */
+    private String readChunks() {
+        StringBuilder sb = new StringBuilder();
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            ByteBuf content = ((HttpContent) msg).content();
+            sb.append(content.toString(StandardCharsets.UTF_8));
+            content.release();
+            if (msg instanceof LastHttpContent) {
+                break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String stripDuration(String s) {
+        return s.replaceAll(",\"duration\":[^,}]+", "");
+    }
+
+    @Test
+    public void testRowsAreStreamedInChunks() throws Exception {
+        StreamingResultSetReceiver receiver = newReceiver(1024);
+        int numRows = 10_000;
+        for (int i = 0; i < numRows; i++) {
+            receiver.setNextRow(rows.get(i % rows.size()));
+        }
+
+        HttpResponse response = channel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.OK));
+        assertThat(HttpUtil.isTransferEncodingChunked(response), is(true));
+
+        // chunks are written while rows are received, before the result is complete
+        StringBuilder sb = new StringBuilder();
+        int numChunks = 0;
+        HttpContent chunk;
+        while ((chunk = channel.readOutbound()) != null) {
+            assertThat(chunk, not(instanceOf(LastHttpContent.class)));
+            sb.append(chunk.content().toString(StandardCharsets.UTF_8));
+            chunk.release();
+            numChunks++;
+        }
+        assertThat(numChunks, greaterThan(1));
+
+        receiver.allFinished(false);
+        sb.append(readChunks());
+
+        assertThat(receiver.completionFuture().isDone(), is(true));
+        String content = stripDuration(sb.toString());
+        assertThat(content, startsWith("{\"cols\":[\"col_a\",\"col_b\",\"col_c\"],\"rows\":[[\"foo\",1,true],"));
+        assertThat(content, endsWith("]],\"rowcount\":" + numRows + "}"));
+    }
+
+    @Test
+    public void testRowsAreCollectedUntilChunkSizeIsReached() throws Exception {
+        StreamingResultSetReceiver receiver = newReceiver(1024);
+        for (Row row : rows) {
+            receiver.setNextRow(row);
+        }
+        HttpResponse response = channel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.OK));
+        assertThat(channel.readOutbound(), nullValue());
+
+        receiver.allFinished(false);
+        assertThat(stripDuration(readChunks()),
+            is("{\"cols\":[\"col_a\",\"col_b\",\"col_c\"]," +
+               "\"rows\":[[\"foo\",1,true],[\"bar\",2,false],[\"foobar\",3,null]],\"rowcount\":3}"));
+    }
+
+    @Test
+    public void testFailureAfterHeadersWereSentIsAddedToResponse() throws Exception {
+        StreamingResultSetReceiver receiver = newReceiver(1024);
+        receiver.setNextRow(rows.get(0));
+        receiver.fail(new IllegalStateException("stream failed"));
+
+        HttpResponse response = channel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.OK));
+        String content = readChunks();
+        assertThat(content, containsString("\"rows\":[[\"foo\",1,true]],\"rowcount\":1,\"error\":{"));
+        assertThat(content, containsString("stream failed"));
+        assertThat(receiver.completionFuture().isCompletedExceptionally(), is(true));
+        assertThat(channel.isOpen(), is(true));
+    }
+
+    @Test
+    public void testFailureBeforeHeadersWereSentResultsInErrorResponse() throws Exception {
+        StreamingResultSetReceiver receiver = newReceiver(1024);
+        receiver.fail(new IllegalStateException("stream failed"));
+
+        FullHttpResponse response = channel.readOutbound();
+        assertThat(response.status().code(), greaterThan(399));
+        assertThat(response.content().toString(StandardCharsets.UTF_8), containsString("stream failed"));
+        response.release();
+        assertThat(receiver.completionFuture().isCompletedExceptionally(), is(true));
+    }
+}